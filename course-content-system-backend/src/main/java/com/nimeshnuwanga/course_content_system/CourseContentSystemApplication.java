@@ -2,8 +2,10 @@ package com.nimeshnuwanga.course_content_system;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CourseContentSystemApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,52 @@
+package com.nimeshnuwanga.course_content_system.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Metadata caches sit behind Spring's cache abstraction, so a multi-node deployment can switch
+ * {@code spring.cache.type} to a shared provider without touching the service. The Caffeine
+ * settings below only apply when the in-process provider is active.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String COURSE_CONTENT_CACHE = "courseContent";
+    public static final String COURSE_CONTENT_LIST_CACHE = "courseContentList";
+
+    @Value("${file.cache.metadata.max-entries:10000}")
+    private long metadataMaxEntries;
+
+    @Value("${file.cache.metadata.ttl:PT10M}")
+    private Duration metadataTtl;
+
+    @Value("${file.cache.listing.max-entries:200}")
+    private long listingMaxEntries;
+
+    @Value("${file.cache.listing.ttl:PT1M}")
+    private Duration listingTtl;
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> courseContentCacheCustomizer() {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(COURSE_CONTENT_CACHE, Caffeine.newBuilder()
+                    .maximumSize(metadataMaxEntries)
+                    .expireAfterWrite(metadataTtl)
+                    .recordStats()
+                    .build());
+            cacheManager.registerCustomCache(COURSE_CONTENT_LIST_CACHE, Caffeine.newBuilder()
+                    .maximumSize(listingMaxEntries)
+                    .expireAfterWrite(listingTtl)
+                    .recordStats()
+                    .build());
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.nimeshnuwanga.course_content_system.config;
+
+import com.nimeshnuwanga.course_content_system.storage.LocalStorageBackend;
+import com.nimeshnuwanga.course_content_system.storage.S3StorageBackend;
+import com.nimeshnuwanga.course_content_system.storage.StorageBackend;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
+
+/**
+ * Selects where stored files live with {@code file.storage.backend}: {@code local} (default)
+ * keeps them in {@code file.upload-dir}; {@code s3} keeps them in a shared bucket so several
+ * stateless nodes can serve the same content. {@code file.upload-dir} is still used for staging
+ * uploads in both cases.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "file.storage.backend", havingValue = "local", matchIfMissing = true)
+    public StorageBackend localStorageBackend(@Value("${file.upload-dir}") String uploadDir) {
+        return new LocalStorageBackend(uploadDir);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "file.storage.backend", havingValue = "s3")
+    public S3Client s3Client(@Value("${file.storage.s3.region:us-east-1}") String region,
+                             @Value("${file.storage.s3.endpoint:}") String endpoint,
+                             @Value("${file.storage.s3.path-style-access:false}") boolean pathStyleAccess,
+                             @Value("${file.storage.s3.access-key:}") String accessKey,
+                             @Value("${file.storage.s3.secret-key:}") String secretKey) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .forcePathStyle(pathStyleAccess);
+        // MinIO and other S3-compatible stores are reached through an explicit endpoint
+        if (StringUtils.hasText(endpoint)) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        // Without explicit keys the SDK's default chain (environment, profile, instance role) is used
+        if (StringUtils.hasText(accessKey)) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        }
+        return builder.build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "file.storage.backend", havingValue = "s3")
+    public StorageBackend s3StorageBackend(S3Client s3Client,
+                                           @Value("${file.storage.s3.bucket}") String bucket,
+                                           @Value("${file.storage.s3.multipart-threshold:16MB}") DataSize multipartThreshold,
+                                           @Value("${file.storage.s3.part-size:8MB}") DataSize partSize,
+                                           @Value("${file.storage.s3.upload-concurrency:4}") int uploadConcurrency) {
+        return new S3StorageBackend(s3Client, bucket, multipartThreshold.toBytes(), partSize.toBytes(), uploadConcurrency);
+    }
+}
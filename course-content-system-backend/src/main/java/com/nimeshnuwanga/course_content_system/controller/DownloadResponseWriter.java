@@ -0,0 +1,376 @@
+package com.nimeshnuwanga.course_content_system.controller;
+
+import com.nimeshnuwanga.course_content_system.storage.StorageBackendResource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes a stored file to the servlet response, honouring RFC 7233 byte-range requests
+ * (single and multi-range, If-Range) so media players can seek without re-downloading.
+ * The file is always streamed from the resource; it is never buffered in memory.
+ * <p>
+ * When zero-copy is enabled and the resource is a local file, single-part bodies are
+ * handed to Tomcat's sendfile support, so the kernel sends them without copying through the
+ * JVM. Everything else, including multipart ranges and connectors without sendfile, is a plain
+ * copy through the servlet output stream. Resources held by a remote storage backend fetch
+ * only the requested range.
+ * <p>
+ * A precompressed copy of the file can be sent instead with its Content-Encoding; it is
+ * always sent whole, since byte ranges refer to the uncompressed file.
+ * <p>
+ * Conditional requests (If-None-Match, If-Modified-Since) are answered with 304 from the
+ * file's metadata alone. Content-addressed files use their SHA-256 as the ETag, so the
+ * validator is identical on every node; other files fall back to size and mtime.
+ */
+public class DownloadResponseWriter {
+
+    private static final String BYTES_UNIT = "bytes";
+    private static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("([0-9a-f]{64})\\.[^.]+");
+
+    private final boolean zeroCopy;
+
+    public DownloadResponseWriter(boolean zeroCopy) {
+        this.zeroCopy = zeroCopy;
+    }
+
+    /**
+     * Writes the response and returns the number of body bytes sent, which is zero for HEAD,
+     * 304 and 416 responses.
+     */
+    public long write(Resource resource, String contentType, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        return write(resource, null, null, contentType, request, response);
+    }
+
+    /**
+     * Like {@link #write(Resource, String, HttpServletRequest, HttpServletResponse)}, but sends
+     * {@code encoded}, a copy of {@code resource} in {@code contentEncoding}, when it is not
+     * {@code null}. The encoded copy is always sent whole with its own ETag; ranges are only
+     * served from the unencoded file.
+     */
+    public long write(Resource resource, Resource encoded, String contentEncoding, String contentType,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long lastModified = lastModified(resource);
+        String eTag = eTag(resource.getFilename(), resource.contentLength(), lastModified);
+        if (encoded != null && eTag != null) {
+            eTag = eTag.substring(0, eTag.length() - 1) + "-" + contentEncoding + "\"";
+        }
+        return write(resource, encoded, contentEncoding, contentType, eTag, lastModified, request, response);
+    }
+
+    /**
+     * Like {@link #write(Resource, String, HttpServletRequest, HttpServletResponse)}, but
+     * validates with {@code eTag}, a quoted entity tag chosen by the caller, and sends no
+     * Last-Modified. For files whose modification time changes while their content does not.
+     */
+    public long write(Resource resource, String contentType, String eTag, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        return write(resource, null, null, contentType, eTag, -1, request, response);
+    }
+
+    private long write(Resource resource, Resource encoded, String contentEncoding, String contentType,
+                       String eTag, long lastModified, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        Resource body = encoded != null ? encoded : resource;
+        long contentLength = body.contentLength();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES_UNIT);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"");
+        if (eTag != null) {
+            response.setHeader(HttpHeaders.ETAG, eTag);
+        }
+        if (lastModified >= 0) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+
+        // Sets 304 (or 412 for failed If-Match/If-Unmodified-Since) without touching the body
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return 0;
+        }
+
+        boolean headRequest = HttpMethod.HEAD.matches(request.getMethod());
+        List<ByteRange> ranges = encoded != null ? null : requestedRanges(request, contentLength, eTag, lastModified);
+
+        if (ranges == null) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(contentType);
+            if (encoded != null) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+            }
+            response.setContentLengthLong(contentLength);
+            if (headRequest) {
+                return 0;
+            }
+            if (!sendfile(body, request, 0, contentLength - 1)) {
+                copy(body, response.getOutputStream(), 0, contentLength - 1);
+            }
+            return contentLength;
+        }
+
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " */" + contentLength);
+            response.setContentLengthLong(0);
+            return 0;
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+
+        if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(contentLength));
+            response.setContentLengthLong(range.length());
+            if (headRequest) {
+                return 0;
+            }
+            if (!sendfile(resource, request, range.start(), range.end())) {
+                copy(resource, response.getOutputStream(), range.start(), range.end());
+            }
+            return range.length();
+        }
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long multipartLength = 0;
+        for (ByteRange range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + range.contentRange(contentLength) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            multipartLength += partHeader.length + range.length();
+        }
+        byte[] closingBoundary = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        multipartLength += closingBoundary.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(multipartLength);
+        if (headRequest) {
+            return 0;
+        }
+
+        OutputStream out = response.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            copy(resource, out, range.start(), range.end());
+        }
+        out.write(closingBoundary);
+        return multipartLength;
+    }
+
+    /**
+     * Whether the request's Accept-Encoding allows {@code encoding} with a non-zero quality,
+     * by name or, when it is not listed, through {@code *}.
+     */
+    public static boolean acceptsEncoding(HttpServletRequest request, String encoding) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double wildcardQuality = 0;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(encoding)) {
+                return quality > 0;
+            }
+            if (name.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        return wildcardQuality > 0;
+    }
+
+    /**
+     * Returns {@code null} when the full representation should be sent, an empty list when
+     * none of the requested ranges can be satisfied, or the satisfiable ranges otherwise.
+     */
+    private List<ByteRange> requestedRanges(HttpServletRequest request, long contentLength,
+                                            String eTag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !rangeHeader.startsWith(BYTES_UNIT + "=")) {
+            return null;
+        }
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return null;
+        }
+        if (!ifRangeMatches(request, eTag, lastModified)) {
+            return null;
+        }
+
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException ex) {
+            // Malformed Range headers are ignored and the full file is sent
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>(httpRanges.size());
+        long requestedBytes = 0;
+        for (HttpRange httpRange : httpRanges) {
+            try {
+                long start = httpRange.getRangeStart(contentLength);
+                long end = httpRange.getRangeEnd(contentLength);
+                if (start <= end) {
+                    ranges.add(new ByteRange(start, end));
+                    requestedBytes += end - start + 1;
+                }
+            } catch (IllegalArgumentException ex) {
+                // Unsatisfiable range, skip it
+            }
+        }
+
+        if (ranges.size() > 1 && requestedBytes > contentLength) {
+            // Overlapping ranges asking for more than the whole file; just send the file
+            return null;
+        }
+        return ranges;
+    }
+
+    private boolean ifRangeMatches(HttpServletRequest request, String eTag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return eTag != null && eTag.equals(ifRange);
+        }
+        try {
+            long ifRangeDate = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return lastModified >= 0 && lastModified / 1000 == ifRangeDate / 1000;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Asks Tomcat to send the given byte range straight from the file to the socket once the
+     * request completes. Returns {@code false} when the connector or resource cannot do this.
+     */
+    private boolean sendfile(Resource resource, HttpServletRequest request, long start, long end) {
+        if (!zeroCopy || end < start || !resource.isFile()
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE))) {
+            return false;
+        }
+        try {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, resource.getFile().getCanonicalPath());
+        } catch (IOException ex) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+        request.setAttribute(SENDFILE_END_ATTRIBUTE, end + 1);
+        return true;
+    }
+
+    private void copy(Resource resource, OutputStream out, long start, long end) throws IOException {
+        if (end < start) {
+            return;
+        }
+        if (zeroCopy && resource.isFile()) {
+            transfer(resource.getFile().toPath(), out, start, end);
+            return;
+        }
+        if (resource instanceof StorageBackendResource stored) {
+            try (InputStream in = stored.getInputStream(start, end)) {
+                in.transferTo(out);
+            }
+            return;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            StreamUtils.copyRange(in, out, start, end);
+        }
+    }
+
+    /**
+     * Copies a range of a local file to the response. The servlet stream is not a channel the
+     * JDK can send a file to directly, so this still goes through a heap buffer.
+     */
+    private void transfer(Path file, OutputStream out, long start, long end) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    throw new EOFException("File " + file.getFileName() + " ended before byte " + end);
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    private String eTag(String fileName, long contentLength, long lastModified) {
+        if (fileName != null) {
+            Matcher contentAddressed = CONTENT_ADDRESSED_NAME.matcher(fileName);
+            if (contentAddressed.matches()) {
+                return "\"" + contentAddressed.group(1) + "\"";
+            }
+        }
+        if (lastModified < 0) {
+            return null;
+        }
+        return "\"" + Long.toHexString(contentLength) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private record ByteRange(long start, long end) {
+
+        long length() {
+            return end - start + 1;
+        }
+
+        String contentRange(long contentLength) {
+            return BYTES_UNIT + " " + start + "-" + end + "/" + contentLength;
+        }
+    }
+}
@@ -1,19 +1,48 @@
 package com.nimeshnuwanga.course_content_system.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nimeshnuwanga.course_content_system.dto.BatchUploadItem;
+import com.nimeshnuwanga.course_content_system.dto.BatchUploadResponse;
+import com.nimeshnuwanga.course_content_system.dto.BulkDeleteRequest;
+import com.nimeshnuwanga.course_content_system.dto.BulkDeleteResponse;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentPage;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
+import com.nimeshnuwanga.course_content_system.dto.ErrorResponse;
 import com.nimeshnuwanga.course_content_system.dto.FileUploadResponse;
 import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.exception.FileStorageException;
+import com.nimeshnuwanga.course_content_system.service.BatchUploadResult;
+import com.nimeshnuwanga.course_content_system.service.BatchUploadService;
+import com.nimeshnuwanga.course_content_system.service.BulkDeleteResult;
+import com.nimeshnuwanga.course_content_system.service.ContentCompressor;
+import com.nimeshnuwanga.course_content_system.service.ContentSearchService;
+import com.nimeshnuwanga.course_content_system.service.ContentSniffer;
 import com.nimeshnuwanga.course_content_system.service.FileStorageService;
+import com.nimeshnuwanga.course_content_system.service.FileTransferMetrics;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 
 @RestController
@@ -22,80 +51,226 @@ import java.util.List;
 public class FileController {
 
     private final FileStorageService fileStorageService;
+    private final BatchUploadService batchUploadService;
+    private final ContentSearchService contentSearchService;
+    private final ContentCompressor contentCompressor;
+    private final FileTransferMetrics metrics;
+    private final DownloadResponseWriter downloadResponseWriter;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter exportWriter;
+    private final int defaultPageSize;
 
-    public FileController(FileStorageService fileStorageService) {
+    public FileController(FileStorageService fileStorageService,
+                          BatchUploadService batchUploadService,
+                          ContentSearchService contentSearchService,
+                          ContentCompressor contentCompressor,
+                          FileTransferMetrics metrics,
+                          ObjectMapper objectMapper,
+                          @Value("${file.download.zero-copy:true}") boolean zeroCopyDownloads,
+                          @Value("${file.listing.page-size:20}") int defaultPageSize) {
         this.fileStorageService = fileStorageService;
+        this.batchUploadService = batchUploadService;
+        this.contentSearchService = contentSearchService;
+        this.contentCompressor = contentCompressor;
+        this.metrics = metrics;
+        this.defaultPageSize = defaultPageSize;
+        this.downloadResponseWriter = new DownloadResponseWriter(zeroCopyDownloads);
+        this.objectMapper = objectMapper;
+        // Rows are flushed as the response buffer fills, not one by one
+        this.exportWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping("/upload")
     public ResponseEntity<FileUploadResponse> uploadFile(@RequestParam("file") MultipartFile file) {
         CourseContent courseContent = fileStorageService.storeFile(file);
 
-        String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                .path("/api/files/download/")
-                .path(courseContent.getFileUrl())
-                .toUriString();
-
-        FileUploadResponse response = new FileUploadResponse(
-                courseContent.getId(),
-                courseContent.getFileName(),
-                courseContent.getFileType(),
-                courseContent.getFileSize(),
-                courseContent.getUploadDate(),
-                fileDownloadUri,
-                "File uploaded successfully"
+        return new ResponseEntity<>(UploadResponses.uploaded(courseContent), HttpStatus.CREATED);
+    }
+
+    @PutMapping("/upload")
+    public ResponseEntity<FileUploadResponse> uploadFileStream(@RequestParam("fileName") String fileName,
+                                                               HttpServletRequest request) throws IOException {
+        CourseContent courseContent = fileStorageService.storeFile(
+                request.getInputStream(),
+                fileName,
+                request.getContentType(),
+                request.getContentLengthLong()
         );
 
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        return new ResponseEntity<>(UploadResponses.uploaded(courseContent), HttpStatus.CREATED);
+    }
+
+    /**
+     * Stores every part named {@code files}. Responds 201 when all files were stored and 207
+     * otherwise, with the outcome of each file in request order.
+     */
+    @PostMapping("/upload/batch")
+    public ResponseEntity<BatchUploadResponse> uploadFiles(@RequestParam("files") List<MultipartFile> files) {
+        List<BatchUploadItem> items = new ArrayList<>(files.size());
+        int stored = 0;
+        for (BatchUploadResult result : batchUploadService.storeFiles(files)) {
+            if (result.isStored()) {
+                stored++;
+                items.add(new BatchUploadItem(result.fileName(), HttpStatus.CREATED.value(),
+                        UploadResponses.uploaded(result.courseContent()), null));
+            } else {
+                items.add(toFailedItem(result));
+            }
+        }
+
+        HttpStatus status = stored == items.size() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return new ResponseEntity<>(new BatchUploadResponse(stored, items.size() - stored, items), status);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<CourseContent>> getAllFiles() {
-        List<CourseContent> files = fileStorageService.getAllFiles();
-
-        files.forEach(file -> {
-            String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/api/files/download/")
-                    .path(file.getFileUrl())
-                    .toUriString();
-            file.setFileUrl(fileDownloadUri);
-        });
-
-        return ResponseEntity.ok(files);
+    public ResponseEntity<List<CourseContentSummary>> getAllFiles() {
+        String downloadBaseUri = UploadResponses.downloadBaseUri();
+        List<CourseContentSummary> files = fileStorageService.getAllFiles().stream()
+                .map(file -> file.withDownloadBaseUri(downloadBaseUri))
+                .toList();
+
+        return ResponseEntity.ok().eTag(bodyETag(files)).body(files);
+    }
+
+    /**
+     * Writes every file as rows are read from the database, so exporting the whole table does
+     * not hold it in memory. Sends a JSON array, or one JSON object per line when the client
+     * accepts {@code application/x-ndjson}. If reading fails before anything was sent the client
+     * gets an error response; after that the connection is dropped without closing the array,
+     * so a cut-short export never looks complete.
+     */
+    @GetMapping("/export")
+    public void exportFiles(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                            HttpServletResponse response) throws IOException {
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        String downloadBaseUri = UploadResponses.downloadBaseUri();
+        // Only the success path may end the array; the container flushes and closes the stream
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        try {
+            if (ndjson) {
+                // Lines are ended explicitly instead of separating values with a space
+                generator.setRootValueSeparator(null);
+            } else {
+                generator.writeStartArray();
+            }
+            fileStorageService.forEachFile(file -> {
+                try {
+                    exportWriter.writeValue(generator, file.withDownloadBaseUri(downloadBaseUri));
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException ex) {
+            abortExport(response);
+            throw ex.getCause();
+        } catch (RuntimeException ex) {
+            abortExport(response);
+            throw ex;
+        }
+        generator.close();
+    }
+
+    /**
+     * Discards the unsent part of a failed export. While nothing is committed the error handler
+     * can still answer with a 500; otherwise the exception reaches the container, which drops the
+     * connection instead of ending the body.
+     */
+    private void abortExport(HttpServletResponse response) {
+        if (!response.isCommitted()) {
+            response.reset();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<CourseContentPage> getFilesPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                                          @RequestParam(value = "size", required = false) Integer size) {
+        CourseContentPage page = fileStorageService.getFilesPage(cursor, size != null ? size : defaultPageSize);
+
+        String downloadBaseUri = UploadResponses.downloadBaseUri();
+        List<CourseContentSummary> items = page.getItems().stream()
+                .map(file -> file.withDownloadBaseUri(downloadBaseUri))
+                .toList();
+
+        CourseContentPage body = new CourseContentPage(items, page.getNextCursor());
+        return ResponseEntity.ok().eTag(bodyETag(body)).body(body);
+    }
+
+    /**
+     * Finds files whose name or type contains every word of {@code q} as a word prefix, newest
+     * first, paged like the listing.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CourseContentPage> searchFiles(@RequestParam("q") String query,
+                                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                                         @RequestParam(value = "size", required = false) Integer size) {
+        CourseContentPage page = contentSearchService.search(query, cursor, size != null ? size : defaultPageSize);
+
+        String downloadBaseUri = UploadResponses.downloadBaseUri();
+        List<CourseContentSummary> items = page.getItems().stream()
+                .map(file -> file.withDownloadBaseUri(downloadBaseUri))
+                .toList();
+
+        return ResponseEntity.ok().body(new CourseContentPage(items, page.getNextCursor()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CourseContent> getFileById(@PathVariable Long id) {
-        CourseContent file = fileStorageService.getFileById(id);
+    public ResponseEntity<CourseContentSummary> getFileById(@PathVariable Long id) {
+        CourseContentSummary file = fileStorageService.getFileById(id);
 
-        String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                .path("/api/files/download/")
-                .path(file.getFileUrl())
-                .toUriString();
-        file.setFileUrl(fileDownloadUri);
+        LocalDateTime modified = file.processedDate() != null ? file.processedDate() : file.uploadDate();
+        long lastModified = modified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
 
-        return ResponseEntity.ok(file);
+        CourseContentSummary body = file.withDownloadBaseUri(UploadResponses.downloadBaseUri());
+        return ResponseEntity.ok()
+                .eTag(bodyETag(body))
+                .lastModified(lastModified)
+                .body(body);
     }
 
     @GetMapping("/download/{fileName:.+}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable String fileName, HttpServletRequest request) {
+    public void downloadFile(@PathVariable String fileName, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
         Resource resource = fileStorageService.loadFileAsResource(fileName);
 
-        String contentType = null;
-        try {
-            contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-        } catch (IOException ex) {
-            // Could not determine file type
+        // Uploads are only stored when their content matches their extension, so the stored name
+        // identifies the verified type without a per-request lookup
+        String contentType = ContentSniffer.contentType(StringUtils.getFilenameExtension(fileName));
+        if (contentType == null) {
+            contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
         }
 
-        if (contentType == null) {
-            contentType = "application/octet-stream";
+        Resource gzipVariant = null;
+        if (contentCompressor.isCompressible(fileName)) {
+            // Shared caches must keep the compressed and uncompressed responses apart
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (request.getHeader(HttpHeaders.RANGE) == null
+                    && DownloadResponseWriter.acceptsEncoding(request, ContentCompressor.GZIP_ENCODING)) {
+                gzipVariant = fileStorageService.loadGzipVariantAsResource(fileName);
+            }
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+        long start = System.nanoTime();
+        metrics.downloadStarted();
+        try {
+            long bytesSent = downloadResponseWriter.write(resource, gzipVariant, ContentCompressor.GZIP_ENCODING,
+                    contentType, request, response);
+            metrics.recordDownload(StringUtils.getFilenameExtension(resource.getFilename()), bytesSent,
+                    System.nanoTime() - start);
+        } finally {
+            metrics.downloadFinished();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -103,4 +278,47 @@ public class FileController {
         fileStorageService.deleteFile(id);
         return ResponseEntity.ok("File deleted successfully");
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes many files at once. Rows disappear immediately; their stored files are removed in
+     * the background.
+     */
+    @PostMapping("/delete")
+    public ResponseEntity<BulkDeleteResponse> deleteFiles(@RequestBody BulkDeleteRequest request) {
+        BulkDeleteResult result = fileStorageService.deleteFiles(request.getIds());
+        return ResponseEntity.ok(new BulkDeleteResponse(result.deleted(), result.notFound()));
+    }
+
+    /**
+     * Strong ETag from the SHA-256 of the serialized body. Rows change in the background, for
+     * example when processing finishes or a legacy row's type is re-detected, so every field
+     * has to count. Listings send no Last-Modified because a deletion does not move it forward.
+     */
+    private String bodyETag(Object body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(body));
+            return "\"" + HexFormat.of().formatHex(digest) + "\"";
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Reports a rejected file with the status and error body the single-file upload would have used.
+     */
+    private BatchUploadItem toFailedItem(BatchUploadResult result) {
+        RuntimeException failure = result.failure();
+        if (failure instanceof IllegalArgumentException) {
+            return new BatchUploadItem(result.fileName(), HttpStatus.BAD_REQUEST.value(), null,
+                    new ErrorResponse("Invalid Request", failure.getMessage()));
+        }
+        if (failure instanceof FileStorageException) {
+            return new BatchUploadItem(result.fileName(), HttpStatus.INTERNAL_SERVER_ERROR.value(), null,
+                    new ErrorResponse("File Storage Error", failure.getMessage()));
+        }
+        return new BatchUploadItem(result.fileName(), HttpStatus.INTERNAL_SERVER_ERROR.value(), null,
+                new ErrorResponse("Internal Server Error", failure.getMessage()));
+    }
+}
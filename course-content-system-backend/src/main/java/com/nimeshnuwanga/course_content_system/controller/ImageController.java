@@ -0,0 +1,56 @@
+package com.nimeshnuwanga.course_content_system.controller;
+
+import com.nimeshnuwanga.course_content_system.service.ImageDerivative;
+import com.nimeshnuwanga.course_content_system.service.ImageDerivativeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/files/images")
+@CrossOrigin(origins = "${cors.allowed-origins}")
+public class ImageController {
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final ImageDerivativeService imageDerivativeService;
+    private final DownloadResponseWriter downloadResponseWriter;
+
+    public ImageController(ImageDerivativeService imageDerivativeService,
+                           @Value("${file.download.zero-copy:true}") boolean zeroCopyDownloads) {
+        this.imageDerivativeService = imageDerivativeService;
+        this.downloadResponseWriter = new DownloadResponseWriter(zeroCopyDownloads);
+    }
+
+    /**
+     * Sends a stored JPG or PNG scaled to fit within {@code width} by {@code height}, optionally
+     * converted to {@code format} ({@code jpeg}, {@code png} or {@code webp}).
+     */
+    @GetMapping("/{fileName:.+}")
+    public void getImage(@PathVariable String fileName,
+                         @RequestParam(value = "width", required = false) Integer width,
+                         @RequestParam(value = "height", required = false) Integer height,
+                         @RequestParam(value = "format", required = false) String format,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        ImageDerivative derivative = imageDerivativeService.getDerivative(fileName, width, height, format);
+
+        // The same name and parameters always produce the same image, while the cached file's
+        // mtime moves whenever the cache is used, so the name is the validator
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        downloadResponseWriter.write(new FileSystemResource(derivative.file()), derivative.contentType(),
+                eTag(derivative.name()), request, response);
+    }
+
+    private String eTag(String derivativeName) {
+        // Stored names from before content addressing may contain characters not allowed in an ETag
+        return "\"" + UriUtils.encode(derivativeName, StandardCharsets.UTF_8) + "\"";
+    }
+}
@@ -0,0 +1,55 @@
+package com.nimeshnuwanga.course_content_system.controller;
+
+import com.nimeshnuwanga.course_content_system.service.FileStorageService;
+import com.nimeshnuwanga.course_content_system.service.HlsPackager;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Serves the HLS stream of a video. The playlist refers to the media by a relative URL, so both
+ * live under the same path; segments are byte ranges of the media and are answered with 206
+ * responses by the zero-copy download path.
+ */
+@RestController
+@RequestMapping("/api/files/streams")
+@CrossOrigin(origins = "${cors.allowed-origins}")
+public class StreamController {
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final FileStorageService fileStorageService;
+    private final DownloadResponseWriter downloadResponseWriter;
+
+    public StreamController(FileStorageService fileStorageService,
+                            @Value("${file.download.zero-copy:true}") boolean zeroCopyDownloads) {
+        this.fileStorageService = fileStorageService;
+        this.downloadResponseWriter = new DownloadResponseWriter(zeroCopyDownloads);
+    }
+
+    @GetMapping("/{fileName}/" + HlsPackager.PLAYLIST_URI)
+    public void getPlaylist(@PathVariable String fileName, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        write(fileStorageService.loadFileAsResource(HlsPackager.playlistFileName(fileName)),
+                HlsPackager.PLAYLIST_CONTENT_TYPE, request, response);
+    }
+
+    @GetMapping("/{fileName}/" + HlsPackager.MEDIA_URI)
+    public void getMedia(@PathVariable String fileName, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        write(fileStorageService.loadFileAsResource(HlsPackager.mediaFileName(fileName)),
+                HlsPackager.MEDIA_CONTENT_TYPE, request, response);
+    }
+
+    private void write(Resource resource, String contentType, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        // Streams are derived from content-addressed files and never change once stored
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        downloadResponseWriter.write(resource, contentType, request, response);
+    }
+}
@@ -0,0 +1,37 @@
+package com.nimeshnuwanga.course_content_system.controller;
+
+import com.nimeshnuwanga.course_content_system.dto.FileUploadResponse;
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Builds the download links and the response body shared by every endpoint that stores a file.
+ */
+final class UploadResponses {
+
+    private UploadResponses() {
+    }
+
+    /**
+     * Base URI of the current request that stored file names are appended to.
+     */
+    static String downloadBaseUri() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/files/download/")
+                .toUriString();
+    }
+
+    static FileUploadResponse uploaded(CourseContent courseContent) {
+        FileUploadResponse response = new FileUploadResponse(
+                courseContent.getId(),
+                courseContent.getFileName(),
+                courseContent.getFileType(),
+                courseContent.getFileSize(),
+                courseContent.getUploadDate(),
+                downloadBaseUri() + courseContent.getFileUrl(),
+                "File uploaded successfully"
+        );
+        response.setProcessingStatus(courseContent.getProcessingStatus());
+        return response;
+    }
+}
@@ -0,0 +1,78 @@
+package com.nimeshnuwanga.course_content_system.controller;
+
+import com.nimeshnuwanga.course_content_system.dto.FileUploadResponse;
+import com.nimeshnuwanga.course_content_system.dto.UploadSessionRequest;
+import com.nimeshnuwanga.course_content_system.dto.UploadSessionResponse;
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.service.UploadSession;
+import com.nimeshnuwanga.course_content_system.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/files/sessions")
+@CrossOrigin(origins = "${cors.allowed-origins}")
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+
+    public UploadSessionController(UploadSessionService uploadSessionService) {
+        this.uploadSessionService = uploadSessionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> createSession(@RequestBody UploadSessionRequest request) {
+        long fileSize = request.getFileSize() != null ? request.getFileSize() : 0;
+        UploadSession session = uploadSessionService.createSession(request.getFileName(), request.getFileType(), fileSize);
+
+        return new ResponseEntity<>(toSessionResponse(session), HttpStatus.CREATED);
+    }
+
+    @PutMapping("/{sessionId}")
+    public ResponseEntity<UploadSessionResponse> uploadChunk(@PathVariable String sessionId,
+                                                             @RequestParam("offset") long offset,
+                                                             HttpServletRequest request) throws IOException {
+        UploadSession session = uploadSessionService.writeChunk(sessionId, offset, request.getInputStream(),
+                request.getContentLengthLong());
+
+        return ResponseEntity.ok(toSessionResponse(session));
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String sessionId) {
+        return ResponseEntity.ok(toSessionResponse(uploadSessionService.getSession(sessionId)));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<FileUploadResponse> completeSession(@PathVariable String sessionId) {
+        CourseContent courseContent = uploadSessionService.completeSession(sessionId);
+
+        return new ResponseEntity<>(UploadResponses.uploaded(courseContent), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<String> abortSession(@PathVariable String sessionId) {
+        uploadSessionService.abortSession(sessionId);
+        return ResponseEntity.ok("Upload session cancelled");
+    }
+
+    private UploadSessionResponse toSessionResponse(UploadSession session) {
+        List<String> receivedRanges = session.getReceivedRanges().stream()
+                .map(range -> range[0] + "-" + range[1])
+                .toList();
+
+        return new UploadSessionResponse(
+                session.getId(),
+                session.getFileName(),
+                session.getFileSize(),
+                session.getReceivedBytes(),
+                receivedRanges,
+                session.isComplete()
+        );
+    }
+}
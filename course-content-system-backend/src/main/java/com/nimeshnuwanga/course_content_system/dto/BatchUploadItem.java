@@ -0,0 +1,50 @@
+package com.nimeshnuwanga.course_content_system.dto;
+
+public class BatchUploadItem {
+    private String fileName;
+    private int status;
+    private FileUploadResponse file;
+    private ErrorResponse error;
+
+    public BatchUploadItem() {
+    }
+
+    public BatchUploadItem(String fileName, int status, FileUploadResponse file, ErrorResponse error) {
+        this.fileName = fileName;
+        this.status = status;
+        this.file = file;
+        this.error = error;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public FileUploadResponse getFile() {
+        return file;
+    }
+
+    public void setFile(FileUploadResponse file) {
+        this.file = file;
+    }
+
+    public ErrorResponse getError() {
+        return error;
+    }
+
+    public void setError(ErrorResponse error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,42 @@
+package com.nimeshnuwanga.course_content_system.dto;
+
+import java.util.List;
+
+public class BatchUploadResponse {
+    private int stored;
+    private int failed;
+    private List<BatchUploadItem> files;
+
+    public BatchUploadResponse() {
+    }
+
+    public BatchUploadResponse(int stored, int failed, List<BatchUploadItem> files) {
+        this.stored = stored;
+        this.failed = failed;
+        this.files = files;
+    }
+
+    public int getStored() {
+        return stored;
+    }
+
+    public void setStored(int stored) {
+        this.stored = stored;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchUploadItem> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<BatchUploadItem> files) {
+        this.files = files;
+    }
+}
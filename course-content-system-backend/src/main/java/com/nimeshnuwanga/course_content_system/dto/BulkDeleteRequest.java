@@ -0,0 +1,22 @@
+package com.nimeshnuwanga.course_content_system.dto;
+
+import java.util.List;
+
+public class BulkDeleteRequest {
+    private List<Long> ids;
+
+    public BulkDeleteRequest() {
+    }
+
+    public BulkDeleteRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
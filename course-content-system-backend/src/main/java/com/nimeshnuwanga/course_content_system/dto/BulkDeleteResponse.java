@@ -0,0 +1,32 @@
+package com.nimeshnuwanga.course_content_system.dto;
+
+import java.util.List;
+
+public class BulkDeleteResponse {
+    private int deleted;
+    private List<Long> notFound;
+
+    public BulkDeleteResponse() {
+    }
+
+    public BulkDeleteResponse(int deleted, List<Long> notFound) {
+        this.deleted = deleted;
+        this.notFound = notFound;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(int deleted) {
+        this.deleted = deleted;
+    }
+
+    public List<Long> getNotFound() {
+        return notFound;
+    }
+
+    public void setNotFound(List<Long> notFound) {
+        this.notFound = notFound;
+    }
+}
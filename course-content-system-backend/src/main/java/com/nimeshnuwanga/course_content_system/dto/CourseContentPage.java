@@ -0,0 +1,32 @@
+package com.nimeshnuwanga.course_content_system.dto;
+
+import java.util.List;
+
+public class CourseContentPage {
+    private List<CourseContentSummary> items;
+    private String nextCursor;
+
+    public CourseContentPage() {
+    }
+
+    public CourseContentPage(List<CourseContentSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<CourseContentSummary> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CourseContentSummary> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
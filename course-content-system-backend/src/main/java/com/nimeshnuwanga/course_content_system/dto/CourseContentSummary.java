@@ -0,0 +1,30 @@
+package com.nimeshnuwanga.course_content_system.dto;
+
+import com.nimeshnuwanga.course_content_system.entity.ProcessingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a CourseContent row. Repository queries project straight into this
+ * record, so listings never load managed entities or trigger dirty checking.
+ */
+public record CourseContentSummary(Long id, String fileName, String fileType, Long fileSize,
+                                   LocalDateTime uploadDate, String fileUrl,
+                                   ProcessingStatus processingStatus, Integer imageWidth, Integer imageHeight,
+                                   Integer pageCount, Long durationMillis, String thumbnailUrl,
+                                   LocalDateTime processedDate) {
+
+    public CourseContentSummary(Long id, String fileName, String fileType, Long fileSize,
+                                LocalDateTime uploadDate, String fileUrl) {
+        this(id, fileName, fileType, fileSize, uploadDate, fileUrl, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Turns the stored file names into download URLs under {@code downloadBaseUri}.
+     */
+    public CourseContentSummary withDownloadBaseUri(String downloadBaseUri) {
+        return new CourseContentSummary(id, fileName, fileType, fileSize, uploadDate, downloadBaseUri + fileUrl,
+                processingStatus, imageWidth, imageHeight, pageCount, durationMillis,
+                thumbnailUrl != null ? downloadBaseUri + thumbnailUrl : null, processedDate);
+    }
+}
@@ -1,5 +1,7 @@
 package com.nimeshnuwanga.course_content_system.dto;
 
+import com.nimeshnuwanga.course_content_system.entity.ProcessingStatus;
+
 import java.time.LocalDateTime;
 
 
@@ -11,8 +13,16 @@ public class FileUploadResponse {
     private LocalDateTime uploadDate;
     private String fileUrl;
     private String message;
+    private ProcessingStatus processingStatus;
 
     public FileUploadResponse(Long id, String fileName, String fileType, Long fileSize, LocalDateTime uploadDate, String fileDownloadUri, String fileUploadedSuccessfully) {
+        this.id = id;
+        this.fileName = fileName;
+        this.fileType = fileType;
+        this.fileSize = fileSize;
+        this.uploadDate = uploadDate;
+        this.fileUrl = fileDownloadUri;
+        this.message = fileUploadedSuccessfully;
     }
 
     public Long getId() {
@@ -70,4 +80,12 @@ public class FileUploadResponse {
     public void setMessage(String message) {
         this.message = message;
     }
-}
\ No newline at end of file
+
+    public ProcessingStatus getProcessingStatus() {
+        return processingStatus;
+    }
+
+    public void setProcessingStatus(ProcessingStatus processingStatus) {
+        this.processingStatus = processingStatus;
+    }
+}
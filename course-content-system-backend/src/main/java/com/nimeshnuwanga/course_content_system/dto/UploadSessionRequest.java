@@ -0,0 +1,40 @@
+package com.nimeshnuwanga.course_content_system.dto;
+
+public class UploadSessionRequest {
+    private String fileName;
+    private String fileType;
+    private Long fileSize;
+
+    public UploadSessionRequest() {
+    }
+
+    public UploadSessionRequest(String fileName, String fileType, Long fileSize) {
+        this.fileName = fileName;
+        this.fileType = fileType;
+        this.fileSize = fileSize;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+}
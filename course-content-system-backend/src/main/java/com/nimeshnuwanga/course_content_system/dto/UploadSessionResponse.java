@@ -0,0 +1,73 @@
+package com.nimeshnuwanga.course_content_system.dto;
+
+import java.util.List;
+
+public class UploadSessionResponse {
+    private String sessionId;
+    private String fileName;
+    private Long fileSize;
+    private Long receivedBytes;
+    private List<String> receivedRanges;
+    private boolean complete;
+
+    public UploadSessionResponse() {
+    }
+
+    public UploadSessionResponse(String sessionId, String fileName, Long fileSize, Long receivedBytes,
+                                 List<String> receivedRanges, boolean complete) {
+        this.sessionId = sessionId;
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.receivedBytes = receivedBytes;
+        this.receivedRanges = receivedRanges;
+        this.complete = complete;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public Long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public void setReceivedBytes(Long receivedBytes) {
+        this.receivedBytes = receivedBytes;
+    }
+
+    public List<String> getReceivedRanges() {
+        return receivedRanges;
+    }
+
+    public void setReceivedRanges(List<String> receivedRanges) {
+        this.receivedRanges = receivedRanges;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+}
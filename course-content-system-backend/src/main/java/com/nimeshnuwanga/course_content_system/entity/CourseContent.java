@@ -1,11 +1,19 @@
 package com.nimeshnuwanga.course_content_system.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "course_content")
+@Table(name = "course_content", indexes = {
+        @Index(name = "idx_course_content_content_hash", columnList = "content_hash"),
+        @Index(name = "idx_course_content_upload_date_id", columnList = "upload_date, id"),
+        @Index(name = "idx_course_content_processing_status", columnList = "processing_status"),
+        @Index(name = "idx_course_content_deleted_date", columnList = "deleted_date")
+})
+// Soft-deleted rows are invisible to JPQL; only native queries used for reclaiming their files see them
+@SQLRestriction("deleted_date is null")
 public class CourseContent {
 
     @Id
@@ -27,6 +35,42 @@ public class CourseContent {
     @Column(name = "file_url", nullable = false, columnDefinition = "TEXT")
     private String fileUrl;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Null for rows stored before uploads were checked against their leading bytes
+    @Column(name = "type_verified")
+    private Boolean typeVerified;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "processing_status", length = 20)
+    private ProcessingStatus processingStatus;
+
+    @Column(name = "image_width")
+    private Integer imageWidth;
+
+    @Column(name = "image_height")
+    private Integer imageHeight;
+
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Column(name = "duration_millis")
+    private Long durationMillis;
+
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    // When a worker last moved the row to PROCESSING, so rows left behind by a stopped node can be recovered
+    @Column(name = "processing_claimed_date")
+    private LocalDateTime processingClaimedDate;
+
+    @Column(name = "processed_date")
+    private LocalDateTime processedDate;
+
+    @Column(name = "deleted_date")
+    private LocalDateTime deletedDate;
+
     public CourseContent() {
     }
 
@@ -91,4 +135,92 @@ public class CourseContent {
     public void setFileUrl(String fileUrl) {
         this.fileUrl = fileUrl;
     }
-}
\ No newline at end of file
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public ProcessingStatus getProcessingStatus() {
+        return processingStatus;
+    }
+
+    public void setProcessingStatus(ProcessingStatus processingStatus) {
+        this.processingStatus = processingStatus;
+    }
+
+    public Integer getImageWidth() {
+        return imageWidth;
+    }
+
+    public void setImageWidth(Integer imageWidth) {
+        this.imageWidth = imageWidth;
+    }
+
+    public Integer getImageHeight() {
+        return imageHeight;
+    }
+
+    public void setImageHeight(Integer imageHeight) {
+        this.imageHeight = imageHeight;
+    }
+
+    public Integer getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(Integer pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public Long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(Long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public Boolean getTypeVerified() {
+        return typeVerified;
+    }
+
+    public void setTypeVerified(Boolean typeVerified) {
+        this.typeVerified = typeVerified;
+    }
+
+    public LocalDateTime getProcessingClaimedDate() {
+        return processingClaimedDate;
+    }
+
+    public void setProcessingClaimedDate(LocalDateTime processingClaimedDate) {
+        this.processingClaimedDate = processingClaimedDate;
+    }
+
+    public LocalDateTime getProcessedDate() {
+        return processedDate;
+    }
+
+    public void setProcessedDate(LocalDateTime processedDate) {
+        this.processedDate = processedDate;
+    }
+
+    public LocalDateTime getDeletedDate() {
+        return deletedDate;
+    }
+
+    public void setDeletedDate(LocalDateTime deletedDate) {
+        this.deletedDate = deletedDate;
+    }
+}
@@ -0,0 +1,11 @@
+package com.nimeshnuwanga.course_content_system.entity;
+
+/**
+ * Progress of the background metadata extraction that runs after a file is uploaded.
+ */
+public enum ProcessingStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
@@ -1,6 +1,7 @@
 package com.nimeshnuwanga.course_content_system.exception;
 
 import com.nimeshnuwanga.course_content_system.dto.ErrorResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -47,7 +48,12 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex) {
+    public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex, HttpServletResponse response) throws Exception {
+        if (response.isCommitted()) {
+            // Part of the body is already sent; the container drops the connection so the
+            // client sees the response was cut short instead of an error appended to it
+            throw ex;
+        }
         ErrorResponse errorResponse = new ErrorResponse(
                 "Internal Server Error",
                 ex.getMessage()
@@ -0,0 +1,15 @@
+package com.nimeshnuwanga.course_content_system.repository;
+
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+
+import java.util.List;
+
+public interface CourseContentBatchRepository {
+
+    /**
+     * Inserts new rows with a single JDBC batch and sets their generated ids. Hibernate cannot
+     * batch inserts for identity columns, so this bypasses the persistence context: the rows are
+     * not managed afterwards.
+     */
+    void insertAll(List<CourseContent> contents);
+}
@@ -0,0 +1,67 @@
+package com.nimeshnuwanga.course_content_system.repository;
+
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+class CourseContentBatchRepositoryImpl implements CourseContentBatchRepository {
+
+    private static final String INSERT = "insert into course_content "
+            + "(file_name, file_type, file_size, upload_date, file_url, content_hash, processing_status, type_verified) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    CourseContentBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<CourseContent> contents) {
+        if (contents.isEmpty()) {
+            return;
+        }
+        LocalDateTime uploadDate = LocalDateTime.now();
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        CourseContent content = contents.get(i);
+                        content.setUploadDate(uploadDate);
+                        statement.setString(1, content.getFileName());
+                        statement.setString(2, content.getFileType());
+                        statement.setLong(3, content.getFileSize());
+                        statement.setTimestamp(4, Timestamp.valueOf(uploadDate));
+                        statement.setString(5, content.getFileUrl());
+                        statement.setString(6, content.getContentHash());
+                        statement.setString(7, content.getProcessingStatus() != null
+                                ? content.getProcessingStatus().name() : null);
+                        statement.setObject(8, content.getTypeVerified());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return contents.size();
+                    }
+                }, keyHolder);
+
+        // Drivers name the key column differently (GENERATED_KEY on MySQL, ID on H2)
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < contents.size(); i++) {
+            contents.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+}
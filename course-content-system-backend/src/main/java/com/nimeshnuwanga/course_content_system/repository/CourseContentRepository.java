@@ -1,13 +1,195 @@
 package com.nimeshnuwanga.course_content_system.repository;
 
 
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
 import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.entity.ProcessingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CourseContentRepository extends JpaRepository<CourseContent, Long> {
+public interface CourseContentRepository extends JpaRepository<CourseContent, Long>, CourseContentBatchRepository {
+
+    String SUMMARY = "new com.nimeshnuwanga.course_content_system.dto.CourseContentSummary("
+            + "c.id, c.fileName, c.fileType, c.fileSize, c.uploadDate, c.fileUrl, "
+            + "c.processingStatus, c.imageWidth, c.imageHeight, c.pageCount, c.durationMillis, c.thumbnailUrl, "
+            + "c.processedDate)";
+    String STREAM_FETCH_SIZE = "1000";
+
     List<CourseContent> findAllByOrderByUploadDateDesc();
-}
\ No newline at end of file
+
+    @Query("select " + SUMMARY + " from CourseContent c order by c.uploadDate desc")
+    List<CourseContentSummary> findAllSummaries();
+
+    /**
+     * Reads every live row through a database cursor, {@value #STREAM_FETCH_SIZE} rows at a
+     * time. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select " + SUMMARY + " from CourseContent c order by c.uploadDate desc, c.id desc")
+    Stream<CourseContentSummary> streamAllSummaries();
+
+    @Query("select " + SUMMARY + " from CourseContent c where c.id = :id")
+    Optional<CourseContentSummary> findSummaryById(@Param("id") Long id);
+
+    @Query("select " + SUMMARY + " from CourseContent c where c.id in :ids")
+    List<CourseContentSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select " + SUMMARY + " from CourseContent c order by c.uploadDate desc, c.id desc")
+    List<CourseContentSummary> findFirstPage(Limit limit);
+
+    @Query("select " + SUMMARY + " from CourseContent c "
+            + "where c.uploadDate <= :uploadDate and (c.uploadDate < :uploadDate or c.id < :id) "
+            + "order by c.uploadDate desc, c.id desc")
+    List<CourseContentSummary> findPageAfter(@Param("uploadDate") LocalDateTime uploadDate, @Param("id") Long id, Limit limit);
+
+    /**
+     * Ids of the live rows that reference this stored file. The rows of the hash, and on MySQL the
+     * index gap for it, stay locked until the transaction ends, so a row for the same content
+     * cannot be inserted meanwhile.
+     */
+    @Query(value = "select id from course_content where content_hash = :contentHash and file_url = :fileUrl "
+            + "and deleted_date is null for update", nativeQuery = true)
+    List<Long> lockLiveIdsByContentHashAndFileUrl(@Param("contentHash") String contentHash,
+                                                  @Param("fileUrl") String fileUrl);
+
+    @Query("select c.id from CourseContent c where c.processingStatus = :status order by c.id")
+    List<Long> findIdsByProcessingStatus(@Param("status") ProcessingStatus status, Limit limit);
+
+    /**
+     * Moves one row from {@code from} to {@code to} and records when it was claimed. Returns 0
+     * when the row is gone or was already moved, which lets concurrent workers, on any node,
+     * claim a row exactly once.
+     */
+    @Transactional
+    @Modifying
+    @Query("update CourseContent c set c.processingStatus = :to, c.processingClaimedDate = :claimedDate "
+            + "where c.id = :id and c.processingStatus = :from")
+    int updateProcessingStatus(@Param("id") Long id, @Param("from") ProcessingStatus from,
+                               @Param("to") ProcessingStatus to, @Param("claimedDate") LocalDateTime claimedDate);
+
+    /**
+     * Moves the rows still in {@code from} that were claimed before {@code claimedBefore} to
+     * {@code to}. Rows claimed before claims were recorded have no date and always count.
+     */
+    @Transactional
+    @Modifying
+    @Query("update CourseContent c set c.processingStatus = :to where c.processingStatus = :from "
+            + "and (c.processingClaimedDate is null or c.processingClaimedDate < :claimedBefore)")
+    int updateStaleProcessingStatus(@Param("from") ProcessingStatus from, @Param("to") ProcessingStatus to,
+                                    @Param("claimedBefore") LocalDateTime claimedBefore);
+
+    @Transactional
+    @Modifying
+    @Query("update CourseContent c set c.processingStatus = :status, c.imageWidth = :imageWidth, "
+            + "c.imageHeight = :imageHeight, c.pageCount = :pageCount, c.durationMillis = :durationMillis, "
+            + "c.thumbnailUrl = :thumbnailUrl, c.processedDate = :processedDate where c.id = :id")
+    int saveProcessingResult(@Param("id") Long id, @Param("status") ProcessingStatus status,
+                             @Param("imageWidth") Integer imageWidth, @Param("imageHeight") Integer imageHeight,
+                             @Param("pageCount") Integer pageCount, @Param("durationMillis") Long durationMillis,
+                             @Param("thumbnailUrl") String thumbnailUrl,
+                             @Param("processedDate") LocalDateTime processedDate);
+
+    @Query("select c.id from CourseContent c where c.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Soft-deletes every live row in {@code ids} with one statement. Their files are removed
+     * later by the reaper.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update CourseContent c set c.deletedDate = :deletedDate where c.id in :ids and c.deletedDate is null")
+    int softDeleteByIdIn(@Param("ids") Collection<Long> ids, @Param("deletedDate") LocalDateTime deletedDate);
+
+    @Query(value = "select id as id, file_url as fileUrl, content_hash as contentHash from course_content "
+            + "where deleted_date is not null order by deleted_date, id limit :limit", nativeQuery = true)
+    List<DeletedFile> findSoftDeleted(@Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from course_content where id = :id and deleted_date is not null", nativeQuery = true)
+    int purgeSoftDeleted(@Param("id") Long id);
+
+    /**
+     * Moves a soft-deleted row whose files could not be removed to the back of the reaper's queue.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update course_content set deleted_date = :deletedDate where id = :id and deleted_date is not null",
+            nativeQuery = true)
+    int requeueSoftDeleted(@Param("id") Long id, @Param("deletedDate") LocalDateTime deletedDate);
+
+    /**
+     * Names stored for rows with these hashes, soft-deleted rows included, since their files are
+     * still owned by the reaper. Like {@link #lockLiveIdsByContentHashAndFileUrl}, locks the rows
+     * until the transaction ends.
+     */
+    @Query(value = "select file_url as fileUrl, thumbnail_url as thumbnailUrl from course_content "
+            + "where content_hash in (:hashes) for update", nativeQuery = true)
+    List<StoredNames> lockStoredNamesByContentHashIn(@Param("hashes") Collection<String> hashes);
+
+    @Query(value = "select file_url as fileUrl, thumbnail_url as thumbnailUrl from course_content "
+            + "where file_url in (:names) or thumbnail_url in (:names)", nativeQuery = true)
+    List<StoredNames> findStoredNamesByNameIn(@Param("names") Collection<String> names);
+
+    @Query("select c.id as id, c.fileName as fileName, c.fileType as fileType from CourseContent c "
+            + "where c.id > :id order by c.id")
+    List<SearchableContent> findSearchableAfter(@Param("id") Long id, Limit limit);
+
+    @Query("select c.id as id, c.fileUrl as fileUrl from CourseContent c "
+            + "where c.typeVerified is null and c.id > :id order by c.id")
+    List<UnverifiedContent> findUnverifiedAfter(@Param("id") Long id, Limit limit);
+
+    /**
+     * Replaces the type of a row stored before uploads were sniffed with the one detected from
+     * its content. {@code verified} is {@code false} when the content does not match the
+     * extension of the stored name.
+     */
+    @Transactional
+    @Modifying
+    @Query("update CourseContent c set c.fileType = :fileType, c.typeVerified = :verified where c.id = :id")
+    int saveVerifiedType(@Param("id") Long id, @Param("fileType") String fileType, @Param("verified") boolean verified);
+
+    interface DeletedFile {
+        Long getId();
+
+        String getFileUrl();
+
+        String getContentHash();
+    }
+
+    interface StoredNames {
+        String getFileUrl();
+
+        String getThumbnailUrl();
+    }
+
+    interface UnverifiedContent {
+        Long getId();
+
+        String getFileUrl();
+    }
+
+    interface SearchableContent {
+        Long getId();
+
+        String getFileName();
+
+        String getFileType();
+    }
+}
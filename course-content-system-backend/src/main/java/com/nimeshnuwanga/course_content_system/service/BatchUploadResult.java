@@ -0,0 +1,21 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+
+/**
+ * Outcome for one file of a batch upload: either the stored row or the reason it was rejected.
+ */
+public record BatchUploadResult(String fileName, CourseContent courseContent, RuntimeException failure) {
+
+    static BatchUploadResult stored(CourseContent courseContent) {
+        return new BatchUploadResult(courseContent.getFileName(), courseContent, null);
+    }
+
+    static BatchUploadResult failed(String fileName, RuntimeException failure) {
+        return new BatchUploadResult(fileName, null, failure);
+    }
+
+    public boolean isStored() {
+        return courseContent != null;
+    }
+}
@@ -0,0 +1,144 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.exception.FileStorageException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores many files from one request. Files are validated, written and hashed in parallel, then
+ * every file that passed is stored together by {@link FileStorageService#storeStagedFiles} with a
+ * single batch insert. A file that fails validation or staging does not affect the others; if the
+ * insert itself fails, every staged file is reported as failed. Staged files are always removed
+ * again, including those a worker finishes after the request was abandoned.
+ */
+@Service
+public class BatchUploadService {
+
+    private final FileStorageService fileStorageService;
+    private final int maxFiles;
+    private final ExecutorService stagingExecutor;
+
+    public BatchUploadService(FileStorageService fileStorageService,
+                              @Value("${file.upload.batch.parallelism:4}") int parallelism,
+                              @Value("${file.upload.batch.max-files:100}") int maxFiles) {
+        this.fileStorageService = fileStorageService;
+        this.maxFiles = maxFiles;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.stagingExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "batch-upload-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns one result per file, in request order.
+     */
+    public List<BatchUploadResult> storeFiles(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("No files were uploaded");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxFiles + " files");
+        }
+
+        StagingBatch batch = new StagingBatch();
+        List<Future<StagedUpload>> stagings = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            stagings.add(stagingExecutor.submit(() -> batch.stage(file)));
+        }
+
+        BatchUploadResult[] results = new BatchUploadResult[files.size()];
+        List<StagedUpload> staged = new ArrayList<>(files.size());
+        List<Integer> stagedIndexes = new ArrayList<>(files.size());
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    staged.add(stagings.get(i).get());
+                    stagedIndexes.add(i);
+                } catch (ExecutionException ex) {
+                    results[i] = BatchUploadResult.failed(files.get(i).getOriginalFilename(), unwrap(ex));
+                }
+            }
+
+            if (!staged.isEmpty()) {
+                try {
+                    List<CourseContent> stored = fileStorageService.storeStagedFiles(staged);
+                    for (int i = 0; i < stored.size(); i++) {
+                        results[stagedIndexes.get(i)] = BatchUploadResult.stored(stored.get(i));
+                    }
+                } catch (RuntimeException ex) {
+                    for (int i = 0; i < staged.size(); i++) {
+                        results[stagedIndexes.get(i)] = BatchUploadResult.failed(staged.get(i).fileName(), ex);
+                    }
+                }
+            }
+            return List.of(results);
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            // Discards what was staged but not collected yet; workers still running discard their own
+            batch.abandon();
+            stagings.forEach(staging -> staging.cancel(true));
+            throw new FileStorageException("Interrupted while storing uploaded files", ex);
+        } finally {
+            staged.forEach(fileStorageService::discard);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stagingExecutor.shutdownNow();
+    }
+
+    /**
+     * Tracks the files staged for one request, so that if the request gives up waiting for them
+     * none is left behind in the staging directory.
+     */
+    private final class StagingBatch {
+
+        private final List<StagedUpload> staged = new ArrayList<>();
+        private boolean abandoned;
+
+        StagedUpload stage(MultipartFile file) {
+            StagedUpload upload = fileStorageService.stageFile(file);
+            synchronized (this) {
+                if (!abandoned) {
+                    staged.add(upload);
+                    return upload;
+                }
+            }
+            fileStorageService.discard(upload);
+            throw new CancellationException("Batch upload was abandoned");
+        }
+
+        void abandon() {
+            List<StagedUpload> toDiscard;
+            synchronized (this) {
+                abandoned = true;
+                toDiscard = List.copyOf(staged);
+            }
+            toDiscard.forEach(fileStorageService::discard);
+        }
+    }
+
+    private RuntimeException unwrap(ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new FileStorageException("Could not store file. Please try again!", ex.getCause());
+    }
+}
@@ -0,0 +1,9 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk delete: how many rows were deleted and which requested ids did not exist.
+ */
+public record BulkDeleteResult(int deleted, List<Long> notFound) {
+}
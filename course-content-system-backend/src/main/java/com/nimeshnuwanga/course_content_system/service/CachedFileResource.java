@@ -0,0 +1,100 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A stored file served from a {@link HotFileCache} buffer. Each input stream reads from its
+ * own view of the shared buffer, so any number of downloads can read it concurrently.
+ */
+public class CachedFileResource extends AbstractResource {
+
+    private final String fileName;
+    private final ByteBuffer content;
+    private final long lastModified;
+    private final LongAdder bytesServed;
+
+    CachedFileResource(String fileName, ByteBuffer content, long lastModified, LongAdder bytesServed) {
+        this.fileName = fileName;
+        this.content = content;
+        this.lastModified = lastModified;
+        this.bytesServed = bytesServed;
+    }
+
+    @Override
+    public String getFilename() {
+        return fileName;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Cached file [" + fileName + "]";
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return content.remaining();
+    }
+
+    @Override
+    public long lastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new BufferInputStream(content.duplicate());
+    }
+
+    private class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            bytesServed.increment();
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            bytesServed.add(count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
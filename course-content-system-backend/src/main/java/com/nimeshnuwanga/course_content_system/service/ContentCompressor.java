@@ -0,0 +1,86 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Creates the gzip variant kept next to a stored file so downloads can send it with
+ * {@code Content-Encoding: gzip} instead of compressing on every request. Only extensions listed
+ * in {@code file.compression.extensions} are compressed; formats that are already compressed
+ * (MP4, JPEG, PNG) gain nothing and are left out. A variant that does not save at least
+ * {@code file.compression.min-saving} of the original, such as a scanned PDF, is not kept.
+ */
+@Component
+public class ContentCompressor {
+
+    public static final String GZIP_ENCODING = "gzip";
+    public static final String GZIP_SUFFIX = ".gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final boolean enabled;
+    private final Set<String> extensions;
+    private final int level;
+    private final double minSaving;
+
+    public ContentCompressor(@Value("${file.compression.enabled:true}") boolean enabled,
+                             @Value("${file.compression.extensions:pdf}") List<String> extensions,
+                             @Value("${file.compression.level:9}") int level,
+                             @Value("${file.compression.min-saving:0.1}") double minSaving) {
+        this.enabled = enabled;
+        this.extensions = extensions.stream()
+                .map(extension -> extension.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.level = level;
+        this.minSaving = minSaving;
+    }
+
+    /**
+     * Name of the gzip variant of a stored file.
+     */
+    public static String gzipFileName(String storedFileName) {
+        return storedFileName + GZIP_SUFFIX;
+    }
+
+    public boolean isCompressible(String storedFileName) {
+        String extension = StringUtils.getFilenameExtension(storedFileName);
+        return enabled && extension != null && extensions.contains(extension.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Writes the gzip variant of {@code source} to {@code target}. Returns {@code false}, leaving
+     * no target behind, when the variant is not enough smaller to be worth serving.
+     */
+    public boolean compress(Path source, Path target) throws IOException {
+        try (OutputStream out = new LeveledGzipOutputStream(Files.newOutputStream(target), level)) {
+            Files.copy(source, out);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(target);
+            throw ex;
+        }
+
+        if (Files.size(target) > Files.size(source) * (1 - minSaving)) {
+            Files.delete(target);
+            return false;
+        }
+        return true;
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.config.CacheConfig;
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.entity.ProcessingStatus;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import com.nimeshnuwanga.course_content_system.storage.StorageBackend;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Extracts metadata from uploaded files, and stores the compressed variant of compressible
+ * ones and the HLS stream of videos, in the background. New rows are saved as PENDING and
+ * handed to a fixed pool of workers through a bounded queue. When the queue is full the row
+ * simply stays PENDING and a periodic sweep picks it up once there is room again, so uploads
+ * never wait on processing and a burst of uploads cannot exhaust memory.
+ * <p>
+ * A row stays PROCESSING while a worker, on any node, has claimed it. Claims older than
+ * {@code file.processing.claim-timeout} are assumed to belong to a node that stopped mid-way, and
+ * the sweep returns them to PENDING; a claim is never taken back from a node that is still
+ * working on it within that time.
+ * <p>
+ * Files are read in place when the storage backend keeps them on local disk; otherwise they are
+ * copied to a scratch file under {@code file.upload-dir} for the duration of the extraction.
+ * <p>
+ * The same sweep also checks rows stored before uploads were sniffed, whose type was declared by
+ * the client: their leading bytes are read and the detected type replaces the declared one.
+ */
+@Service
+public class ContentProcessingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentProcessingService.class);
+    private static final String THUMBNAIL_SUFFIX = "-thumb.png";
+    private static final String SCRATCH_DIRECTORY = ".processing";
+    private static final String UNKNOWN_CONTENT_TYPE = "application/octet-stream";
+    private static final int LEGACY_TYPE_BATCH_SIZE = 500;
+
+    private final CourseContentRepository courseContentRepository;
+    private final MediaMetadataExtractor metadataExtractor;
+    private final ContentCompressor contentCompressor;
+    private final HlsPackager hlsPackager;
+    private final CacheManager cacheManager;
+    private final StorageBackend storageBackend;
+    private final Path scratchLocation;
+    private final Duration claimTimeout;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> queuedIds = ConcurrentHashMap.newKeySet();
+    // Rows up to this id were checked by this run; ones that could not be read are retried on the next start
+    private long lastLegacyTypeId;
+    private boolean legacyTypesVerified;
+
+    public ContentProcessingService(@Value("${file.upload-dir}") String uploadDir,
+                                    @Value("${file.processing.workers:2}") int workers,
+                                    @Value("${file.processing.queue-capacity:100}") int queueCapacity,
+                                    @Value("${file.processing.claim-timeout:PT1H}") Duration claimTimeout,
+                                    StorageBackend storageBackend,
+                                    CourseContentRepository courseContentRepository,
+                                    MediaMetadataExtractor metadataExtractor,
+                                    ContentCompressor contentCompressor,
+                                    HlsPackager hlsPackager,
+                                    CacheManager cacheManager) {
+        this.storageBackend = storageBackend;
+        this.courseContentRepository = courseContentRepository;
+        this.metadataExtractor = metadataExtractor;
+        this.contentCompressor = contentCompressor;
+        this.hlsPackager = hlsPackager;
+        this.cacheManager = cacheManager;
+        this.scratchLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(SCRATCH_DIRECTORY);
+        this.claimTimeout = claimTimeout;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "content-processing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Name of the thumbnail generated for a stored file.
+     */
+    public static String thumbnailFileName(String storedFileName) {
+        return StringUtils.stripFilenameExtension(storedFileName) + THUMBNAIL_SUFFIX;
+    }
+
+    @EventListener
+    public void onContentStored(CourseContentStoredEvent event) {
+        if (event.id() != null) {
+            submit(event.id());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedProcessing() {
+        resubmitPending();
+    }
+
+    /**
+     * Returns claims older than the claim timeout to PENDING, so rows left PROCESSING by a node
+     * that stopped mid-way are processed again, and queues PENDING rows while there is room.
+     */
+    @Scheduled(fixedDelayString = "${file.processing.sweep-interval:PT1M}")
+    public void resubmitPending() {
+        courseContentRepository.updateStaleProcessingStatus(ProcessingStatus.PROCESSING, ProcessingStatus.PENDING,
+                LocalDateTime.now().minus(claimTimeout));
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        for (Long id : courseContentRepository.findIdsByProcessingStatus(ProcessingStatus.PENDING, Limit.of(capacity))) {
+            if (!submit(id)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sniffs the next batch of rows whose type was never checked against their content. A row whose
+     * content does not match its extension keeps serving under that extension, but its type shows
+     * what was detected and it is logged, so it can be found and removed.
+     */
+    @Scheduled(fixedDelayString = "${file.processing.sweep-interval:PT1M}")
+    public void verifyLegacyTypes() {
+        if (legacyTypesVerified) {
+            return;
+        }
+        List<CourseContentRepository.UnverifiedContent> rows =
+                courseContentRepository.findUnverifiedAfter(lastLegacyTypeId, Limit.of(LEGACY_TYPE_BATCH_SIZE));
+        if (rows.isEmpty()) {
+            legacyTypesVerified = true;
+            return;
+        }
+        for (CourseContentRepository.UnverifiedContent row : rows) {
+            lastLegacyTypeId = row.getId();
+            String storedFileName = row.getFileUrl();
+            byte[] header = new byte[ContentSniffer.SIGNATURE_LENGTH];
+            int length;
+            try (InputStream in = storageBackend.get(storedFileName, 0, header.length)) {
+                length = in.readNBytes(header, 0, header.length);
+            } catch (IOException ex) {
+                log.warn("Could not read {} (id {}) to verify its type", storedFileName, row.getId(), ex);
+                continue;
+            }
+
+            String detected = ContentSniffer.detect(header, length);
+            boolean verified = detected != null
+                    && detected.equals(ContentSniffer.contentType(StringUtils.getFilenameExtension(storedFileName)));
+            if (!verified) {
+                log.warn("Content of {} (id {}) does not match its extension", storedFileName, row.getId());
+            }
+            courseContentRepository.saveVerifiedType(row.getId(), detected != null ? detected : UNKNOWN_CONTENT_TYPE,
+                    verified);
+            evictCaches(row.getId());
+        }
+    }
+
+    /**
+     * Queues a row for processing. Returns {@code false} when the queue is full.
+     */
+    boolean submit(Long id) {
+        if (!queuedIds.add(id)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(id);
+                } finally {
+                    queuedIds.remove(id);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException ex) {
+            // Stays PENDING; the next sweep retries it
+            queuedIds.remove(id);
+            return false;
+        }
+    }
+
+    void process(Long id) {
+        if (courseContentRepository.updateProcessingStatus(id, ProcessingStatus.PENDING, ProcessingStatus.PROCESSING,
+                LocalDateTime.now()) == 0) {
+            // Deleted, or already claimed by another worker
+            return;
+        }
+        CourseContent courseContent = courseContentRepository.findById(id).orElse(null);
+        if (courseContent == null) {
+            return;
+        }
+
+        String storedFileName = courseContent.getFileUrl();
+        String thumbnailFileName = thumbnailFileName(storedFileName);
+        String extension = StringUtils.getFilenameExtension(storedFileName);
+
+        MediaMetadata metadata;
+        ProcessingStatus status;
+        Path scratchFile = null;
+        Path scratchThumbnail = null;
+        try {
+            Path file = storageBackend.localPath(storedFileName);
+            if (file == null) {
+                scratchFile = download(storedFileName);
+                file = scratchFile;
+            }
+            // Content-addressed files share one thumbnail, so an existing one is reused
+            if (storageBackend.stat(thumbnailFileName) == null) {
+                Files.createDirectories(scratchLocation);
+                scratchThumbnail = scratchLocation.resolve(UUID.randomUUID() + THUMBNAIL_SUFFIX);
+            }
+
+            metadata = metadataExtractor.extract(file, extension != null ? extension : "", scratchThumbnail);
+            if (scratchThumbnail != null && Files.exists(scratchThumbnail)) {
+                storageBackend.put(thumbnailFileName, scratchThumbnail);
+            }
+            precompress(storedFileName, file);
+            packageStream(storedFileName, file);
+            status = ProcessingStatus.COMPLETED;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not extract metadata from {} (id {})", storedFileName, id, ex);
+            metadata = MediaMetadata.none();
+            status = ProcessingStatus.FAILED;
+        } finally {
+            deleteQuietly(scratchFile);
+            deleteQuietly(scratchThumbnail);
+        }
+
+        String thumbnailUrl = metadata.thumbnailCreated() ? thumbnailFileName : null;
+        int updated = courseContentRepository.saveProcessingResult(id, status, metadata.imageWidth(),
+                metadata.imageHeight(), metadata.pageCount(), metadata.durationMillis(), thumbnailUrl,
+                LocalDateTime.now());
+
+        if (updated == 0 && storedFileDeleted(storedFileName)) {
+            // The row and its file were deleted while we were working on it
+            if (thumbnailUrl != null) {
+                deleteStoredQuietly(thumbnailFileName);
+            }
+            deleteStoredQuietly(ContentCompressor.gzipFileName(storedFileName));
+            deleteStoredQuietly(HlsPackager.playlistFileName(storedFileName));
+            deleteStoredQuietly(HlsPackager.mediaFileName(storedFileName));
+        }
+        evictCaches(id);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            // Anything still running is returned to PENDING once its claim times out
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Stores the gzip variant of a compressible file. A failure only means downloads are sent
+     * uncompressed, so it does not fail processing.
+     */
+    private void precompress(String storedFileName, Path file) {
+        if (!contentCompressor.isCompressible(storedFileName)) {
+            return;
+        }
+        String variantFileName = ContentCompressor.gzipFileName(storedFileName);
+        Path scratchVariant = null;
+        try {
+            // Content-addressed files share one variant, like their thumbnail
+            if (storageBackend.stat(variantFileName) != null) {
+                return;
+            }
+            Files.createDirectories(scratchLocation);
+            scratchVariant = scratchLocation.resolve(UUID.randomUUID() + ContentCompressor.GZIP_SUFFIX);
+            if (contentCompressor.compress(file, scratchVariant)) {
+                storageBackend.put(variantFileName, scratchVariant);
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not create the compressed variant of {}", storedFileName, ex);
+        } finally {
+            deleteQuietly(scratchVariant);
+        }
+    }
+
+    /**
+     * Stores the HLS stream of a video. The playlist is stored last, so a stream is only
+     * announced once its media is in place. A failure only means the video cannot be streamed,
+     * so it does not fail processing.
+     */
+    private void packageStream(String storedFileName, Path file) {
+        if (!hlsPackager.isPackageable(storedFileName)) {
+            return;
+        }
+        String playlistFileName = HlsPackager.playlistFileName(storedFileName);
+        Path scratchMedia = null;
+        Path scratchPlaylist = null;
+        try {
+            // Content-addressed files share one stream, like their thumbnail
+            if (storageBackend.stat(playlistFileName) != null) {
+                return;
+            }
+            Files.createDirectories(scratchLocation);
+            scratchMedia = scratchLocation.resolve(UUID.randomUUID() + "-" + HlsPackager.MEDIA_URI);
+            scratchPlaylist = scratchLocation.resolve(UUID.randomUUID() + "-" + HlsPackager.PLAYLIST_URI);
+            Files.writeString(scratchPlaylist, hlsPackager.packageVideo(file, scratchMedia), StandardCharsets.UTF_8);
+            storageBackend.put(HlsPackager.mediaFileName(storedFileName), scratchMedia);
+            storageBackend.put(playlistFileName, scratchPlaylist);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not create the HLS stream of {}", storedFileName, ex);
+        } finally {
+            deleteQuietly(scratchMedia);
+            deleteQuietly(scratchPlaylist);
+        }
+    }
+
+    private void evictCaches(Long id) {
+        Cache entryCache = cacheManager.getCache(CacheConfig.COURSE_CONTENT_CACHE);
+        if (entryCache != null) {
+            entryCache.evict(id);
+        }
+        Cache listCache = cacheManager.getCache(CacheConfig.COURSE_CONTENT_LIST_CACHE);
+        if (listCache != null) {
+            listCache.clear();
+        }
+    }
+
+    private Path download(String storedFileName) throws IOException {
+        Files.createDirectories(scratchLocation);
+        Path scratchFile = scratchLocation.resolve(UUID.randomUUID() + "-" + storedFileName);
+        try (InputStream in = storageBackend.get(storedFileName, 0, -1)) {
+            Files.copy(in, scratchFile);
+        } catch (IOException ex) {
+            deleteQuietly(scratchFile);
+            throw ex;
+        }
+        return scratchFile;
+    }
+
+    private boolean storedFileDeleted(String storedFileName) {
+        try {
+            return storageBackend.stat(storedFileName) == null;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private void deleteStoredQuietly(String key) {
+        try {
+            storageBackend.delete(key);
+        } catch (IOException ex) {
+            // Best effort cleanup of an orphaned thumbnail or variant
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            // Best effort cleanup of a scratch file
+        }
+    }
+}
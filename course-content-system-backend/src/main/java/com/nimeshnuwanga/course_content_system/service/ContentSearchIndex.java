@@ -0,0 +1,385 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from the words of a row's text fields to row ids. Every query word
+ * matches as a prefix and all words must match. Results come newest first (highest id first) and
+ * are paged by the last id returned, so a page only walks as many postings as it needs.
+ * <p>
+ * Ids are assigned in increasing order, so adding a row appends to its postings; removing one
+ * shifts the tail of each of its postings.
+ */
+public class ContentSearchIndex {
+
+    private static final int MAX_TOKEN_LENGTH = 64;
+    /**
+     * A query word matching more postings than this is merged once, so candidates are checked
+     * with one binary search instead of one per posting.
+     */
+    private static final int MAX_UNMERGED_POSTINGS = 8;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postingsByToken = new TreeMap<>();
+    private final Map<Long, String[]> tokensById = new HashMap<>();
+
+    /**
+     * Indexes row {@code id} under the words of {@code fields}, replacing what it was indexed
+     * under before. Null fields are skipped.
+     */
+    public void add(long id, String... fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            tokens.addAll(tokenize(field));
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            String[] indexed = new String[tokens.size()];
+            int i = 0;
+            for (String token : tokens) {
+                Map.Entry<String, Postings> entry = postingsByToken.ceilingEntry(token);
+                Postings postings;
+                if (entry != null && entry.getKey().equals(token)) {
+                    // Share the key instance so each distinct word is kept once
+                    token = entry.getKey();
+                    postings = entry.getValue();
+                } else {
+                    postings = new Postings();
+                    postingsByToken.put(token, postings);
+                }
+                postings.add(id);
+                indexed[i++] = token;
+            }
+            if (indexed.length > 0) {
+                tokensById.put(id, indexed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes many rows, compacting each affected posting once rather than once per row.
+     */
+    public void removeAll(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            Map<String, List<Long>> idsByToken = new HashMap<>();
+            for (Long id : ids) {
+                String[] tokens = tokensById.remove(id);
+                if (tokens != null) {
+                    for (String token : tokens) {
+                        idsByToken.computeIfAbsent(token, key -> new ArrayList<>()).add(id);
+                    }
+                }
+            }
+            idsByToken.forEach((token, removed) -> {
+                Postings postings = postingsByToken.get(token);
+                postings.removeAll(removed.stream().mapToLong(Long::longValue).sorted().toArray());
+                if (postings.size == 0) {
+                    postingsByToken.remove(token);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tokensById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} ids matching every word of {@code query}, highest first and
+     * below {@code beforeId}. A query without words matches nothing.
+     */
+    public List<Long> search(String query, long beforeId, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<TermMatch> matches = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                TermMatch match = match(term);
+                if (match.totalSize == 0) {
+                    return List.of();
+                }
+                matches.add(match);
+            }
+            // Walk the rarest word and probe the others
+            matches.sort(Comparator.comparingLong(match -> match.totalSize));
+            TermMatch driver = matches.get(0);
+            List<TermMatch> filters = matches.subList(1, matches.size());
+            filters.forEach(TermMatch::mergeIfLarge);
+
+            List<Long> ids = new ArrayList<>(Math.min(limit, driver.totalSize));
+            DescendingIterator candidates = new DescendingIterator(driver.postings, beforeId);
+            while (ids.size() < limit && candidates.hasNext()) {
+                long candidate = candidates.next();
+                if (matchesAll(filters, candidate)) {
+                    ids.add(candidate);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-case runs of letters and digits, dropping duplicates and cutting
+     * words longer than {@value #MAX_TOKEN_LENGTH} characters.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean wordChar = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lowerCase.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)));
+                start = -1;
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    private void removeLocked(long id) {
+        String[] tokens = tokensById.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Postings postings = postingsByToken.get(token);
+            postings.remove(id);
+            if (postings.size == 0) {
+                postingsByToken.remove(token);
+            }
+        }
+    }
+
+    private TermMatch match(String term) {
+        Collection<Postings> postings = postingsByToken.subMap(term, true, term + Character.MAX_VALUE, true).values();
+        return new TermMatch(new ArrayList<>(postings));
+    }
+
+    private static boolean matchesAll(List<TermMatch> filters, long id) {
+        for (TermMatch filter : filters) {
+            if (!filter.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The postings of every word starting with one query word.
+     */
+    private static final class TermMatch {
+
+        private List<Postings> postings;
+        private final int totalSize;
+
+        TermMatch(List<Postings> postings) {
+            this.postings = postings;
+            int total = 0;
+            for (Postings posting : postings) {
+                total += posting.size;
+            }
+            this.totalSize = total;
+        }
+
+        void mergeIfLarge() {
+            if (postings.size() <= MAX_UNMERGED_POSTINGS) {
+                return;
+            }
+            long[] merged = new long[totalSize];
+            int length = 0;
+            for (Postings posting : postings) {
+                System.arraycopy(posting.ids, 0, merged, length, posting.size);
+                length += posting.size;
+            }
+            Arrays.sort(merged);
+            postings = List.of(new Postings(merged, length));
+        }
+
+        boolean contains(long id) {
+            for (Postings posting : postings) {
+                if (posting.indexOf(id) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Walks the union of several postings from the highest id down, yielding each id once.
+     */
+    private static final class DescendingIterator {
+
+        private final PriorityQueue<int[]> heads;
+        private final List<Postings> postings;
+        private long last = Long.MAX_VALUE;
+        private long next;
+        private boolean hasNext;
+
+        DescendingIterator(List<Postings> postings, long beforeId) {
+            this.postings = postings;
+            // Each head is {postings index, position}
+            this.heads = new PriorityQueue<>(Math.max(1, postings.size()),
+                    Comparator.comparingLong((int[] head) -> valueAt(head)).reversed());
+            for (int i = 0; i < postings.size(); i++) {
+                int position = postings.get(i).lastIndexBelow(beforeId);
+                if (position >= 0) {
+                    heads.add(new int[]{i, position});
+                }
+            }
+            advance();
+        }
+
+        boolean hasNext() {
+            return hasNext;
+        }
+
+        long next() {
+            long current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            hasNext = false;
+            while (!heads.isEmpty()) {
+                int[] head = heads.poll();
+                long value = valueAt(head);
+                if (--head[1] >= 0) {
+                    heads.add(head);
+                }
+                if (value < last) {
+                    last = value;
+                    next = value;
+                    hasNext = true;
+                    return;
+                }
+            }
+        }
+
+        private long valueAt(int[] head) {
+            return postings.get(head[0]).ids[head[1]];
+        }
+    }
+
+    /**
+     * Sorted ids of the rows containing one word.
+     */
+    private static final class Postings {
+
+        private long[] ids;
+        private int size;
+
+        Postings() {
+            this(new long[4], 0);
+        }
+
+        Postings(long[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = indexOf(id);
+                if (index >= 0) {
+                    return;
+                }
+                insertAt(-index - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        void remove(long id) {
+            int index = indexOf(id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        /**
+         * Removes every id in {@code sortedIds} in one pass.
+         */
+        void removeAll(long[] sortedIds) {
+            int kept = 0;
+            int removed = 0;
+            for (int i = 0; i < size; i++) {
+                long id = ids[i];
+                while (removed < sortedIds.length && sortedIds[removed] < id) {
+                    removed++;
+                }
+                if (removed < sortedIds.length && sortedIds[removed] == id) {
+                    continue;
+                }
+                ids[kept++] = id;
+            }
+            size = kept;
+        }
+
+        int indexOf(long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        int lastIndexBelow(long id) {
+            int index = indexOf(id);
+            return (index >= 0 ? index : -index - 1) - 1;
+        }
+
+        private void insertAt(int index, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
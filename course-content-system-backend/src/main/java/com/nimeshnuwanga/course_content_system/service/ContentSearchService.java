@@ -0,0 +1,146 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.dto.CourseContentPage;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository.SearchableContent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Searches file metadata through a {@link ContentSearchIndex} kept in memory. The index is built
+ * from the database in the background once the application is up and kept current from the
+ * stored and deleted events, so until the first build finishes older files may be missing from
+ * results. Matching ids are turned into summaries with one query per page. Ids whose row has
+ * been deleted since it was indexed are removed from the index as they are found, and the page is
+ * filled up from further matches.
+ * <p>
+ * The index only sees the events published on this node. With several nodes, files uploaded
+ * through another node are not found here until the next start, and files deleted there are only
+ * dropped once a search comes across them.
+ */
+@Service
+public class ContentSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentSearchService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final CourseContentRepository courseContentRepository;
+    private final ContentSearchIndex index = new ContentSearchIndex();
+
+    public ContentSearchService(CourseContentRepository courseContentRepository) {
+        this.courseContentRepository = courseContentRepository;
+    }
+
+    /**
+     * Returns one page of the files whose name and type contain every word of {@code query} as
+     * a word prefix, newest first.
+     */
+    public CourseContentPage search(String query, String cursor, int pageSize) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        long beforeId = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : decodeCursor(cursor);
+        // One row past the page tells whether another page exists
+        List<CourseContentSummary> items = new ArrayList<>(pageSize + 1);
+        while (items.size() <= pageSize) {
+            int wanted = pageSize + 1 - items.size();
+            List<Long> ids = index.search(query, beforeId, wanted);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            Map<Long, CourseContentSummary> summaries = courseContentRepository.findSummariesByIdIn(ids).stream()
+                    .collect(Collectors.toMap(CourseContentSummary::id, Function.identity()));
+            List<Long> staleIds = new ArrayList<>();
+            for (Long id : ids) {
+                CourseContentSummary summary = summaries.get(id);
+                if (summary != null) {
+                    items.add(summary);
+                } else {
+                    staleIds.add(id);
+                }
+            }
+            if (!staleIds.isEmpty()) {
+                index.removeAll(staleIds);
+            }
+            if (ids.size() < wanted) {
+                break;
+            }
+            beforeId = ids.get(ids.size() - 1);
+        }
+
+        if (items.size() <= pageSize) {
+            return new CourseContentPage(items, null);
+        }
+        List<CourseContentSummary> page = items.subList(0, pageSize);
+        return new CourseContentPage(List.copyOf(page), encodeCursor(page.get(pageSize - 1).id()));
+    }
+
+    @EventListener
+    public void onContentStored(CourseContentStoredEvent event) {
+        if (event.id() != null) {
+            courseContentRepository.findSummaryById(event.id())
+                    .ifPresent(summary -> index.add(summary.id(), summary.fileName(), summary.fileType()));
+        }
+    }
+
+    @EventListener
+    public void onContentDeleted(CourseContentDeletedEvent event) {
+        index.removeAll(event.ids());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread thread = new Thread(this::rebuild, "content-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void rebuild() {
+        long start = System.nanoTime();
+        long lastId = 0;
+        try {
+            List<SearchableContent> batch;
+            do {
+                batch = courseContentRepository.findSearchableAfter(lastId, Limit.of(REBUILD_BATCH_SIZE));
+                for (SearchableContent content : batch) {
+                    index.add(content.getId(), content.getFileName(), content.getFileType());
+                    lastId = content.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            log.info("Indexed {} files for search in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("Could not finish indexing files for search; files up to id {} are searchable", lastId, ex);
+        }
+    }
+
+    private String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid page cursor " + cursor);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Recognises the accepted upload types by the signature in their leading bytes. Uploads are only
+ * stored when their content matches the type their extension claims, so the extension of a
+ * stored file name reliably identifies its MIME type.
+ */
+public final class ContentSniffer {
+
+    /**
+     * Number of leading bytes needed to recognise every accepted type.
+     */
+    public static final int SIGNATURE_LENGTH = 8;
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "pdf", "application/pdf",
+            "mp4", "video/mp4",
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png");
+    private static final byte[] PDF_SIGNATURE = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    // MP4 files open with a file type box: a 4-byte size followed by "ftyp"
+    private static final byte[] MP4_BOX_TYPE = "ftyp".getBytes(StandardCharsets.US_ASCII);
+
+    private ContentSniffer() {
+    }
+
+    /**
+     * MIME type of an accepted extension, or {@code null} for any other extension.
+     */
+    public static String contentType(String extension) {
+        return extension != null ? CONTENT_TYPES.get(extension.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    /**
+     * MIME type recognised from the first {@code length} bytes of {@code header}, or
+     * {@code null} when they match no accepted type.
+     */
+    public static String detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, PDF_SIGNATURE)) {
+            return "application/pdf";
+        }
+        if (startsWith(header, length, 0, PNG_SIGNATURE)) {
+            return "image/png";
+        }
+        if (startsWith(header, length, 0, JPEG_SIGNATURE)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, length, 4, MP4_BOX_TYPE)) {
+            return "video/mp4";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] signature) {
+        return length >= offset + signature.length
+                && Arrays.equals(header, offset, offset + signature.length, signature, 0, signature.length);
+    }
+}
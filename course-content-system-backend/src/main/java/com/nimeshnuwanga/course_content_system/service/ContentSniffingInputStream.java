@@ -0,0 +1,100 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Checks the leading bytes of an upload against the type its extension claims while they pass
+ * through, so a mismatched upload is rejected before the rest of it is written and the stored
+ * file never has to be read again to learn its type.
+ */
+public class ContentSniffingInputStream extends FilterInputStream {
+
+    private final String extension;
+    private final String expectedType;
+    private final byte[] header = new byte[ContentSniffer.SIGNATURE_LENGTH];
+    private int headerLength;
+    private boolean verified;
+
+    public ContentSniffingInputStream(InputStream in, String extension) {
+        super(in);
+        this.extension = extension;
+        this.expectedType = ContentSniffer.contentType(extension);
+        if (expectedType == null) {
+            throw new IllegalArgumentException("Invalid file type. Only PDF, MP4, JPG, JPEG, and PNG files are allowed");
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b == -1) {
+            verify();
+        } else if (headerLength < header.length) {
+            header[headerLength++] = (byte) b;
+            if (headerLength == header.length) {
+                verify();
+            }
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read == -1) {
+            verify();
+        } else if (headerLength < header.length) {
+            int captured = Math.min(read, header.length - headerLength);
+            System.arraycopy(b, off, header, headerLength, captured);
+            headerLength += captured;
+            if (headerLength == header.length) {
+                verify();
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        // Skipped bytes must still pass through the header check
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * The MIME type the content was verified to have, once the stream has been read to the end.
+     */
+    public String contentType() {
+        verify();
+        return expectedType;
+    }
+
+    private void verify() {
+        // An empty upload is rejected by the caller with its own message
+        if (verified || headerLength == 0) {
+            return;
+        }
+        if (!expectedType.equals(ContentSniffer.detect(header, headerLength))) {
+            throw new IllegalArgumentException("File content does not match its ." + extension + " extension");
+        }
+        verified = true;
+    }
+}
@@ -0,0 +1,10 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.util.List;
+
+/**
+ * Published once CourseContent rows have been deleted. Rows deleted in bulk are only
+ * soft-deleted, and their files await removal by {@link DeletedFileReaper}.
+ */
+public record CourseContentDeletedEvent(List<Long> ids) {
+}
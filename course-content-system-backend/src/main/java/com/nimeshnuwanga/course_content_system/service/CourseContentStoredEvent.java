@@ -0,0 +1,7 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+/**
+ * Published once a new CourseContent row has been saved and its file is in place.
+ */
+public record CourseContentStoredEvent(Long id) {
+}
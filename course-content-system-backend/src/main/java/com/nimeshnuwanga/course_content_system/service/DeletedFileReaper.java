@@ -0,0 +1,106 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository.DeletedFile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Removes the files of soft-deleted rows and then the rows themselves. A run starts right after
+ * a bulk delete and again on a fixed interval. A row whose files cannot be removed stays
+ * soft-deleted and is moved to the back of the queue, so it is retried on a later run without
+ * holding up the rows behind it.
+ */
+@Service
+public class DeletedFileReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(DeletedFileReaper.class);
+
+    private final CourseContentRepository courseContentRepository;
+    private final FileStorageService fileStorageService;
+    private final int batchSize;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final AtomicBoolean runQueued = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "deleted-file-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DeletedFileReaper(CourseContentRepository courseContentRepository,
+                             FileStorageService fileStorageService,
+                             @Value("${file.reaper.batch-size:100}") int batchSize) {
+        this.courseContentRepository = courseContentRepository;
+        this.fileStorageService = fileStorageService;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener
+    public void onContentDeleted(CourseContentDeletedEvent event) {
+        // Deletes arriving while a run is queued are picked up by that run
+        if (runQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                runQueued.set(false);
+                reap();
+            });
+        }
+    }
+
+    /**
+     * Reclaims soft-deleted rows until none are left or a whole batch failed. Returns how many
+     * rows were reclaimed; a run already in progress makes this a no-op.
+     */
+    @Scheduled(fixedDelayString = "${file.reaper.interval:PT30S}")
+    public int reap() {
+        if (!runLock.tryLock()) {
+            return 0;
+        }
+        try {
+            int reclaimed = 0;
+            List<DeletedFile> batch;
+            int batchReclaimed;
+            do {
+                batch = courseContentRepository.findSoftDeleted(batchSize);
+                batchReclaimed = 0;
+                for (DeletedFile deletedFile : batch) {
+                    if (reclaim(deletedFile)) {
+                        batchReclaimed++;
+                    }
+                }
+                reclaimed += batchReclaimed;
+            } while (batch.size() == batchSize && batchReclaimed > 0);
+            return reclaimed;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean reclaim(DeletedFile deletedFile) {
+        try {
+            fileStorageService.reclaimDeletedFile(deletedFile);
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Could not remove the files of deleted row {} ({}); will retry", deletedFile.getId(),
+                    deletedFile.getFileUrl(), ex);
+            courseContentRepository.requeueSoftDeleted(deletedFile.getId(), LocalDateTime.now());
+            return false;
+        }
+    }
+}
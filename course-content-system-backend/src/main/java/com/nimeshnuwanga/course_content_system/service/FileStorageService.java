@@ -1,112 +1,514 @@
 package com.nimeshnuwanga.course_content_system.service;
 
+import com.nimeshnuwanga.course_content_system.config.CacheConfig;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentPage;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
 import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.entity.ProcessingStatus;
 import com.nimeshnuwanga.course_content_system.exception.FileNotFoundException;
 import com.nimeshnuwanga.course_content_system.exception.FileStorageException;
 import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository.DeletedFile;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository.StoredNames;
+import com.nimeshnuwanga.course_content_system.storage.StorageBackend;
+import com.nimeshnuwanga.course_content_system.storage.StorageBackendResource;
+import com.nimeshnuwanga.course_content_system.storage.StoredObject;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 public class FileStorageService {
 
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("pdf", "mp4", "jpg", "jpeg", "png");
     private static final long MAX_FILE_SIZE = 52428800;
-    private final Path fileStorageLocation;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final String CONTENT_DIGEST_ALGORITHM = "SHA-256";
+    private static final String INCOMING_DIRECTORY = ".incoming";
+    private static final String INCOMING_SUFFIX = ".tmp";
+    private static final int BLOB_LOCK_STRIPES = 64;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BULK_DELETE = 1000;
+    // Base names of ContentProcessingService.thumbnailFileName and the HlsPackager files, so a file
+    // and everything derived from it share a lock
+    private static final List<String> DERIVED_BASE_SUFFIXES = List.of("-thumb", "-hls");
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+    private final Path incomingLocation;
+    // Only serialises uploads of the same content on this node; removal of bytes is made safe
+    // across nodes by the row locks taken in reclaimDeletedFile and deleteOrphanedFiles
+    private final Lock[] blobLocks = new Lock[BLOB_LOCK_STRIPES];
+    // Concurrent cold reads of the same stored file share one storage read
+    private final SingleFlight<String, Resource> resourceLookups = new SingleFlight<>();
+    private final StorageBackend storageBackend;
     private final CourseContentRepository courseContentRepository;
+    private final HotFileCache hotFileCache;
+    private final FileTransferMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
 
     public FileStorageService(@Value("${file.upload-dir}") String uploadDir,
-                              CourseContentRepository courseContentRepository) {
+                              StorageBackend storageBackend,
+                              CourseContentRepository courseContentRepository,
+                              HotFileCache hotFileCache,
+                              FileTransferMetrics metrics,
+                              ApplicationEventPublisher eventPublisher) {
+        this.storageBackend = storageBackend;
         this.courseContentRepository = courseContentRepository;
-        this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.hotFileCache = hotFileCache;
+        this.metrics = metrics;
+        this.eventPublisher = eventPublisher;
+        Path fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.incomingLocation = fileStorageLocation.resolve(INCOMING_DIRECTORY);
+        for (int i = 0; i < blobLocks.length; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
 
         try {
-            Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(fileStorageLocation);
+            Files.createDirectories(this.incomingLocation);
+            // Staged files never outlive the request that wrote them, so any left here belong to
+            // requests a previous run did not finish
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(this.incomingLocation, "*" + INCOMING_SUFFIX)) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
         } catch (Exception ex) {
             throw new FileStorageException("Could not create the directory where the uploaded files will be stored.", ex);
         }
     }
 
+    @CacheEvict(cacheNames = CacheConfig.COURSE_CONTENT_LIST_CACHE, allEntries = true)
     public CourseContent storeFile(MultipartFile file) {
         validateFile(file);
 
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
+        try {
+            return storeFile(file.getInputStream(), file.getOriginalFilename(), file.getContentType(), file.getSize());
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store file " + file.getOriginalFilename() + ". Please try again!", ex);
+        }
+    }
 
+    /**
+     * Stores a file read directly from a request body. Size and extension are enforced while
+     * the bytes stream in, and the SHA-256 digest is computed on the same pass so identical
+     * content is kept on disk only once. The leading bytes must match the extension; the type
+     * they identify is stored in place of the declared {@code contentType}, which is not trusted.
+     */
+    @CacheEvict(cacheNames = CacheConfig.COURSE_CONTENT_LIST_CACHE, allEntries = true)
+    public CourseContent storeFile(InputStream inputStream, String fileName, String contentType, long declaredSize) {
+        String originalFileName = validateUpload(fileName, declaredSize);
+        StagedUpload staged = stage(inputStream, originalFileName);
+        try {
+            return storeBlob(staged.file(), staged.contentHash(), originalFileName, staged.contentType(),
+                    staged.fileSize(), staged.diskNanos());
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store file " + originalFileName + ". Please try again!", ex);
+        } finally {
+            discard(staged);
+        }
+    }
+
+    /**
+     * Validates a multipart file and writes it to the staging directory, hashing it on the way.
+     * The caller stores it with {@link #storeStagedFiles} and must {@link #discard} it afterwards.
+     */
+    public StagedUpload stageFile(MultipartFile file) {
+        validateFile(file);
+        String originalFileName = validateUpload(file.getOriginalFilename(), file.getSize());
+
+        try {
+            return stage(file.getInputStream(), originalFileName);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store file " + originalFileName + ". Please try again!", ex);
+        }
+    }
+
+    /**
+     * Stores staged uploads together: all rows are inserted with one JDBC batch, then content not
+     * already present is handed to the storage backend. If publishing fails the rows are removed
+     * again; content this call already published is left for the orphan scan, since another
+     * upload may have started to share it.
+     * <p>
+     * The blob locks of all files are taken in stripe order, so concurrent batches and single
+     * uploads cannot deadlock.
+     */
+    @CacheEvict(cacheNames = CacheConfig.COURSE_CONTENT_LIST_CACHE, allEntries = true)
+    public List<CourseContent> storeStagedFiles(List<StagedUpload> stagedUploads) {
+        SortedSet<Integer> stripes = new TreeSet<>();
+        for (StagedUpload staged : stagedUploads) {
+            stripes.add(blobStripe(storedFileName(staged)));
+        }
+        for (int stripe : stripes) {
+            blobLocks[stripe].lock();
+        }
         try {
-            if (originalFileName.contains("..")) {
-                throw new FileStorageException("Sorry! Filename contains invalid path sequence " + originalFileName);
+            List<CourseContent> contents = new ArrayList<>(stagedUploads.size());
+            for (StagedUpload staged : stagedUploads) {
+                contents.add(newCourseContent(staged.fileName(), staged.contentType(), staged.fileSize(),
+                        storedFileName(staged), staged.contentHash()));
             }
 
-            String fileExtension = getFileExtension(originalFileName);
-            String newFileName = UUID.randomUUID() + "." + fileExtension;
+            long saveStart = System.nanoTime();
+            courseContentRepository.insertAll(contents);
+            metrics.recordUploadDatabase(System.nanoTime() - saveStart);
 
-            Path targetLocation = this.fileStorageLocation.resolve(newFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                for (StagedUpload staged : stagedUploads) {
+                    long publishStart = System.nanoTime();
+                    publishContent(storedFileName(staged), staged.file());
+                    metrics.recordUploadDisk(staged.diskNanos() + System.nanoTime() - publishStart);
+                }
+            } catch (IOException | RuntimeException ex) {
+                courseContentRepository.deleteAllByIdInBatch(contents.stream().map(CourseContent::getId).toList());
+                throw ex;
+            }
 
-            CourseContent courseContent = new CourseContent();
-            courseContent.setFileName(originalFileName);
-            courseContent.setFileType(file.getContentType());
-            courseContent.setFileSize(file.getSize());
-            courseContent.setFileUrl(newFileName);
+            for (CourseContent content : contents) {
+                metrics.recordUpload(getFileExtension(content.getFileName()).toLowerCase(), content.getFileSize());
+                eventPublisher.publishEvent(new CourseContentStoredEvent(content.getId()));
+            }
+            return contents;
 
-            return courseContentRepository.save(courseContent);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store " + stagedUploads.size() + " files. Please try again!", ex);
+        } finally {
+            for (int stripe : stripes) {
+                blobLocks[stripe].unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes the staging file of an upload once it has been stored or has failed.
+     */
+    public void discard(StagedUpload staged) {
+        deleteQuietly(staged.file());
+    }
+
+    /**
+     * Stores a file that was fully assembled elsewhere on the same volume (for example by a
+     * resumable upload session), handing it to the storage backend unless the same content is
+     * already stored. As with streamed uploads, the type is verified from the content while it
+     * is hashed rather than taken from {@code contentType}.
+     */
+    @CacheEvict(cacheNames = CacheConfig.COURSE_CONTENT_LIST_CACHE, allEntries = true)
+    public CourseContent storeAssembledFile(Path assembledFile, String fileName, String contentType) {
+        String originalFileName = validateUpload(fileName, -1);
+
+        try {
+            long fileSize = Files.size(assembledFile);
+            if (fileSize == 0) {
+                throw new IllegalArgumentException("Failed to store empty file");
+            }
+            if (fileSize > MAX_FILE_SIZE) {
+                throw new IllegalArgumentException("File size exceeds maximum limit of 50MB");
+            }
+
+            long diskStart = System.nanoTime();
+            MessageDigest digest = newContentDigest();
+            String verifiedContentType;
+            try (ContentSniffingInputStream in = new ContentSniffingInputStream(
+                    new DigestInputStream(Files.newInputStream(assembledFile), digest),
+                    getFileExtension(originalFileName))) {
+                in.transferTo(OutputStream.nullOutputStream());
+                verifiedContentType = in.contentType();
+            }
+
+            return storeBlob(assembledFile, HexFormat.of().formatHex(digest.digest()), originalFileName,
+                    verifiedContentType, fileSize, System.nanoTime() - diskStart);
 
         } catch (IOException ex) {
             throw new FileStorageException("Could not store file " + originalFileName + ". Please try again!", ex);
         }
     }
 
+    /**
+     * Checks the file name and declared size of an upload before any bytes are accepted and
+     * returns the cleaned file name. A negative size means the size is not known yet.
+     */
+    public String validateUpload(String fileName, long declaredSize) {
+        String originalFileName = StringUtils.cleanPath(fileName == null ? "" : fileName);
+
+        if (originalFileName.contains("..")) {
+            throw new FileStorageException("Sorry! Filename contains invalid path sequence " + originalFileName);
+        }
+        if (declaredSize > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("File size exceeds maximum limit of 50MB");
+        }
+
+        String fileExtension = getFileExtension(originalFileName);
+        if (!ALLOWED_EXTENSIONS.contains(fileExtension.toLowerCase())) {
+            throw new IllegalArgumentException("Invalid file type. Only PDF, MP4, JPG, JPEG, and PNG files are allowed");
+        }
+        return originalFileName;
+    }
+
     public Resource loadFileAsResource(String fileName) {
+        Resource resource;
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new FileNotFoundException("File not found " + fileName);
-            }
+            resource = findResource(fileName);
         } catch (Exception ex) {
             throw new FileNotFoundException("File not found " + fileName, ex);
         }
+        if (resource == null) {
+            throw new FileNotFoundException("File not found " + fileName);
+        }
+        return resource;
     }
 
-    public List<CourseContent> getAllFiles() {
-        return courseContentRepository.findAllByOrderByUploadDateDesc();
+    /**
+     * Returns the gzip variant of a stored file, or {@code null} when none was created for it,
+     * for example because it did not compress well.
+     */
+    public Resource loadGzipVariantAsResource(String fileName) {
+        try {
+            return findResource(ContentCompressor.gzipFileName(fileName));
+        } catch (Exception ex) {
+            // Without the variant the file is simply sent uncompressed
+            return null;
+        }
+    }
+
+    @Cacheable(cacheNames = CacheConfig.COURSE_CONTENT_LIST_CACHE, key = "'all'")
+    @Transactional(readOnly = true)
+    public List<CourseContentSummary> getAllFiles() {
+        return List.copyOf(courseContentRepository.findAllSummaries());
+    }
+
+    /**
+     * Hands every file to {@code action}, newest first, as rows arrive from a database cursor,
+     * so memory use stays flat however many files there are. Returns how many files were
+     * visited. The read transaction stays open until {@code action} has seen the last row.
+     */
+    @Transactional(readOnly = true)
+    public long forEachFile(Consumer<CourseContentSummary> action) {
+        long count = 0;
+        try (Stream<CourseContentSummary> files = courseContentRepository.streamAllSummaries()) {
+            for (CourseContentSummary file : (Iterable<CourseContentSummary>) files::iterator) {
+                action.accept(file);
+                count++;
+            }
+        }
+        return count;
     }
 
-    public CourseContent getFileById(Long id) {
-        return courseContentRepository.findById(id)
+    /**
+     * Returns one page of the newest-first listing using keyset pagination on
+     * (uploadDate, id), so every page costs the same regardless of how deep it is.
+     */
+    @Cacheable(cacheNames = CacheConfig.COURSE_CONTENT_LIST_CACHE, key = "'page:' + #cursor + ':' + #pageSize")
+    @Transactional(readOnly = true)
+    public CourseContentPage getFilesPage(String cursor, int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Limit limit = Limit.of(pageSize + 1);
+        List<CourseContentSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = courseContentRepository.findFirstPage(limit);
+        } else {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            rows = courseContentRepository.findPageAfter(pageCursor.uploadDate(), pageCursor.id(), limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new CourseContentPage(rows, null);
+        }
+        List<CourseContentSummary> items = new ArrayList<>(rows.subList(0, pageSize));
+        CourseContentSummary last = items.get(pageSize - 1);
+        return new CourseContentPage(items, new PageCursor(last.uploadDate(), last.id()).encode());
+    }
+
+    /**
+     * Callers that miss the cache together wait for a single query: the cache runs the lookup once
+     * per key and hands its result to every waiter.
+     */
+    @Cacheable(cacheNames = CacheConfig.COURSE_CONTENT_CACHE, key = "#id", sync = true)
+    @Transactional(readOnly = true)
+    public CourseContentSummary getFileById(Long id) {
+        return courseContentRepository.findSummaryById(id)
                 .orElseThrow(() -> new FileNotFoundException("File not found with id " + id));
     }
 
+    /**
+     * Soft-deletes the row and returns without touching storage; its files are removed in the
+     * background by {@link DeletedFileReaper} once no other row references the same content.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSE_CONTENT_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_CONTENT_LIST_CACHE, allEntries = true)
+    })
     public void deleteFile(Long id) {
-        CourseContent courseContent = getFileById(id);
+        long databaseStart = System.nanoTime();
+        int deleted = courseContentRepository.softDeleteByIdIn(List.of(id), LocalDateTime.now());
+        metrics.recordDeleteDatabase(System.nanoTime() - databaseStart);
+        if (deleted == 0) {
+            throw new FileNotFoundException("File not found with id " + id);
+        }
+        eventPublisher.publishEvent(new CourseContentDeletedEvent(List.of(id)));
+    }
+
+    /**
+     * Soft-deletes all rows in {@code ids} with one statement and returns without touching
+     * storage; their files are removed in the background by {@link DeletedFileReaper}.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSE_CONTENT_CACHE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_CONTENT_LIST_CACHE, allEntries = true)
+    })
+    public BulkDeleteResult deleteFiles(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("No file ids were given");
+        }
+        if (ids.size() > MAX_BULK_DELETE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_DELETE + " files can be deleted at once");
+        }
+
+        long databaseStart = System.nanoTime();
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        List<Long> existing = courseContentRepository.findIdsByIdIn(requested);
+        int deleted = existing.isEmpty() ? 0 : courseContentRepository.softDeleteByIdIn(existing, LocalDateTime.now());
+        metrics.recordDeleteDatabase(System.nanoTime() - databaseStart);
+
+        if (deleted > 0) {
+            eventPublisher.publishEvent(new CourseContentDeletedEvent(List.copyOf(existing)));
+        }
+        requested.removeAll(existing);
+        return new BulkDeleteResult(deleted, List.copyOf(requested));
+    }
+
+    /**
+     * Removes the files of a soft-deleted row unless a live row still references the same
+     * content, then deletes the row itself. The rows of the content stay locked until the bytes
+     * are gone, and uploads insert their row before checking whether the bytes exist, so an
+     * upload of the same content on any node is either counted here or stores the bytes again.
+     */
+    @Transactional
+    public void reclaimDeletedFile(DeletedFile deletedFile) {
+        String storedFileName = deletedFile.getFileUrl();
 
         try {
-            Path filePath = this.fileStorageLocation.resolve(courseContent.getFileUrl()).normalize();
-            Files.deleteIfExists(filePath);
+            // Rows stored before content addressing have no hash and never share their file
+            boolean stillReferenced = deletedFile.getContentHash() != null
+                    && !courseContentRepository.lockLiveIdsByContentHashAndFileUrl(
+                    deletedFile.getContentHash(), storedFileName).isEmpty();
 
-            courseContentRepository.delete(courseContent);
+            if (!stillReferenced) {
+                long diskStart = System.nanoTime();
+                deleteStoredContent(storedFileName);
+                metrics.recordDeleteDisk(System.nanoTime() - diskStart);
+            }
+
+            courseContentRepository.purgeSoftDeleted(deletedFile.getId());
 
         } catch (IOException ex) {
-            throw new FileStorageException("Could not delete file " + courseContent.getFileName(), ex);
+            throw new FileStorageException("Could not delete file " + storedFileName, ex);
         }
     }
 
+    /**
+     * Deletes those of {@code storedFileNames} that no row, live or soft-deleted, references and
+     * returns how many were deleted. The referencing rows are read with locks held until the
+     * files are gone, so an upload that reuses one of these files either is seen here or finds
+     * it gone and stores it again.
+     */
+    @Transactional
+    public int deleteOrphanedFiles(Collection<String> storedFileNames) {
+        try {
+            Set<String> referenced = referencedFileNames(storedFileNames);
+            int deleted = 0;
+            for (String storedFileName : storedFileNames) {
+                if (!referenced.contains(storedFileName)) {
+                    hotFileCache.evict(storedFileName);
+                    storageBackend.delete(storedFileName);
+                    deleted++;
+                }
+            }
+            return deleted;
+
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not delete orphaned files", ex);
+        }
+    }
+
+    private Set<String> referencedFileNames(Collection<String> storedFileNames) {
+        Set<String> contentHashes = new HashSet<>();
+        Set<String> otherNames = new HashSet<>();
+        for (String storedFileName : storedFileNames) {
+            String baseName = baseName(storedFileName);
+            if (CONTENT_HASH.matcher(baseName).matches()) {
+                contentHashes.add(baseName);
+            } else {
+                // Files stored before content addressing are only referenced by name
+                otherNames.add(storedFileName);
+            }
+        }
+
+        List<StoredNames> rows = new ArrayList<>();
+        if (!contentHashes.isEmpty()) {
+            rows.addAll(courseContentRepository.lockStoredNamesByContentHashIn(contentHashes));
+        }
+        if (!otherNames.isEmpty()) {
+            rows.addAll(courseContentRepository.findStoredNamesByNameIn(otherNames));
+        }
+
+        Set<String> referenced = new HashSet<>();
+        for (StoredNames row : rows) {
+            referenced.add(row.getFileUrl());
+            // A thumbnail may be written for any row of its content, even before the row records it
+            referenced.add(ContentProcessingService.thumbnailFileName(row.getFileUrl()));
+            referenced.add(ContentCompressor.gzipFileName(row.getFileUrl()));
+            referenced.add(HlsPackager.playlistFileName(row.getFileUrl()));
+            referenced.add(HlsPackager.mediaFileName(row.getFileUrl()));
+            if (row.getThumbnailUrl() != null) {
+                referenced.add(row.getThumbnailUrl());
+            }
+        }
+        return referenced;
+    }
+
     private void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Failed to store empty file");
@@ -124,6 +526,221 @@ public class FileStorageService {
         }
     }
 
+    /**
+     * Records the new row, then publishes {@code incomingFile} under its digest unless that
+     * content is already stored. The row goes in first so a reclaim of the same content on any
+     * node either sees it and keeps the bytes, or has already deleted them when they are checked
+     * here, in which case they are stored again. If publishing fails the row is removed.
+     * {@code diskNanos} is the time the caller already spent writing and hashing (for streamed
+     * uploads this includes waiting on the client), reported together with the publish.
+     */
+    private CourseContent storeBlob(Path incomingFile, String contentHash, String originalFileName,
+                                    String contentType, long fileSize, long diskNanos) throws IOException {
+        String extension = getFileExtension(originalFileName).toLowerCase();
+        String storedFileName = contentHash + "." + extension;
+
+        Lock lock = blobLock(storedFileName);
+        lock.lock();
+        try {
+            long saveStart = System.nanoTime();
+            CourseContent saved = courseContentRepository.save(newCourseContent(originalFileName, contentType,
+                    fileSize, storedFileName, contentHash));
+            metrics.recordUploadDatabase(System.nanoTime() - saveStart);
+
+            long publishStart = System.nanoTime();
+            try {
+                publishContent(storedFileName, incomingFile);
+            } catch (IOException | RuntimeException ex) {
+                courseContentRepository.delete(saved);
+                throw ex;
+            }
+            metrics.recordUploadDisk(diskNanos + System.nanoTime() - publishStart);
+
+            metrics.recordUpload(extension, fileSize);
+            eventPublisher.publishEvent(new CourseContentStoredEvent(saved.getId()));
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands {@code file} to the storage backend unless the content is already stored. Must be
+     * called after the row referencing it was inserted.
+     */
+    private void publishContent(String storedFileName, Path file) throws IOException {
+        if (storageBackend.stat(storedFileName) == null) {
+            storageBackend.put(storedFileName, file);
+        }
+    }
+
+    /**
+     * Writes {@code inputStream} to the staging directory while enforcing the size limit,
+     * computing the SHA-256 digest and checking the leading bytes against the extension on the
+     * same pass.
+     */
+    private StagedUpload stage(InputStream inputStream, String originalFileName) {
+        Path incomingFile = this.incomingLocation.resolve(UUID.randomUUID() + INCOMING_SUFFIX);
+
+        metrics.uploadStarted();
+        try {
+            long diskStart = System.nanoTime();
+            MessageDigest digest = newContentDigest();
+            long fileSize;
+            ContentSniffingInputStream in = new ContentSniffingInputStream(new DigestInputStream(inputStream, digest),
+                    getFileExtension(originalFileName));
+            try (in; OutputStream out = Files.newOutputStream(incomingFile, StandardOpenOption.CREATE_NEW)) {
+                fileSize = copyWithinLimit(in, out);
+            }
+
+            if (fileSize == 0) {
+                throw new IllegalArgumentException("Failed to store empty file");
+            }
+
+            return new StagedUpload(incomingFile, HexFormat.of().formatHex(digest.digest()), originalFileName,
+                    in.contentType(), fileSize, System.nanoTime() - diskStart);
+
+        } catch (IOException ex) {
+            deleteQuietly(incomingFile);
+            throw new FileStorageException("Could not store file " + originalFileName + ". Please try again!", ex);
+        } catch (RuntimeException ex) {
+            deleteQuietly(incomingFile);
+            throw ex;
+        } finally {
+            metrics.uploadFinished();
+        }
+    }
+
+    private String storedFileName(StagedUpload staged) {
+        return staged.contentHash() + "." + getFileExtension(staged.fileName()).toLowerCase();
+    }
+
+    private Resource findResource(String fileName) throws IOException {
+        // A herd of cold reads loads the file into the hot cache, or stats remote storage, once
+        return resourceLookups.execute(fileName, () -> lookupResource(fileName));
+    }
+
+    private Resource lookupResource(String fileName) throws IOException {
+        Resource cached = hotFileCache.get(fileName, storageBackend);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Local files stay file-backed so downloads can use sendfile
+        Path localPath = storageBackend.localPath(fileName);
+        if (localPath != null) {
+            Resource resource = new UrlResource(localPath.toUri());
+            return resource.exists() ? resource : null;
+        }
+
+        StoredObject object = storageBackend.stat(fileName);
+        return object != null ? new StorageBackendResource(storageBackend, object) : null;
+    }
+
+    /**
+     * Deletes a stored file together with the thumbnail, compressed variant and HLS stream
+     * derived from it.
+     */
+    private void deleteStoredContent(String storedFileName) throws IOException {
+        for (String key : List.of(storedFileName,
+                ContentProcessingService.thumbnailFileName(storedFileName),
+                ContentCompressor.gzipFileName(storedFileName),
+                HlsPackager.playlistFileName(storedFileName),
+                HlsPackager.mediaFileName(storedFileName))) {
+            hotFileCache.evict(key);
+            storageBackend.delete(key);
+        }
+    }
+
+    private CourseContent newCourseContent(String originalFileName, String contentType, long fileSize,
+                                           String storedFileName, String contentHash) {
+        CourseContent courseContent = new CourseContent();
+        courseContent.setFileName(originalFileName);
+        courseContent.setFileType(contentType != null ? contentType : DEFAULT_CONTENT_TYPE);
+        courseContent.setFileSize(fileSize);
+        courseContent.setFileUrl(storedFileName);
+        courseContent.setContentHash(contentHash);
+        courseContent.setTypeVerified(true);
+        courseContent.setProcessingStatus(ProcessingStatus.PENDING);
+        return courseContent;
+    }
+
+    private record PageCursor(LocalDateTime uploadDate, long id) {
+
+        private static final String SEPARATOR = "~";
+
+        String encode() {
+            String raw = uploadDate + SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf(SEPARATOR);
+                return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid page cursor " + cursor);
+            }
+        }
+    }
+
+    private Lock blobLock(String storedFileName) {
+        return blobLocks[blobStripe(storedFileName)];
+    }
+
+    private int blobStripe(String storedFileName) {
+        return Math.floorMod(baseName(storedFileName).hashCode(), blobLocks.length);
+    }
+
+    /**
+     * The stored name without its compressed-variant suffix, extension or derived-file suffix: the
+     * content hash for content-addressed files.
+     */
+    private String baseName(String storedFileName) {
+        String originalName = storedFileName.endsWith(ContentCompressor.GZIP_SUFFIX)
+                ? storedFileName.substring(0, storedFileName.length() - ContentCompressor.GZIP_SUFFIX.length())
+                : storedFileName;
+        String baseName = StringUtils.stripFilenameExtension(originalName);
+        for (String suffix : DERIVED_BASE_SUFFIXES) {
+            if (baseName.endsWith(suffix)) {
+                return baseName.substring(0, baseName.length() - suffix.length());
+            }
+        }
+        return baseName;
+    }
+
+    private MessageDigest newContentDigest() {
+        try {
+            return MessageDigest.getInstance(CONTENT_DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(CONTENT_DIGEST_ALGORITHM + " is not available", ex);
+        }
+    }
+
+    private long copyWithinLimit(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > MAX_FILE_SIZE) {
+                throw new IllegalArgumentException("File size exceeds maximum limit of 50MB");
+            }
+            out.write(buffer, 0, read);
+        }
+        return total;
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            // Best effort cleanup of a partially written file
+        }
+    }
+
     private String getFileExtension(String fileName) {
         if (fileName == null || fileName.lastIndexOf(".") == -1) {
             return "";
@@ -0,0 +1,137 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer meters for file transfers. Extension tags only ever come from files that were
+ * accepted or found, so their cardinality stays bounded by the allowed upload types.
+ */
+@Component
+public class FileTransferMetrics {
+
+    private static final double[] SIZE_BUCKETS = {
+            DataSize.ofKilobytes(16).toBytes(),
+            DataSize.ofKilobytes(256).toBytes(),
+            DataSize.ofMegabytes(1).toBytes(),
+            DataSize.ofMegabytes(5).toBytes(),
+            DataSize.ofMegabytes(10).toBytes(),
+            DataSize.ofMegabytes(25).toBytes(),
+            DataSize.ofMegabytes(50).toBytes()
+    };
+
+    private final MeterRegistry registry;
+    private final AtomicInteger activeUploads = new AtomicInteger();
+    private final AtomicInteger activeDownloads = new AtomicInteger();
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+    private final Timer uploadDisk;
+    private final Timer uploadDatabase;
+    private final Timer deleteDisk;
+    private final Timer deleteDatabase;
+
+    public FileTransferMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        registry.gauge("file.transfers.active", Tags.of("direction", "upload"), activeUploads);
+        registry.gauge("file.transfers.active", Tags.of("direction", "download"), activeDownloads);
+
+        this.bytesIn = transferBytes("in");
+        this.bytesOut = transferBytes("out");
+        this.uploadDisk = storageLatency("upload", "disk");
+        this.uploadDatabase = storageLatency("upload", "db");
+        this.deleteDisk = storageLatency("delete", "disk");
+        this.deleteDatabase = storageLatency("delete", "db");
+    }
+
+    public void uploadStarted() {
+        activeUploads.incrementAndGet();
+    }
+
+    public void uploadFinished() {
+        activeUploads.decrementAndGet();
+    }
+
+    public void downloadStarted() {
+        activeDownloads.incrementAndGet();
+    }
+
+    public void downloadFinished() {
+        activeDownloads.decrementAndGet();
+    }
+
+    public void recordUploadDisk(long nanos) {
+        uploadDisk.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUploadDatabase(long nanos) {
+        uploadDatabase.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDeleteDisk(long nanos) {
+        deleteDisk.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDeleteDatabase(long nanos) {
+        deleteDatabase.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a stored upload: its size per extension and the bytes received.
+     */
+    public void recordUpload(String extension, long bytes) {
+        fileSize("file.upload.size", extension).record(bytes);
+        bytesIn.increment(bytes);
+    }
+
+    /**
+     * Records a finished download: how long it took per extension and the body bytes sent.
+     */
+    public void recordDownload(String extension, long bytes, long nanos) {
+        Timer.builder("file.download.duration")
+                .tag("extension", normalize(extension))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        fileSize("file.download.size", extension).record(bytes);
+        bytesOut.increment(bytes);
+    }
+
+    private DistributionSummary fileSize(String name, String extension) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tag("extension", normalize(extension))
+                .serviceLevelObjectives(SIZE_BUCKETS)
+                .register(registry);
+    }
+
+    private Counter transferBytes(String direction) {
+        return Counter.builder("file.transfer.bytes")
+                .baseUnit("bytes")
+                .tag("direction", direction)
+                .description("Bytes received by uploads and sent by downloads")
+                .register(registry);
+    }
+
+    private Timer storageLatency(String operation, String phase) {
+        return Timer.builder("file.storage.latency")
+                .tag("operation", operation)
+                .tag("phase", phase)
+                .description("Time spent on disk and in the database while storing or deleting files")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private String normalize(String extension) {
+        return extension == null || extension.isEmpty() ? "none" : extension.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,13 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.util.List;
+
+/**
+ * Layout of a file written by {@link Mp4Fragmenter}: the length of the initialization section at
+ * the start of the file, then the byte range and duration of each segment in order.
+ */
+public record FragmentedMp4(long initLength, List<Segment> segments) {
+
+    public record Segment(long offset, long length, double durationSeconds) {
+    }
+}
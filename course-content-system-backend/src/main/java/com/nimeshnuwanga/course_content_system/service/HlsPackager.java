@@ -0,0 +1,88 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Prepares MP4 lectures for HLS adaptive streaming. Each video is remuxed, without re-encoding,
+ * into one fragmented MP4 kept next to the original, and a VOD playlist addresses its segments as
+ * byte ranges of that file. Players fetch segments with ordinary range requests, so they are
+ * served by the same zero-copy path as downloads and only two objects are stored per video.
+ * Packaging is off unless {@code file.streaming.enabled} is set, since it doubles the storage
+ * used by videos.
+ */
+@Component
+public class HlsPackager {
+
+    public static final String PLAYLIST_CONTENT_TYPE = "application/vnd.apple.mpegurl";
+    public static final String MEDIA_CONTENT_TYPE = "video/mp4";
+    // The playlist refers to the media relative to its own URL
+    public static final String PLAYLIST_URI = "index.m3u8";
+    public static final String MEDIA_URI = "media.mp4";
+    private static final String PLAYLIST_SUFFIX = "-hls.m3u8";
+    private static final String MEDIA_SUFFIX = "-hls.mp4";
+
+    private final boolean enabled;
+    private final Mp4Fragmenter fragmenter;
+
+    public HlsPackager(@Value("${file.streaming.enabled:false}") boolean enabled,
+                       @Value("${file.streaming.segment-duration:PT6S}") Duration segmentDuration) {
+        this.enabled = enabled;
+        this.fragmenter = new Mp4Fragmenter(segmentDuration);
+    }
+
+    /**
+     * Name of the playlist stored for a video.
+     */
+    public static String playlistFileName(String storedFileName) {
+        return StringUtils.stripFilenameExtension(storedFileName) + PLAYLIST_SUFFIX;
+    }
+
+    /**
+     * Name of the fragmented MP4 stored for a video.
+     */
+    public static String mediaFileName(String storedFileName) {
+        return StringUtils.stripFilenameExtension(storedFileName) + MEDIA_SUFFIX;
+    }
+
+    public boolean isPackageable(String storedFileName) {
+        return enabled && "mp4".equalsIgnoreCase(StringUtils.getFilenameExtension(storedFileName));
+    }
+
+    /**
+     * Writes the fragmented copy of {@code source} to {@code media} and returns the playlist
+     * that addresses it.
+     */
+    public String packageVideo(Path source, Path media) throws IOException {
+        return playlist(fragmenter.fragment(source, media));
+    }
+
+    static String playlist(FragmentedMp4 media) {
+        long targetDuration = 1;
+        for (FragmentedMp4.Segment segment : media.segments()) {
+            targetDuration = Math.max(targetDuration, Math.round(segment.durationSeconds()));
+        }
+
+        StringBuilder playlist = new StringBuilder()
+                .append("#EXTM3U\n")
+                .append("#EXT-X-VERSION:7\n")
+                .append("#EXT-X-TARGETDURATION:").append(targetDuration).append('\n')
+                .append("#EXT-X-MEDIA-SEQUENCE:0\n")
+                .append("#EXT-X-PLAYLIST-TYPE:VOD\n")
+                .append("#EXT-X-INDEPENDENT-SEGMENTS\n")
+                .append("#EXT-X-MAP:URI=\"").append(MEDIA_URI).append("\",BYTERANGE=\"")
+                .append(media.initLength()).append("@0\"\n");
+        for (FragmentedMp4.Segment segment : media.segments()) {
+            playlist.append(String.format(Locale.ROOT, "#EXTINF:%.6f,", segment.durationSeconds())).append('\n')
+                    .append("#EXT-X-BYTERANGE:").append(segment.length()).append('@').append(segment.offset()).append('\n')
+                    .append(MEDIA_URI).append('\n');
+        }
+        return playlist.append("#EXT-X-ENDLIST\n").toString();
+    }
+}
@@ -0,0 +1,239 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.storage.StorageBackend;
+import com.nimeshnuwanga.course_content_system.storage.StoredObject;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the bytes of small, frequently downloaded files in direct (off-heap) buffers so
+ * repeated downloads do not touch the disk or the object store. Entries are evicted
+ * least-recently-used once the total cached size would exceed the memory budget. A file is only
+ * admitted on its second miss within the admission window, so one-off downloads do not push out
+ * files that are requested repeatedly. Stored files are never modified in place, so the only
+ * invalidation needed is {@link #evict(String)} when a file is deleted.
+ * <p>
+ * The budget is allocated from direct memory, so it must fit within the JVM's
+ * {@code -XX:MaxDirectMemorySize}.
+ */
+@Component
+public class HotFileCache implements MeterBinder {
+
+    // Bounds the memory spent remembering files that missed once
+    private static final int MAX_CANDIDATES = 4096;
+
+    private final boolean enabled;
+    private final long maxFileSize;
+    private final long budget;
+    private final long admissionWindowNanos;
+    private final LinkedHashMap<String, CachedFileResource> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // Time of the first recent miss of each file that is not cached yet
+    private final LinkedHashMap<String, Long> candidates = new LinkedHashMap<>(64, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_CANDIDATES;
+        }
+    };
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+    private long cachedBytes;
+    // Bumped by every evict so a load that overlapped one does not cache what may be deleted
+    private long evictions;
+
+    public HotFileCache(@Value("${file.download.cache.enabled:true}") boolean enabled,
+                        @Value("${file.download.cache.max-file-size:1MB}") DataSize maxFileSize,
+                        @Value("${file.download.cache.budget:64MB}") DataSize budget,
+                        @Value("${file.download.cache.admission-window:PT10M}") Duration admissionWindow) {
+        this.enabled = enabled;
+        this.maxFileSize = maxFileSize.toBytes();
+        this.budget = budget.toBytes();
+        this.admissionWindowNanos = admissionWindow.toNanos();
+    }
+
+    /**
+     * Returns the cached copy of {@code key}, loading it from {@code storageBackend} first if it
+     * is small enough to be cached and missed once already within the admission window. Returns
+     * {@code null} when the file is missing, not cacheable or not admitted yet, in which case the
+     * caller should read it from the backend.
+     */
+    public Resource get(String key, StorageBackend storageBackend) {
+        if (!enabled) {
+            return null;
+        }
+
+        CachedFileResource cached;
+        long generation;
+        lock.lock();
+        try {
+            cached = entries.get(key);
+            generation = evictions;
+        } finally {
+            lock.unlock();
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        try {
+            StoredObject object = storageBackend.stat(key);
+            if (object == null || !cacheable(object.size())) {
+                // Not a miss the cache could ever have served, so kept out of the hit ratio
+                bypasses.increment();
+                return null;
+            }
+            misses.increment();
+            if (!admit(key)) {
+                return null;
+            }
+            return load(key, object, storageBackend, generation);
+        } catch (IOException ex) {
+            // Fall back to reading from the backend
+            return null;
+        }
+    }
+
+    public void evict(String key) {
+        lock.lock();
+        try {
+            evictions++;
+            candidates.remove(key);
+            CachedFileResource removed = entries.remove(key);
+            if (removed != null) {
+                cachedBytes -= removed.contentLength();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public long getBytesServed() {
+        return bytesServed.sum();
+    }
+
+    public long getCachedBytes() {
+        lock.lock();
+        try {
+            return cachedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("file.download.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Downloads looked up in the hot file cache")
+                .register(registry);
+        FunctionCounter.builder("file.download.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Downloads looked up in the hot file cache")
+                .register(registry);
+        FunctionCounter.builder("file.download.cache.requests", bypasses, LongAdder::sum)
+                .tag("result", "bypass")
+                .description("Downloads looked up in the hot file cache")
+                .register(registry);
+        FunctionCounter.builder("file.download.cache.served", bytesServed, LongAdder::sum)
+                .baseUnit("bytes")
+                .description("Bytes written to clients from the hot file cache")
+                .register(registry);
+        Gauge.builder("file.download.cache.hit.ratio", this, HotFileCache::hitRatio)
+                .register(registry);
+        Gauge.builder("file.download.cache.size", this, HotFileCache::getCachedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private boolean cacheable(long size) {
+        return size > 0 && size <= maxFileSize && size <= budget;
+    }
+
+    /**
+     * Records a miss of {@code key} and returns whether it is the second one within the
+     * admission window.
+     */
+    private boolean admit(String key) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Long firstMiss = candidates.remove(key);
+            if (firstMiss != null && now - firstMiss <= admissionWindowNanos) {
+                return true;
+            }
+            candidates.put(key, now);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CachedFileResource load(String key, StoredObject object, StorageBackend storageBackend,
+                                    long generation) throws IOException {
+        long size = object.size();
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        try (InputStream in = storageBackend.get(key, 0, size);
+             ReadableByteChannel channel = Channels.newChannel(in)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("File " + key + " is shorter than " + size + " bytes");
+                }
+            }
+        }
+        buffer.flip();
+
+        CachedFileResource loaded = new CachedFileResource(key, buffer.asReadOnlyBuffer(), object.lastModified(),
+                bytesServed);
+
+        lock.lock();
+        try {
+            if (evictions != generation) {
+                // The file may have been deleted while it was read; let the backend decide
+                return null;
+            }
+            // Another request may have loaded the same file meanwhile
+            CachedFileResource existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            Iterator<Map.Entry<String, CachedFileResource>> eldest = entries.entrySet().iterator();
+            while (cachedBytes + size > budget && eldest.hasNext()) {
+                cachedBytes -= eldest.next().getValue().contentLength();
+                eldest.remove();
+            }
+            entries.put(key, loaded);
+            cachedBytes += size;
+        } finally {
+            lock.unlock();
+        }
+        return loaded;
+    }
+}
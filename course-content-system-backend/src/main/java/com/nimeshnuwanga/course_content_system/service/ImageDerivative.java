@@ -0,0 +1,10 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.nio.file.Path;
+
+/**
+ * A resized copy of a stored image, kept in the derivative cache. {@code name} is derived from
+ * the stored name of the original and the requested size and format, so it identifies the image.
+ */
+public record ImageDerivative(Path file, String name, String contentType) {
+}
@@ -0,0 +1,332 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.exception.FileNotFoundException;
+import com.nimeshnuwanga.course_content_system.storage.StorageBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Resizes stored JPG and PNG images on request and keeps the results in a disk cache under
+ * {@code file.upload-dir}, so each size is rendered once. Stored files are content-addressed and
+ * never change, so a cached derivative never goes stale; derivatives of deleted images are simply
+ * no longer served and age out of the cache. Concurrent requests for a derivative that is not
+ * cached yet wait for a single render instead of each decoding the original.
+ * <p>
+ * Images are scaled to fit within the requested width and height, keeping their aspect ratio,
+ * and are never enlarged. JPEG and PNG output is always available; WebP only when an ImageIO
+ * WebP writer is on the classpath. When the cache grows past {@code file.image.cache.budget} a
+ * periodic trim deletes the least recently used derivatives.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+    private static final String CACHE_DIRECTORY = ".derivatives";
+    private static final int SHARD_WIDTH = 2;
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of("jpg", "jpeg", "png");
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "webp", "image/webp"
+    );
+    // Recording every hit would turn each cached read into a metadata write
+    private static final Duration TOUCH_INTERVAL = Duration.ofHours(1);
+
+    private final StorageBackend storageBackend;
+    private final Path cacheLocation;
+    private final int maxDimension;
+    private final float quality;
+    private final long budget;
+    private final SingleFlight<String, Path> renders = new SingleFlight<>();
+
+    public ImageDerivativeService(@Value("${file.upload-dir}") String uploadDir,
+                                  StorageBackend storageBackend,
+                                  @Value("${file.image.max-dimension:2048}") int maxDimension,
+                                  @Value("${file.image.quality:0.85}") float quality,
+                                  @Value("${file.image.cache.budget:1GB}") DataSize budget) {
+        this.storageBackend = storageBackend;
+        this.cacheLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(CACHE_DIRECTORY);
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+        this.budget = budget.toBytes();
+    }
+
+    /**
+     * Returns {@code fileName} scaled to fit within {@code width} by {@code height}, in
+     * {@code format} or the original format when it is {@code null}. Either dimension may be
+     * {@code null} to constrain only the other.
+     */
+    public ImageDerivative getDerivative(String fileName, Integer width, Integer height, String format)
+            throws IOException {
+        String extension = StringUtils.getFilenameExtension(fileName);
+        if (extension == null || !SOURCE_EXTENSIONS.contains(extension.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("Only JPG and PNG images can be resized");
+        }
+        if (width == null && height == null) {
+            throw new IllegalArgumentException("Width or height is required");
+        }
+        checkDimension("Width", width);
+        checkDimension("Height", height);
+        String outputFormat = outputFormat(format != null ? format : extension);
+
+        // The original may have been deleted since its derivatives were cached
+        if (storageBackend.stat(fileName) == null) {
+            throw new FileNotFoundException("File not found " + fileName);
+        }
+
+        String derivativeName = fileName + "-w" + (width != null ? width : 0)
+                + "-h" + (height != null ? height : 0) + "." + outputFormat;
+        Path derivative = cacheLocation.resolve(derivativeName.substring(0, SHARD_WIDTH)).resolve(derivativeName);
+        if (!touch(derivative)) {
+            renderOnce(fileName, derivativeName, derivative, width, height, outputFormat);
+        }
+        return new ImageDerivative(derivative, derivativeName, CONTENT_TYPES.get(outputFormat));
+    }
+
+    @Scheduled(fixedDelayString = "${file.image.cache.cleanup-interval:PT10M}")
+    public void scheduledTrim() {
+        try {
+            int deleted = trimCache();
+            if (deleted > 0) {
+                log.info("Deleted {} cached image derivatives", deleted);
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Image derivative cache trim failed", ex);
+        }
+    }
+
+    /**
+     * Deletes the least recently used derivatives until the cache fits its budget and returns
+     * how many were deleted.
+     */
+    public int trimCache() throws IOException {
+        if (!Files.isDirectory(cacheLocation)) {
+            return 0;
+        }
+
+        List<CachedDerivative> derivatives;
+        try (Stream<Path> files = Files.find(cacheLocation, 2, (path, attributes) -> attributes.isRegularFile())) {
+            derivatives = files.map(this::readCachedDerivative)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparingLong(CachedDerivative::lastUsed))
+                    .toList();
+        }
+
+        long cachedBytes = derivatives.stream().mapToLong(CachedDerivative::size).sum();
+        int deleted = 0;
+        for (Iterator<CachedDerivative> iterator = derivatives.iterator(); cachedBytes > budget && iterator.hasNext(); ) {
+            CachedDerivative derivative = iterator.next();
+            Files.deleteIfExists(derivative.path());
+            cachedBytes -= derivative.size();
+            deleted++;
+        }
+        return deleted;
+    }
+
+    private void checkDimension(String name, Integer value) {
+        if (value != null && (value < 1 || value > maxDimension)) {
+            throw new IllegalArgumentException(name + " must be between 1 and " + maxDimension);
+        }
+    }
+
+    private String outputFormat(String format) {
+        String outputFormat = format.trim().toLowerCase(Locale.ROOT);
+        if (outputFormat.equals("jpg")) {
+            outputFormat = "jpeg";
+        }
+        if (!CONTENT_TYPES.containsKey(outputFormat) || !ImageIO.getImageWritersByFormatName(outputFormat).hasNext()) {
+            throw new IllegalArgumentException("Unsupported image format " + format);
+        }
+        return outputFormat;
+    }
+
+    /**
+     * Returns whether {@code derivative} is cached, marking it as recently used.
+     */
+    private boolean touch(Path derivative) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(derivative, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (attributes.lastModifiedTime().toMillis() < now - TOUCH_INTERVAL.toMillis()) {
+            try {
+                Files.setLastModifiedTime(derivative, FileTime.fromMillis(now));
+            } catch (NoSuchFileException ex) {
+                // Trimmed since its attributes were read
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Renders the derivative unless another request is already rendering it, in which case this
+     * waits for that render and shares its outcome.
+     */
+    private void renderOnce(String fileName, String derivativeName, Path derivative, Integer width, Integer height,
+                            String format) throws IOException {
+        renders.execute(derivativeName, () -> {
+            // A render that finished between the cache check and claiming this one already wrote it
+            if (!Files.exists(derivative)) {
+                write(resize(fileName, width, height, format), format, derivative);
+            }
+            return derivative;
+        });
+    }
+
+    /**
+     * Decodes and scales the original. Local files are read in place; others are streamed from
+     * the storage backend.
+     */
+    private BufferedImage resize(String fileName, Integer width, Integer height, String format) throws IOException {
+        Path localPath = storageBackend.localPath(fileName);
+        if (localPath != null) {
+            try (ImageInputStream input = ImageIO.createImageInputStream(localPath.toFile())) {
+                return resize(input, fileName, width, height, format);
+            }
+        }
+        try (InputStream in = storageBackend.get(fileName, 0, -1);
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            return resize(input, fileName, width, height, format);
+        }
+    }
+
+    private BufferedImage resize(ImageInputStream input, String fileName, Integer width, Integer height,
+                                 String format) throws IOException {
+        Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+        if (readers == null || !readers.hasNext()) {
+            throw new IOException("Unsupported image " + fileName);
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(input, true, true);
+            int sourceWidth = reader.getWidth(0);
+            int[] size = fit(sourceWidth, reader.getHeight(0), width, height);
+
+            // Decoding every other pixel of a large photo is wasted work for a much smaller result
+            ImageReadParam param = reader.getDefaultReadParam();
+            int subsampling = Math.max(1, sourceWidth / (size[0] * 2));
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            return scale(reader.read(0, param), size[0], size[1], format);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source, int width, int height, String format) {
+        boolean opaque = format.equals("jpeg");
+
+        BufferedImage scaled = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            if (opaque) {
+                // JPEG has no alpha channel, so transparent areas are flattened onto white
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Returns the largest {@code [width, height]} with the source's aspect ratio that fits within
+     * the requested bounds without enlarging the source.
+     */
+    private static int[] fit(int sourceWidth, int sourceHeight, Integer width, Integer height) {
+        double scale = 1.0;
+        if (width != null) {
+            scale = Math.min(scale, (double) width / sourceWidth);
+        }
+        if (height != null) {
+            scale = Math.min(scale, (double) height / sourceHeight);
+        }
+        return new int[]{
+                Math.max(1, (int) Math.round(sourceWidth * scale)),
+                Math.max(1, (int) Math.round(sourceHeight * scale))
+        };
+    }
+
+    private void write(BufferedImage image, String format, Path derivative) throws IOException {
+        Files.createDirectories(derivative.getParent());
+        Path temp = derivative.resolveSibling(UUID.randomUUID() + ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (!format.equals("png") && param.canWriteCompressed()) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    String[] compressionTypes = param.getCompressionTypes();
+                    if (param.getCompressionType() == null && compressionTypes != null && compressionTypes.length > 0) {
+                        param.setCompressionType(compressionTypes[0]);
+                    }
+                    param.setCompressionQuality(quality);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(temp, derivative, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private CachedDerivative readCachedDerivative(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new CachedDerivative(path, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException ex) {
+            // Deleted since it was listed
+            return null;
+        }
+    }
+
+    private record CachedDerivative(Path path, long size, long lastUsed) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+/**
+ * Values extracted from a stored file. Only the fields that apply to the file's type are set.
+ */
+public record MediaMetadata(Integer imageWidth, Integer imageHeight, Integer pageCount, Long durationMillis,
+                            boolean thumbnailCreated) {
+
+    static MediaMetadata image(int width, int height) {
+        return new MediaMetadata(width, height, null, null, true);
+    }
+
+    static MediaMetadata document(int pageCount) {
+        return new MediaMetadata(null, null, pageCount, null, false);
+    }
+
+    static MediaMetadata video(long durationMillis) {
+        return new MediaMetadata(null, null, null, durationMillis, false);
+    }
+
+    static MediaMetadata none() {
+        return new MediaMetadata(null, null, null, null, false);
+    }
+}
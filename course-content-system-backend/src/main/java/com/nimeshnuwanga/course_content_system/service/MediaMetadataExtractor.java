@@ -0,0 +1,181 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Reads dimensions and thumbnails from images, page counts from PDFs and durations from MP4s.
+ * Each extraction reads only what it needs: image headers plus a subsampled decode, the PDF
+ * page tree, and the MP4 {@code moov/mvhd} box.
+ */
+@Component
+public class MediaMetadataExtractor {
+
+    private static final int BOX_HEADER_SIZE = 8;
+
+    private final int thumbnailSize;
+
+    public MediaMetadataExtractor(@Value("${file.processing.thumbnail-size:320}") int thumbnailSize) {
+        this.thumbnailSize = thumbnailSize;
+    }
+
+    /**
+     * Extracts metadata from {@code file}. For images a PNG thumbnail is written to
+     * {@code thumbnail} unless it is {@code null}.
+     */
+    public MediaMetadata extract(Path file, String extension, Path thumbnail) throws IOException {
+        return switch (extension.toLowerCase(Locale.ROOT)) {
+            case "jpg", "jpeg", "png" -> extractImage(file, thumbnail);
+            case "pdf" -> extractPdf(file);
+            case "mp4" -> MediaMetadata.video(readMp4DurationMillis(file));
+            default -> MediaMetadata.none();
+        };
+    }
+
+    private MediaMetadata extractImage(Path file, Path thumbnail) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image " + file.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                if (thumbnail != null) {
+                    // Decoding every other pixel of a large photo is wasted work for a small thumbnail
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    int subsampling = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                    writeThumbnail(reader.read(0, param), thumbnail);
+                }
+                return MediaMetadata.image(width, height);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void writeThumbnail(BufferedImage source, Path thumbnail) throws IOException {
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Path temp = thumbnail.resolveSibling(UUID.randomUUID() + ".tmp");
+        try {
+            if (!ImageIO.write(scaled, "png", temp.toFile())) {
+                throw new IOException("No PNG writer available");
+            }
+            Files.move(temp, thumbnail, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private MediaMetadata extractPdf(Path file) throws IOException {
+        try (PDDocument document = Loader.loadPDF(file.toFile())) {
+            return MediaMetadata.document(document.getNumberOfPages());
+        }
+    }
+
+    /**
+     * Reads the movie duration from the {@code mvhd} box inside the top-level {@code moov} box,
+     * skipping over media data without reading it.
+     */
+    private long readMp4DurationMillis(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] moov = findBox(channel, 0, channel.size(), "moov");
+            long[] mvhd = moov != null ? findBox(channel, moov[0], moov[1], "mvhd") : null;
+            if (mvhd == null) {
+                throw new IOException("No movie header in " + file.getFileName());
+            }
+
+            ByteBuffer header = readFully(channel, mvhd[0], 32);
+            int version = header.get(0);
+            long timescale;
+            long duration;
+            if (version == 1) {
+                timescale = Integer.toUnsignedLong(header.getInt(20));
+                duration = header.getLong(24);
+            } else {
+                timescale = Integer.toUnsignedLong(header.getInt(12));
+                duration = Integer.toUnsignedLong(header.getInt(16));
+            }
+            if (timescale == 0) {
+                throw new IOException("Invalid movie timescale in " + file.getFileName());
+            }
+            return duration * 1000 / timescale;
+        }
+    }
+
+    /**
+     * Returns {@code [payloadStart, boxEnd]} of the first box of {@code type} between
+     * {@code from} and {@code to}, or {@code null} if there is none.
+     */
+    private long[] findBox(FileChannel channel, long from, long to, String type) throws IOException {
+        long position = from;
+        while (position + BOX_HEADER_SIZE <= to) {
+            ByteBuffer header = readFully(channel, position, BOX_HEADER_SIZE);
+            long size = Integer.toUnsignedLong(header.getInt(0));
+            String boxType = new String(header.array(), 4, 4, StandardCharsets.ISO_8859_1);
+            long headerSize = BOX_HEADER_SIZE;
+            if (size == 1) {
+                size = readFully(channel, position + BOX_HEADER_SIZE, 8).getLong(0);
+                headerSize += 8;
+            } else if (size == 0) {
+                size = to - position;
+            }
+            if (size < headerSize || position + size > to) {
+                throw new IOException("Corrupt MP4 box " + boxType + " at offset " + position);
+            }
+            if (boxType.equals(type)) {
+                return new long[]{position + headerSize, position + size};
+            }
+            position += size;
+        }
+        return null;
+    }
+
+    private ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("MP4 ended at offset " + (position + buffer.position()));
+            }
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,598 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rewrites a progressive MP4 as a fragmented MP4 without re-encoding: an initialization section
+ * ({@code ftyp} and a {@code moov} with empty sample tables) followed by one {@code moof}/{@code mdat}
+ * pair per segment. Segments start at the first keyframe at or after each multiple of the segment
+ * duration, so every segment can be decoded on its own; audio is cut at the same times.
+ * <p>
+ * Only the {@code moov} box is held in memory. Sample data is copied from the source with
+ * {@link FileChannel#transferTo}, merging samples that sit next to each other into one transfer.
+ * Video and audio tracks are kept; other tracks, such as subtitles or hints, are dropped.
+ */
+public class Mp4Fragmenter {
+
+    private static final int BOX_HEADER_SIZE = 8;
+    private static final int MAX_MOOV_SIZE = 64 * 1024 * 1024;
+    private static final int SYNC_SAMPLE_FLAGS = 0x02000000;
+    private static final int NON_SYNC_SAMPLE_FLAGS = 0x01010000;
+    private static final int TFHD_DEFAULT_BASE_IS_MOOF = 0x020000;
+    private static final int TRUN_DATA_OFFSET = 0x000001;
+    private static final int TRUN_SAMPLE_DURATION = 0x000100;
+    private static final int TRUN_SAMPLE_SIZE = 0x000200;
+    private static final int TRUN_SAMPLE_FLAGS = 0x000400;
+    private static final int TRUN_COMPOSITION_OFFSET = 0x000800;
+
+    private final Duration segmentDuration;
+
+    public Mp4Fragmenter(Duration segmentDuration) {
+        if (segmentDuration.isNegative() || segmentDuration.isZero()) {
+            throw new IllegalArgumentException("Segment duration must be positive");
+        }
+        this.segmentDuration = segmentDuration;
+    }
+
+    /**
+     * Writes the fragmented copy of {@code source} to {@code target} and returns where its
+     * initialization section and segments are.
+     */
+    public FragmentedMp4 fragment(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer moov = readMoov(in);
+            List<Track> tracks;
+            try {
+                tracks = parseTracks(moov, in.size());
+            } catch (IndexOutOfBoundsException ex) {
+                throw new IOException("Corrupt MP4 sample tables in " + source.getFileName(), ex);
+            }
+            if (tracks.isEmpty()) {
+                throw new IOException("No audio or video samples in " + source.getFileName());
+            }
+
+            Track reference = tracks.stream().filter(Track::isVideo).findFirst().orElse(tracks.get(0));
+            long[] boundaries = segmentBoundaries(reference);
+            for (Track track : tracks) {
+                track.segmentStarts = segmentStarts(track, reference.timescale, boundaries);
+            }
+
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                byte[] init = initSection(moov, tracks);
+                writeFully(out, ByteBuffer.wrap(init));
+
+                List<FragmentedMp4.Segment> segments = new ArrayList<>(boundaries.length - 1);
+                for (int segment = 0; segment < boundaries.length - 1; segment++) {
+                    long offset = out.position();
+                    writeSegment(in, out, tracks, segment);
+                    double seconds = (double) (boundaries[segment + 1] - boundaries[segment]) / reference.timescale;
+                    segments.add(new FragmentedMp4.Segment(offset, out.position() - offset, seconds));
+                }
+                return new FragmentedMp4(init.length, segments);
+            }
+        }
+    }
+
+    /**
+     * Reads the top-level {@code moov} box, skipping over media data without reading it.
+     */
+    private ByteBuffer readMoov(FileChannel in) throws IOException {
+        long position = 0;
+        long end = in.size();
+        while (position + BOX_HEADER_SIZE <= end) {
+            ByteBuffer header = readFully(in, position, BOX_HEADER_SIZE);
+            long size = Integer.toUnsignedLong(header.getInt(0));
+            String type = new String(header.array(), 4, 4, StandardCharsets.ISO_8859_1);
+            long headerSize = BOX_HEADER_SIZE;
+            if (size == 1) {
+                size = readFully(in, position + BOX_HEADER_SIZE, 8).getLong(0);
+                headerSize += 8;
+            } else if (size == 0) {
+                size = end - position;
+            }
+            if (size < headerSize || position + size > end) {
+                throw new IOException("Corrupt MP4 box " + type + " at offset " + position);
+            }
+            if (type.equals("moov")) {
+                if (size > MAX_MOOV_SIZE) {
+                    throw new IOException("MP4 movie header is too large");
+                }
+                return readFully(in, position, (int) size);
+            }
+            position += size;
+        }
+        throw new IOException("No movie header found");
+    }
+
+    private List<Track> parseTracks(ByteBuffer moov, long fileSize) throws IOException {
+        Box root = new Box("moov", 0, headerSize(moov, 0), moov.capacity());
+        if (child(moov, root, "mvex") != null) {
+            throw new IOException("MP4 is already fragmented");
+        }
+
+        List<Track> tracks = new ArrayList<>();
+        for (Box trak : children(moov, root)) {
+            if (!trak.type().equals("trak")) {
+                continue;
+            }
+            Track track = parseTrack(moov, trak, fileSize);
+            if (track != null) {
+                tracks.add(track);
+            }
+        }
+        return tracks;
+    }
+
+    /**
+     * Expands the sample tables of a track into one entry per sample. Returns {@code null} for
+     * tracks that are neither video nor audio, or that have no samples.
+     */
+    private Track parseTrack(ByteBuffer moov, Box trak, long fileSize) throws IOException {
+        Box mdia = require(moov, trak, "mdia");
+        Box hdlr = require(moov, mdia, "hdlr");
+        String handler = new String(moov.array(), hdlr.payload() + 8, 4, StandardCharsets.ISO_8859_1);
+        if (!handler.equals("vide") && !handler.equals("soun")) {
+            return null;
+        }
+
+        Box tkhd = require(moov, trak, "tkhd");
+        Box mdhd = require(moov, mdia, "mdhd");
+        Box stbl = require(moov, require(moov, mdia, "minf"), "stbl");
+        Track track = new Track(trak, handler.equals("vide"));
+        track.trackId = moov.getInt(tkhd.payload() + (version(moov, tkhd) == 1 ? 20 : 12));
+        track.timescale = Integer.toUnsignedLong(moov.getInt(mdhd.payload() + (version(moov, mdhd) == 1 ? 20 : 12)));
+        if (track.timescale == 0) {
+            throw new IOException("Invalid timescale in track " + track.trackId);
+        }
+
+        Box stsz = child(moov, stbl, "stsz");
+        if (stsz == null) {
+            throw new IOException("Unsupported sample size table in track " + track.trackId);
+        }
+        int uniformSize = moov.getInt(stsz.payload() + 4);
+        int count = moov.getInt(stsz.payload() + 8);
+        if (count <= 0) {
+            return null;
+        }
+        // A corrupt count must not allocate more entries than the table or the file can hold
+        long maxCount = uniformSize != 0 ? fileSize / Integer.toUnsignedLong(uniformSize)
+                : (stsz.end() - stsz.payload() - 12) / 4;
+        if (count > maxCount) {
+            throw new IOException("Corrupt sample size table in track " + track.trackId);
+        }
+        track.sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            track.sizes[i] = uniformSize != 0 ? uniformSize : moov.getInt(stsz.payload() + 12 + 4 * i);
+        }
+
+        readDecodeTimes(moov, require(moov, stbl, "stts"), track);
+        readCompositionOffsets(moov, child(moov, stbl, "ctts"), track);
+        readSyncSamples(moov, child(moov, stbl, "stss"), track);
+        readOffsets(moov, stbl, track, fileSize);
+        return track;
+    }
+
+    private void readDecodeTimes(ByteBuffer moov, Box stts, Track track) throws IOException {
+        int count = track.sizes.length;
+        track.decodeTimes = new long[count];
+        track.durations = new int[count];
+        int entries = moov.getInt(stts.payload() + 4);
+        int sample = 0;
+        long time = 0;
+        for (int entry = 0; entry < entries && sample < count; entry++) {
+            int run = moov.getInt(stts.payload() + 8 + 8 * entry);
+            int delta = moov.getInt(stts.payload() + 12 + 8 * entry);
+            for (int i = 0; i < run && sample < count; i++, sample++) {
+                track.decodeTimes[sample] = time;
+                track.durations[sample] = delta;
+                time += Integer.toUnsignedLong(delta);
+            }
+        }
+        if (sample < count) {
+            throw new IOException("Incomplete time-to-sample table in track " + track.trackId);
+        }
+    }
+
+    private void readCompositionOffsets(ByteBuffer moov, Box ctts, Track track) {
+        if (ctts == null) {
+            return;
+        }
+        int count = track.sizes.length;
+        track.compositionOffsets = new int[count];
+        int entries = moov.getInt(ctts.payload() + 4);
+        int sample = 0;
+        for (int entry = 0; entry < entries && sample < count; entry++) {
+            int run = moov.getInt(ctts.payload() + 8 + 8 * entry);
+            int offset = moov.getInt(ctts.payload() + 12 + 8 * entry);
+            for (int i = 0; i < run && sample < count; i++, sample++) {
+                track.compositionOffsets[sample] = offset;
+            }
+        }
+    }
+
+    private void readSyncSamples(ByteBuffer moov, Box stss, Track track) {
+        if (stss == null) {
+            // Every sample is a sync sample
+            return;
+        }
+        int count = track.sizes.length;
+        track.sync = new boolean[count];
+        int entries = moov.getInt(stss.payload() + 4);
+        for (int entry = 0; entry < entries; entry++) {
+            int sample = moov.getInt(stss.payload() + 8 + 4 * entry);
+            if (sample >= 1 && sample <= count) {
+                track.sync[sample - 1] = true;
+            }
+        }
+    }
+
+    /**
+     * Resolves each sample's file offset from its chunk ({@code stsc}) and the chunk offsets
+     * ({@code stco} or {@code co64}).
+     */
+    private void readOffsets(ByteBuffer moov, Box stbl, Track track, long fileSize) throws IOException {
+        Box stco = child(moov, stbl, "stco");
+        Box co64 = stco == null ? require(moov, stbl, "co64") : null;
+        Box chunkTable = stco != null ? stco : co64;
+        int chunkCount = moov.getInt(chunkTable.payload() + 4);
+        Box stsc = require(moov, stbl, "stsc");
+        int entries = moov.getInt(stsc.payload() + 4);
+
+        int count = track.sizes.length;
+        track.offsets = new long[count];
+        int sample = 0;
+        for (int entry = 0; entry < entries && sample < count; entry++) {
+            int firstChunk = moov.getInt(stsc.payload() + 8 + 12 * entry);
+            int samplesPerChunk = moov.getInt(stsc.payload() + 12 + 12 * entry);
+            int lastChunk = entry + 1 < entries ? moov.getInt(stsc.payload() + 8 + 12 * (entry + 1)) - 1 : chunkCount;
+            for (int chunk = firstChunk; chunk <= lastChunk && sample < count; chunk++) {
+                if (chunk < 1 || chunk > chunkCount) {
+                    throw new IOException("Corrupt sample-to-chunk table in track " + track.trackId);
+                }
+                long offset = stco != null
+                        ? Integer.toUnsignedLong(moov.getInt(stco.payload() + 4 + 4 * chunk))
+                        : moov.getLong(co64.payload() + 8 * chunk);
+                for (int i = 0; i < samplesPerChunk && sample < count; i++, sample++) {
+                    if (offset < 0 || offset + Integer.toUnsignedLong(track.sizes[sample]) > fileSize) {
+                        throw new IOException("Sample " + sample + " of track " + track.trackId + " is outside the file");
+                    }
+                    track.offsets[sample] = offset;
+                    offset += Integer.toUnsignedLong(track.sizes[sample]);
+                }
+            }
+        }
+        if (sample < count) {
+            throw new IOException("Incomplete sample-to-chunk table in track " + track.trackId);
+        }
+    }
+
+    /**
+     * Returns the start times of the segments in the reference track's timescale, followed by
+     * the end of the track.
+     */
+    private long[] segmentBoundaries(Track reference) {
+        long step = Math.max(1, Math.round(segmentDuration.toNanos() / 1e9 * reference.timescale));
+        List<Long> boundaries = new ArrayList<>();
+        long first = reference.decodeTimes[0];
+        boundaries.add(first);
+        long next = first + step;
+        for (int i = 1; i < reference.sizes.length; i++) {
+            long time = reference.decodeTimes[i];
+            if (time >= next && reference.isSync(i)) {
+                boundaries.add(time);
+                while (next <= time) {
+                    next += step;
+                }
+            }
+        }
+        int last = reference.sizes.length - 1;
+        boundaries.add(reference.decodeTimes[last] + Integer.toUnsignedLong(reference.durations[last]));
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Returns the index of the first sample of {@code track} in each segment, plus the sample
+     * count as the end of the last one.
+     */
+    private int[] segmentStarts(Track track, long referenceTimescale, long[] boundaries) {
+        int segments = boundaries.length - 1;
+        int[] starts = new int[segments + 1];
+        int sample = 0;
+        for (int segment = 1; segment < segments; segment++) {
+            // time / timescale < boundary / referenceTimescale, without rounding either side
+            while (sample < track.sizes.length && Math.multiplyExact(track.decodeTimes[sample], referenceTimescale)
+                    < Math.multiplyExact(boundaries[segment], track.timescale)) {
+                sample++;
+            }
+            starts[segment] = sample;
+        }
+        starts[segments] = track.sizes.length;
+        return starts;
+    }
+
+    /**
+     * Builds {@code ftyp} and a {@code moov} that describes the kept tracks with empty sample
+     * tables and announces the fragments in {@code mvex}.
+     */
+    private byte[] initSection(ByteBuffer moov, List<Track> tracks) throws IOException {
+        ByteArrayOutputStream ftyp = new ByteArrayOutputStream();
+        ftyp.writeBytes(fourCc("iso6"));
+        ftyp.writeBytes(intBytes(0));
+        for (String brand : new String[]{"iso6", "mp41"}) {
+            ftyp.writeBytes(fourCc(brand));
+        }
+
+        Box root = new Box("moov", 0, headerSize(moov, 0), moov.capacity());
+        ByteArrayOutputStream movie = new ByteArrayOutputStream();
+        movie.writeBytes(withoutDuration(moov, require(moov, root, "mvhd"), 16, 24));
+        ByteArrayOutputStream movieExtends = new ByteArrayOutputStream();
+        for (Track track : tracks) {
+            movie.writeBytes(fragmentedTrak(moov, track));
+            ByteBuffer trex = ByteBuffer.allocate(24);
+            trex.putInt(0).putInt(track.trackId).putInt(1).putInt(0).putInt(0).putInt(0);
+            movieExtends.writeBytes(box("trex", trex.array()));
+        }
+        movie.writeBytes(box("mvex", movieExtends.toByteArray()));
+
+        ByteArrayOutputStream init = new ByteArrayOutputStream();
+        init.writeBytes(box("ftyp", ftyp.toByteArray()));
+        init.writeBytes(box("moov", movie.toByteArray()));
+        return init.toByteArray();
+    }
+
+    private byte[] fragmentedTrak(ByteBuffer moov, Track track) throws IOException {
+        Box mdia = require(moov, track.trak, "mdia");
+        Box minf = require(moov, mdia, "minf");
+        Box stbl = require(moov, minf, "stbl");
+
+        ByteArrayOutputStream sampleTable = new ByteArrayOutputStream();
+        sampleTable.writeBytes(copy(moov, require(moov, stbl, "stsd")));
+        sampleTable.writeBytes(box("stts", new byte[8]));
+        sampleTable.writeBytes(box("stsc", new byte[8]));
+        sampleTable.writeBytes(box("stsz", new byte[12]));
+        sampleTable.writeBytes(box("stco", new byte[8]));
+
+        ByteArrayOutputStream mediaInformation = new ByteArrayOutputStream();
+        for (Box box : children(moov, minf)) {
+            mediaInformation.writeBytes(box.type().equals("stbl") ? box("stbl", sampleTable.toByteArray()) : copy(moov, box));
+        }
+
+        ByteArrayOutputStream media = new ByteArrayOutputStream();
+        media.writeBytes(withoutDuration(moov, require(moov, mdia, "mdhd"), 16, 24));
+        media.writeBytes(copy(moov, require(moov, mdia, "hdlr")));
+        media.writeBytes(box("minf", mediaInformation.toByteArray()));
+
+        ByteArrayOutputStream trak = new ByteArrayOutputStream();
+        trak.writeBytes(withoutDuration(moov, require(moov, track.trak, "tkhd"), 20, 28));
+        Box edts = child(moov, track.trak, "edts");
+        if (edts != null) {
+            // Edit lists carry the composition delay that B-frames introduce
+            trak.writeBytes(copy(moov, edts));
+        }
+        trak.writeBytes(box("mdia", media.toByteArray()));
+        return box("trak", trak.toByteArray());
+    }
+
+    private void writeSegment(FileChannel in, FileChannel out, List<Track> tracks, int segment) throws IOException {
+        long mediaSize = 0;
+        int moofSize = BOX_HEADER_SIZE + 16;
+        for (Track track : tracks) {
+            int samples = track.segmentStarts[segment + 1] - track.segmentStarts[segment];
+            if (samples > 0) {
+                moofSize += BOX_HEADER_SIZE + 16 + 20 + 20 + samples * (track.compositionOffsets != null ? 16 : 12);
+                for (int i = track.segmentStarts[segment]; i < track.segmentStarts[segment + 1]; i++) {
+                    mediaSize += Integer.toUnsignedLong(track.sizes[i]);
+                }
+            }
+        }
+        int mdatHeaderSize = mediaSize + BOX_HEADER_SIZE > 0xFFFFFFFFL ? 16 : BOX_HEADER_SIZE;
+
+        ByteBuffer moof = ByteBuffer.allocate(moofSize);
+        moof.putInt(moofSize).put(fourCc("moof"));
+        moof.putInt(16).put(fourCc("mfhd")).putInt(0).putInt(segment + 1);
+        long dataOffset = moofSize + mdatHeaderSize;
+        for (Track track : tracks) {
+            int start = track.segmentStarts[segment];
+            int samples = track.segmentStarts[segment + 1] - start;
+            if (samples == 0) {
+                continue;
+            }
+            boolean composition = track.compositionOffsets != null;
+            int trunSize = 20 + samples * (composition ? 16 : 12);
+            moof.putInt(BOX_HEADER_SIZE + 16 + 20 + trunSize).put(fourCc("traf"));
+            moof.putInt(16).put(fourCc("tfhd")).putInt(TFHD_DEFAULT_BASE_IS_MOOF).putInt(track.trackId);
+            moof.putInt(20).put(fourCc("tfdt")).putInt(1 << 24).putLong(track.decodeTimes[start]);
+            int flags = TRUN_DATA_OFFSET | TRUN_SAMPLE_DURATION | TRUN_SAMPLE_SIZE | TRUN_SAMPLE_FLAGS
+                    | (composition ? TRUN_COMPOSITION_OFFSET : 0);
+            // Version 1 makes composition offsets signed
+            moof.putInt(trunSize).put(fourCc("trun")).putInt((composition ? 1 << 24 : 0) | flags)
+                    .putInt(samples).putInt(Math.toIntExact(dataOffset));
+            for (int i = start; i < start + samples; i++) {
+                moof.putInt(track.durations[i]).putInt(track.sizes[i])
+                        .putInt(track.isSync(i) ? SYNC_SAMPLE_FLAGS : NON_SYNC_SAMPLE_FLAGS);
+                if (composition) {
+                    moof.putInt(track.compositionOffsets[i]);
+                }
+                dataOffset += Integer.toUnsignedLong(track.sizes[i]);
+            }
+        }
+        writeFully(out, moof.flip());
+
+        ByteBuffer mdat = ByteBuffer.allocate(mdatHeaderSize);
+        if (mdatHeaderSize == BOX_HEADER_SIZE) {
+            mdat.putInt((int) (mediaSize + BOX_HEADER_SIZE)).put(fourCc("mdat"));
+        } else {
+            mdat.putInt(1).put(fourCc("mdat")).putLong(mediaSize + mdatHeaderSize);
+        }
+        writeFully(out, mdat.flip());
+
+        for (Track track : tracks) {
+            int end = track.segmentStarts[segment + 1];
+            int i = track.segmentStarts[segment];
+            while (i < end) {
+                long offset = track.offsets[i];
+                long length = Integer.toUnsignedLong(track.sizes[i++]);
+                while (i < end && track.offsets[i] == offset + length) {
+                    length += Integer.toUnsignedLong(track.sizes[i++]);
+                }
+                transferFully(in, offset, length, out);
+            }
+        }
+    }
+
+    private byte[] withoutDuration(ByteBuffer moov, Box fullBox, int durationOffset, int longDurationOffset) {
+        byte[] copy = copy(moov, fullBox);
+        ByteBuffer buffer = ByteBuffer.wrap(copy);
+        int payload = fullBox.payload() - fullBox.start();
+        if (version(moov, fullBox) == 1) {
+            buffer.putLong(payload + longDurationOffset, 0);
+        } else {
+            buffer.putInt(payload + durationOffset, 0);
+        }
+        return copy;
+    }
+
+    private static byte[] copy(ByteBuffer moov, Box box) {
+        byte[] copy = new byte[box.end() - box.start()];
+        moov.get(box.start(), copy);
+        return copy;
+    }
+
+    private static byte[] box(String type, byte[] payload) {
+        ByteBuffer box = ByteBuffer.allocate(BOX_HEADER_SIZE + payload.length);
+        box.putInt(box.capacity()).put(fourCc(type)).put(payload);
+        return box.array();
+    }
+
+    private static byte[] fourCc(String type) {
+        return type.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] intBytes(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+
+    private static int version(ByteBuffer moov, Box fullBox) {
+        return moov.get(fullBox.payload());
+    }
+
+    private static int headerSize(ByteBuffer moov, int position) {
+        return moov.getInt(position) == 1 ? 16 : BOX_HEADER_SIZE;
+    }
+
+    private static List<Box> children(ByteBuffer moov, Box parent) throws IOException {
+        List<Box> children = new ArrayList<>();
+        int position = parent.payload();
+        while (position + BOX_HEADER_SIZE <= parent.end()) {
+            long size = Integer.toUnsignedLong(moov.getInt(position));
+            int headerSize = BOX_HEADER_SIZE;
+            if (size == 1) {
+                size = moov.getLong(position + BOX_HEADER_SIZE);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = parent.end() - position;
+            }
+            if (size < headerSize || position + size > parent.end()) {
+                throw new IOException("Corrupt MP4 box inside " + parent.type());
+            }
+            String type = new String(moov.array(), position + 4, 4, StandardCharsets.ISO_8859_1);
+            children.add(new Box(type, position, headerSize, (int) (position + size)));
+            position += (int) size;
+        }
+        return children;
+    }
+
+    private static Box child(ByteBuffer moov, Box parent, String type) throws IOException {
+        for (Box box : children(moov, parent)) {
+            if (box.type().equals(type)) {
+                return box;
+            }
+        }
+        return null;
+    }
+
+    private static Box require(ByteBuffer moov, Box parent, String type) throws IOException {
+        Box box = child(moov, parent, type);
+        if (box == null) {
+            throw new IOException("No " + type + " box inside " + parent.type());
+        }
+        return box;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("MP4 ended at offset " + (position + buffer.position()));
+            }
+        }
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void transferFully(FileChannel in, long position, long length, FileChannel out) throws IOException {
+        while (length > 0) {
+            long transferred = in.transferTo(position, length, out);
+            if (transferred <= 0) {
+                throw new EOFException("MP4 ended at offset " + position);
+            }
+            position += transferred;
+            length -= transferred;
+        }
+    }
+
+    /**
+     * A box inside the in-memory {@code moov}: where it starts, where its payload starts and
+     * where it ends.
+     */
+    private record Box(String type, int start, int headerSize, int end) {
+
+        int payload() {
+            return start + headerSize;
+        }
+    }
+
+    private static final class Track {
+
+        final Box trak;
+        final boolean video;
+        int trackId;
+        long timescale;
+        int[] sizes;
+        long[] offsets;
+        long[] decodeTimes;
+        int[] durations;
+        int[] compositionOffsets;
+        boolean[] sync;
+        int[] segmentStarts;
+
+        Track(Box trak, boolean video) {
+            this.trak = trak;
+            this.video = video;
+        }
+
+        boolean isVideo() {
+            return video;
+        }
+
+        boolean isSync(int sample) {
+            return sync == null || sync[sample];
+        }
+    }
+}
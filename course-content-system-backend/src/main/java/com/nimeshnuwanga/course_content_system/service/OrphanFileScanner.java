@@ -0,0 +1,80 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.storage.StorageBackend;
+import com.nimeshnuwanga.course_content_system.storage.StoredObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Periodically reconciles storage against the course_content table and deletes files no row
+ * references, such as those left behind when a crash separated a row delete from its file
+ * delete. Files younger than the minimum age are skipped so uploads in flight are never touched.
+ */
+@Service
+public class OrphanFileScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(OrphanFileScanner.class);
+    private static final int CHUNK_SIZE = 500;
+
+    private final StorageBackend storageBackend;
+    private final FileStorageService fileStorageService;
+    private final Duration minAge;
+
+    public OrphanFileScanner(StorageBackend storageBackend,
+                             FileStorageService fileStorageService,
+                             @Value("${file.orphan-scan.min-age:PT1H}") Duration minAge) {
+        this.storageBackend = storageBackend;
+        this.fileStorageService = fileStorageService;
+        this.minAge = minAge;
+    }
+
+    @Scheduled(fixedDelayString = "${file.orphan-scan.interval:PT24H}",
+            initialDelayString = "${file.orphan-scan.initial-delay:PT10M}")
+    public void scheduledScan() {
+        try {
+            int deleted = scan();
+            if (deleted > 0) {
+                log.info("Deleted {} orphaned files", deleted);
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Orphaned file scan failed", ex);
+        }
+    }
+
+    /**
+     * Returns how many orphaned files were deleted.
+     */
+    public int scan() throws IOException {
+        long cutoff = System.currentTimeMillis() - minAge.toMillis();
+        int deleted = 0;
+        List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (Stream<StoredObject> objects = storageBackend.list()) {
+            Iterator<StoredObject> iterator = objects.iterator();
+            while (iterator.hasNext()) {
+                StoredObject object = iterator.next();
+                if (object.lastModified() > cutoff) {
+                    continue;
+                }
+                chunk.add(object.key());
+                if (chunk.size() == CHUNK_SIZE) {
+                    deleted += fileStorageService.deleteOrphanedFiles(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            deleted += fileStorageService.deleteOrphanedFiles(chunk);
+        }
+        return deleted;
+    }
+}
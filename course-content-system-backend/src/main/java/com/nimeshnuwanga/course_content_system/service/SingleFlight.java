@@ -0,0 +1,64 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller runs the loader, and
+ * every caller that arrives while it is running waits for it and shares its result or exception.
+ * Nothing is kept once the call completes, so a later call loads again; results that should be
+ * reused belong in a cache in front of this.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception> {
+        V load() throws E;
+    }
+
+    public <E extends Exception> V execute(K key, Loader<V, E> loader) throws E {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            V value = loader.load();
+            call.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * Number of keys with a call in progress.
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> V await(CompletableFuture<V> call) throws E {
+        try {
+            return call.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            // The loader that failed could only throw E
+            throw (E) cause;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.nio.file.Path;
+
+/**
+ * An upload that has been written to the staging directory and hashed but not yet stored.
+ * {@code contentType} is the type verified from its leading bytes and {@code diskNanos} is the
+ * time spent writing and hashing it.
+ */
+public record StagedUpload(Path file, String contentHash, String fileName, String contentType, long fileSize,
+                           long diskNanos) {
+}
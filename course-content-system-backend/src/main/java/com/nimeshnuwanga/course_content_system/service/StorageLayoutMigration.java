@@ -0,0 +1,54 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.storage.LocalStorageBackend;
+import com.nimeshnuwanga.course_content_system.storage.StorageBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Moves files stored before the prefix-directory layout into it, in the background once the
+ * application is up. Stored keys (and so every fileUrl) stay the same, and the backend keeps
+ * reading from the old location until a file has been moved, so requests are served throughout.
+ * Once a run finds nothing left to move it only costs one listing of the upload directory, and
+ * it can be switched off with {@code file.storage.local.migrate-flat-layout=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.local.migrate-flat-layout", havingValue = "true", matchIfMissing = true)
+public class StorageLayoutMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageLayoutMigration.class);
+
+    private final StorageBackend storageBackend;
+
+    public StorageLayoutMigration(StorageBackend storageBackend) {
+        this.storageBackend = storageBackend;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        // Object stores have no directories to fan out
+        if (!(storageBackend instanceof LocalStorageBackend)) {
+            return;
+        }
+        Thread thread = new Thread(this::migrate, "storage-layout-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void migrate() {
+        try {
+            int moved = ((LocalStorageBackend) storageBackend).migrateFlatLayout();
+            if (moved > 0) {
+                log.info("Moved {} stored files into prefix directories", moved);
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not finish moving stored files into prefix directories; the next start resumes", ex);
+        }
+    }
+}
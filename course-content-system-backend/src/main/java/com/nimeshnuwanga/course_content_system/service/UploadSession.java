@@ -0,0 +1,155 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * State of one resumable upload. Chunks are written at their offset into a file preallocated
+ * to the final size, so chunks may arrive out of order and in parallel.
+ */
+public class UploadSession {
+
+    private final String id;
+    private final String fileName;
+    private final String contentType;
+    private final long fileSize;
+    private final Path partFile;
+    private final RandomAccessFile randomAccessFile;
+    private final TreeMap<Long, Long> receivedRanges = new TreeMap<>();
+    private final ReentrantLock rangesLock = new ReentrantLock();
+    private final ReentrantReadWriteLock lifecycleLock = new ReentrantReadWriteLock();
+    private volatile long lastActivity;
+    private boolean closed;
+
+    UploadSession(String id, String fileName, String contentType, long fileSize, Path partFile) throws IOException {
+        this.id = id;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.fileSize = fileSize;
+        this.partFile = partFile;
+        this.randomAccessFile = new RandomAccessFile(partFile.toFile(), "rw");
+        this.randomAccessFile.setLength(fileSize);
+        touch();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    Path getPartFile() {
+        return partFile;
+    }
+
+    FileChannel getChannel() {
+        return randomAccessFile.getChannel();
+    }
+
+    ReentrantReadWriteLock getLifecycleLock() {
+        return lifecycleLock;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void touch() {
+        lastActivity = System.currentTimeMillis();
+    }
+
+    /**
+     * Closes the backing file. Callers must hold the lifecycle write lock.
+     */
+    void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Records that bytes {@code [start, end)} have been written, merging with adjacent ranges.
+     */
+    void addReceivedRange(long start, long end) {
+        rangesLock.lock();
+        try {
+            long mergedStart = start;
+            long mergedEnd = end;
+            Map.Entry<Long, Long> floor = receivedRanges.floorEntry(start);
+            if (floor != null && floor.getValue() >= start) {
+                mergedStart = floor.getKey();
+                mergedEnd = Math.max(mergedEnd, floor.getValue());
+            }
+            Map.Entry<Long, Long> next = receivedRanges.ceilingEntry(mergedStart);
+            while (next != null && next.getKey() <= mergedEnd) {
+                mergedEnd = Math.max(mergedEnd, next.getValue());
+                receivedRanges.remove(next.getKey());
+                next = receivedRanges.ceilingEntry(mergedStart);
+            }
+            receivedRanges.put(mergedStart, mergedEnd);
+        } finally {
+            rangesLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the received byte ranges as inclusive {@code [first, last]} pairs.
+     */
+    public List<long[]> getReceivedRanges() {
+        rangesLock.lock();
+        try {
+            List<long[]> ranges = new ArrayList<>(receivedRanges.size());
+            receivedRanges.forEach((start, end) -> ranges.add(new long[]{start, end - 1}));
+            return ranges;
+        } finally {
+            rangesLock.unlock();
+        }
+    }
+
+    public long getReceivedBytes() {
+        rangesLock.lock();
+        try {
+            long total = 0;
+            for (Map.Entry<Long, Long> range : receivedRanges.entrySet()) {
+                total += range.getValue() - range.getKey();
+            }
+            return total;
+        } finally {
+            rangesLock.unlock();
+        }
+    }
+
+    public boolean isComplete() {
+        rangesLock.lock();
+        try {
+            return receivedRanges.size() == 1
+                    && receivedRanges.firstKey() == 0
+                    && receivedRanges.firstEntry().getValue() == fileSize;
+        } finally {
+            rangesLock.unlock();
+        }
+    }
+}
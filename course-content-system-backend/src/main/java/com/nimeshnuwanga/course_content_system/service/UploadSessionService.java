@@ -0,0 +1,234 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.exception.FileNotFoundException;
+import com.nimeshnuwanga.course_content_system.exception.FileStorageException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Resumable uploads: a session preallocates the final file, accepts chunks at arbitrary
+ * offsets (in parallel if the client wants) and only creates the CourseContent row once
+ * every byte has arrived. Sessions idle for longer than the configured timeout are removed.
+ */
+@Service
+public class UploadSessionService {
+
+    private static final String SESSION_DIRECTORY = ".sessions";
+    private static final String PART_SUFFIX = ".part";
+    private static final int CHUNK_BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private final Path sessionLocation;
+    private final FileStorageService fileStorageService;
+    private final Duration sessionTimeout;
+    private final int maxActiveSessions;
+
+    public UploadSessionService(@Value("${file.upload-dir}") String uploadDir,
+                                @Value("${file.upload-session.timeout:PT1H}") Duration sessionTimeout,
+                                @Value("${file.upload-session.max-active:200}") int maxActiveSessions,
+                                FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+        this.sessionTimeout = sessionTimeout;
+        this.maxActiveSessions = maxActiveSessions;
+        this.sessionLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(SESSION_DIRECTORY);
+
+        try {
+            Files.createDirectories(this.sessionLocation);
+            // Sessions only live in memory, so part files left by a previous run can never be completed
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(this.sessionLocation, "*" + PART_SUFFIX)) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the directory where upload sessions are stored.", ex);
+        }
+    }
+
+    public UploadSession createSession(String fileName, String contentType, long fileSize) {
+        if (fileSize <= 0) {
+            throw new IllegalArgumentException("Failed to store empty file");
+        }
+        String originalFileName = fileStorageService.validateUpload(fileName, fileSize);
+
+        if (sessions.size() >= maxActiveSessions) {
+            throw new FileStorageException("Too many uploads in progress. Please try again later.");
+        }
+
+        String sessionId = UUID.randomUUID().toString();
+        try {
+            UploadSession session = new UploadSession(sessionId, originalFileName, contentType, fileSize,
+                    sessionLocation.resolve(sessionId + PART_SUFFIX));
+            sessions.put(sessionId, session);
+            return session;
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not start upload of " + originalFileName + ". Please try again!", ex);
+        }
+    }
+
+    public UploadSession getSession(String sessionId) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new FileNotFoundException("Upload session not found " + sessionId);
+        }
+        return session;
+    }
+
+    /**
+     * Writes the bytes from {@code data} into the session file starting at {@code offset}.
+     * Chunks for the same session may be written concurrently; retried chunks simply
+     * overwrite the same bytes.
+     */
+    public UploadSession writeChunk(String sessionId, long offset, InputStream data, long declaredLength) {
+        UploadSession session = getSession(sessionId);
+
+        if (offset < 0 || offset >= session.getFileSize()) {
+            throw new IllegalArgumentException("Chunk offset " + offset + " is outside the file size " + session.getFileSize());
+        }
+        if (declaredLength > 0 && offset + declaredLength > session.getFileSize()) {
+            throw new IllegalArgumentException("Chunk ends beyond the file size " + session.getFileSize());
+        }
+
+        Lock lock = session.getLifecycleLock().readLock();
+        lock.lock();
+        try {
+            if (session.isClosed()) {
+                throw new FileNotFoundException("Upload session not found " + sessionId);
+            }
+            session.touch();
+
+            FileChannel channel = session.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BUFFER_SIZE);
+            long position = offset;
+            try (InputStream in = data) {
+                int read;
+                while ((read = in.read(buffer.array())) != -1) {
+                    if (position + read > session.getFileSize()) {
+                        throw new IllegalArgumentException("Chunk ends beyond the file size " + session.getFileSize());
+                    }
+                    buffer.clear().limit(read);
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                }
+            } catch (IOException ex) {
+                // Whatever was written before the failure is still recorded below so it can be resumed
+                recordChunk(session, offset, position);
+                throw new FileStorageException("Could not write chunk at offset " + offset + " for " + session.getFileName(), ex);
+            }
+
+            recordChunk(session, offset, position);
+            session.touch();
+            return session;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CourseContent completeSession(String sessionId) {
+        UploadSession session = getSession(sessionId);
+
+        Lock lock = session.getLifecycleLock().writeLock();
+        lock.lock();
+        try {
+            if (session.isClosed()) {
+                throw new FileNotFoundException("Upload session not found " + sessionId);
+            }
+            if (!session.isComplete()) {
+                throw new IllegalArgumentException("Upload is incomplete: received " + session.getReceivedBytes()
+                        + " of " + session.getFileSize() + " bytes");
+            }
+
+            try {
+                session.getChannel().force(false);
+                session.close();
+            } catch (IOException ex) {
+                throw new FileStorageException("Could not finish upload of " + session.getFileName(), ex);
+            }
+
+            sessions.remove(sessionId);
+            try {
+                return fileStorageService.storeAssembledFile(session.getPartFile(), session.getFileName(),
+                        session.getContentType());
+            } finally {
+                deleteQuietly(session.getPartFile());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void abortSession(String sessionId) {
+        UploadSession session = getSession(sessionId);
+
+        Lock lock = session.getLifecycleLock().writeLock();
+        lock.lock();
+        try {
+            discard(session);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${file.upload-session.cleanup-interval:PT5M}")
+    public void removeExpiredSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTimeout.toMillis();
+        for (UploadSession session : sessions.values()) {
+            if (session.getLastActivity() >= cutoff) {
+                continue;
+            }
+            // A chunk still being written keeps its session alive; it is checked again on the next run
+            Lock lock = session.getLifecycleLock().writeLock();
+            if (lock.tryLock()) {
+                try {
+                    discard(session);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void recordChunk(UploadSession session, long start, long end) {
+        if (end > start) {
+            session.addReceivedRange(start, end);
+        }
+    }
+
+    /**
+     * Drops a session and its part file. Callers must hold the session's lifecycle write lock.
+     */
+    private void discard(UploadSession session) {
+        sessions.remove(session.getId());
+        try {
+            session.close();
+        } catch (IOException ex) {
+            // The part file is removed below regardless
+        }
+        deleteQuietly(session.getPartFile());
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            // Best effort cleanup of an abandoned part file
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.nimeshnuwanga.course_content_system.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Keeps objects as plain files under one directory, fanned out into two levels of prefix
+ * directories ({@code ab/cd/abcd...pdf}) so no single directory grows large enough to slow down
+ * creates and lookups. Content-addressed keys start with their SHA-256, so the prefixes are
+ * spread evenly; other keys are placed by a hash of the key.
+ * <p>
+ * {@link #put} moves the source into place atomically, so it must be on the same volume (uploads
+ * are staged under the same directory). Objects written before the fan-out was introduced still
+ * sit directly in the root; they stay readable there until {@link #migrateFlatLayout()} moves
+ * them, so the migration can run while the application is serving requests.
+ */
+public class LocalStorageBackend implements StorageBackend {
+
+    private static final int SHARD_WIDTH = 2;
+
+    private final Path root;
+
+    public LocalStorageBackend(String directory) {
+        this.root = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = shardedPath(key);
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        FileChannel channel = openChannel(key);
+        try {
+            channel.position(offset);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+        InputStream in = Channels.newInputStream(channel);
+        return length < 0 ? in : new RangeInputStream(in, length);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(shardedPath(key));
+        Files.deleteIfExists(flatPath(key));
+    }
+
+    @Override
+    public StoredObject stat(String key) throws IOException {
+        BasicFileAttributes attributes = readAttributes(shardedPath(key));
+        if (attributes == null) {
+            attributes = readAttributes(flatPath(key));
+        }
+        if (attributes == null) {
+            // Moved by the migration between the two lookups
+            attributes = readAttributes(shardedPath(key));
+        }
+        if (attributes == null || !attributes.isRegularFile()) {
+            return null;
+        }
+        return new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Lists objects in the prefix directories and any not yet migrated out of the root. Staging
+     * areas such as {@code .incoming} are hidden directories and are skipped.
+     */
+    @Override
+    public Stream<StoredObject> list() throws IOException {
+        return Files.find(root, 3, (path, attributes) -> attributes.isRegularFile() && !isHidden(path))
+                .map(path -> {
+                    try {
+                        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                        return new StoredObject(path.getFileName().toString(), attributes.size(),
+                                attributes.lastModifiedTime().toMillis());
+                    } catch (IOException ex) {
+                        // Deleted since it was listed
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Path localPath(String key) {
+        Path sharded = shardedPath(key);
+        if (!Files.exists(sharded)) {
+            Path flat = flatPath(key);
+            if (Files.exists(flat)) {
+                return flat;
+            }
+        }
+        return sharded;
+    }
+
+    /**
+     * Moves objects still stored directly in the root into their prefix directories and returns
+     * how many were moved. Safe to run repeatedly and concurrently with reads and writes: each
+     * move is atomic, and an object already present at its new location is kept.
+     */
+    public int migrateFlatLayout() throws IOException {
+        int moved = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root, entry -> Files.isRegularFile(entry))) {
+            for (Path entry : entries) {
+                String key = entry.getFileName().toString();
+                // Staging areas such as .incoming are hidden directories, but skip stray hidden files too
+                if (key.startsWith(".")) {
+                    continue;
+                }
+                Path target = shardedPath(key);
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(entry, target, StandardCopyOption.ATOMIC_MOVE);
+                    moved++;
+                } catch (FileAlreadyExistsException ex) {
+                    // Identical content was stored again after the fan-out was introduced
+                    Files.deleteIfExists(entry);
+                } catch (NoSuchFileException ex) {
+                    // Deleted while the migration was running
+                }
+            }
+        }
+        return moved;
+    }
+
+    private FileChannel openChannel(String key) throws IOException {
+        try {
+            return FileChannel.open(shardedPath(key), StandardOpenOption.READ);
+        } catch (NoSuchFileException ex) {
+            try {
+                return FileChannel.open(flatPath(key), StandardOpenOption.READ);
+            } catch (NoSuchFileException flatMissing) {
+                // Moved by the migration between the two attempts
+                return FileChannel.open(shardedPath(key), StandardOpenOption.READ);
+            }
+        }
+    }
+
+    private boolean isHidden(Path path) {
+        for (Path segment : root.relativize(path)) {
+            if (segment.toString().startsWith(".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BasicFileAttributes readAttributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+    }
+
+    private Path shardedPath(String key) {
+        String prefix = shardPrefix(key);
+        return flatPath(key).resolveSibling(prefix.substring(0, SHARD_WIDTH))
+                .resolve(prefix.substring(SHARD_WIDTH, 2 * SHARD_WIDTH))
+                .resolve(key);
+    }
+
+    private Path flatPath(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!root.equals(path.getParent())) {
+            throw new IllegalArgumentException("Invalid storage key " + key);
+        }
+        return path;
+    }
+
+    private static String shardPrefix(String key) {
+        String prefix = key.length() >= 2 * SHARD_WIDTH ? key.substring(0, 2 * SHARD_WIDTH).toLowerCase() : "";
+        if (!prefix.isEmpty() && prefix.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            return prefix;
+        }
+        return HexFormat.of().toHexDigits(key.hashCode()).substring(0, 2 * SHARD_WIDTH);
+    }
+}
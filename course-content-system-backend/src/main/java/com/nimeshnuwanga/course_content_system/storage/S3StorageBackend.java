@@ -0,0 +1,227 @@
+package com.nimeshnuwanga.course_content_system.storage;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Keeps objects in an S3-compatible bucket (AWS S3, MinIO, Ceph RGW, ...), so every node behind
+ * the load balancer sees the same content. Files at or above the multipart threshold are sent as
+ * parts uploaded in parallel; each part is streamed from its slice of the source file, so memory
+ * use does not grow with file size and a failed part can be retried by re-reading the slice.
+ */
+public class S3StorageBackend implements StorageBackend, AutoCloseable {
+
+    private static final int HTTP_NOT_FOUND = 404;
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final long multipartThreshold;
+    private final long partSize;
+    private final ExecutorService partUploadExecutor;
+
+    public S3StorageBackend(S3Client s3Client, String bucket, long multipartThreshold, long partSize,
+                            int uploadConcurrency) {
+        if (partSize < 1) {
+            throw new IllegalArgumentException("Part size must be positive");
+        }
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.multipartThreshold = multipartThreshold;
+        this.partSize = partSize;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.partUploadExecutor = Executors.newFixedThreadPool(uploadConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "s3-part-upload-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        try {
+            if (size < multipartThreshold) {
+                s3Client.putObject(PutObjectRequest.builder().bucket(bucket).key(key).contentLength(size).build(),
+                        RequestBody.fromFile(source));
+            } else {
+                putMultipart(key, source, size);
+            }
+        } catch (SdkException ex) {
+            throw new IOException("Could not upload " + key + " to bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(key);
+        if (length == 0) {
+            return InputStream.nullInputStream();
+        }
+        if (offset > 0 || length > 0) {
+            request.range("bytes=" + offset + "-" + (length > 0 ? String.valueOf(offset + length - 1) : ""));
+        }
+        try {
+            return s3Client.getObject(request.build());
+        } catch (SdkException ex) {
+            if (isNotFound(ex)) {
+                throw new NoSuchFileException(key);
+            }
+            throw new IOException("Could not read " + key + " from bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (SdkException ex) {
+            throw new IOException("Could not delete " + key + " from bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public StoredObject stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return new StoredObject(key, head.contentLength(),
+                    head.lastModified() != null ? head.lastModified().toEpochMilli() : -1);
+        } catch (SdkException ex) {
+            if (isNotFound(ex)) {
+                return null;
+            }
+            throw new IOException("Could not read metadata of " + key + " from bucket " + bucket, ex);
+        }
+    }
+
+    /**
+     * Pages through the bucket as the stream is consumed.
+     */
+    @Override
+    public Stream<StoredObject> list() {
+        return s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder().bucket(bucket).build())
+                .contents()
+                .stream()
+                .map(object -> new StoredObject(object.key(), object.size(),
+                        object.lastModified() != null ? object.lastModified().toEpochMilli() : -1));
+    }
+
+    @Override
+    public void close() {
+        partUploadExecutor.shutdownNow();
+    }
+
+    private void putMultipart(String key, Path source, long size) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(
+                CreateMultipartUploadRequest.builder().bucket(bucket).key(key).build()).uploadId();
+        try {
+            int partCount = (int) ((size + partSize - 1) / partSize);
+            List<Future<CompletedPart>> uploads = new ArrayList<>(partCount);
+            for (int i = 0; i < partCount; i++) {
+                int partNumber = i + 1;
+                long offset = i * partSize;
+                long length = Math.min(partSize, size - offset);
+                uploads.add(partUploadExecutor.submit(() -> uploadPart(key, uploadId, partNumber, source, offset, length)));
+            }
+
+            List<CompletedPart> parts = new ArrayList<>(partCount);
+            for (Future<CompletedPart> upload : uploads) {
+                parts.add(upload.get());
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abortQuietly(key, uploadId);
+            throw new IOException("Interrupted while uploading " + key, ex);
+        } catch (ExecutionException ex) {
+            abortQuietly(key, uploadId);
+            throw new IOException("Could not upload part of " + key + " to bucket " + bucket, ex.getCause());
+        } catch (SdkException ex) {
+            abortQuietly(key, uploadId);
+            throw ex;
+        }
+    }
+
+    private CompletedPart uploadPart(String key, String uploadId, int partNumber, Path source,
+                                     long offset, long length) {
+        // The SDK reopens the stream when it retries a part
+        RequestBody body = RequestBody.fromContentProvider(() -> openSlice(source, offset, length), length,
+                "application/octet-stream");
+        String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength(length)
+                .build(), body).eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    private InputStream openSlice(Path source, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+            try {
+                channel.position(offset);
+            } catch (IOException ex) {
+                channel.close();
+                throw ex;
+            }
+            return new RangeInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void abortQuietly(String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket).key(key).uploadId(uploadId).build());
+        } catch (SdkException ex) {
+            // Incomplete uploads are also removed by the bucket's lifecycle rules
+        }
+    }
+
+    private boolean isNotFound(SdkException ex) {
+        return ex instanceof NoSuchKeyException
+                || ex instanceof S3Exception s3Exception && s3Exception.statusCode() == HTTP_NOT_FOUND;
+    }
+}
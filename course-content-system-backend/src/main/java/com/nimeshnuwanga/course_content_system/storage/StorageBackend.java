@@ -0,0 +1,53 @@
+package com.nimeshnuwanga.course_content_system.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Where stored files live. Keys are flat names such as {@code <sha256>.pdf}; objects are written
+ * once and never modified in place, so implementations need no read-your-writes guarantees
+ * beyond the single {@link #put} call.
+ * <p>
+ * Missing objects are reported as {@link java.nio.file.NoSuchFileException} by {@link #get} and
+ * as {@code null} by {@link #stat}.
+ */
+public interface StorageBackend {
+
+    /**
+     * Stores the contents of {@code source} under {@code key}, replacing any existing object.
+     * Implementations may move {@code source} rather than copy it, so callers must not rely on
+     * it still existing afterwards.
+     */
+    void put(String key, Path source) throws IOException;
+
+    /**
+     * Opens {@code length} bytes of the object starting at {@code offset}. A negative length
+     * reads to the end of the object.
+     */
+    InputStream get(String key, long offset, long length) throws IOException;
+
+    /**
+     * Deletes the object if it exists.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Returns the size and modification time of the object, or {@code null} if it does not exist.
+     */
+    StoredObject stat(String key) throws IOException;
+
+    /**
+     * Lists every stored object, lazily. The caller must close the stream.
+     */
+    Stream<StoredObject> list() throws IOException;
+
+    /**
+     * Returns the local file that backs {@code key}, or {@code null} when objects are not kept
+     * on this machine's file system. Callers use it to skip copying data they can read in place.
+     */
+    default Path localPath(String key) {
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.nimeshnuwanga.course_content_system.storage;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A stored object that is not on the local file system. Byte ranges are fetched directly with
+ * {@link #getInputStream(long, long)} instead of reading and discarding the preceding bytes.
+ */
+public class StorageBackendResource extends AbstractResource {
+
+    private final StorageBackend storageBackend;
+    private final StoredObject object;
+
+    public StorageBackendResource(StorageBackend storageBackend, StoredObject object) {
+        this.storageBackend = storageBackend;
+        this.object = object;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return storageBackend.get(object.key(), 0, -1);
+    }
+
+    /**
+     * Opens the bytes from {@code start} to {@code end}, both inclusive.
+     */
+    public InputStream getInputStream(long start, long end) throws IOException {
+        return storageBackend.get(object.key(), start, end - start + 1);
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return object.size();
+    }
+
+    @Override
+    public long lastModified() {
+        return object.lastModified();
+    }
+
+    @Override
+    public String getFilename() {
+        return object.key();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Stored object [" + object.key() + "]";
+    }
+}
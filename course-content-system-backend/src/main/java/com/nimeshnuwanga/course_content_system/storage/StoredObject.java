@@ -0,0 +1,8 @@
+package com.nimeshnuwanga.course_content_system.storage;
+
+/**
+ * Metadata of an object held by a {@link StorageBackend}. {@code lastModified} is in epoch
+ * milliseconds.
+ */
+public record StoredObject(String key, long size, long lastModified) {
+}
@@ -0,0 +1,105 @@
+package com.nimeshnuwanga.course_content_system;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application on the platform-thread pool and on virtual threads, then runs many
+ * concurrent uploads whose clients trickle the body in slowly. Each slow upload pins a platform
+ * thread for its whole duration, so the platform run takes several "waves" while the virtual
+ * thread run finishes in roughly one. Run with
+ * {@code ./mvnw test -Dbenchmark=true -Dtest=SlowUploadLoadBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SlowUploadLoadBenchmark {
+
+    private static final int CONCURRENT_UPLOADS = 400;
+    private static final int PLATFORM_THREADS = 50;
+    private static final int CHUNKS_PER_UPLOAD = 10;
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final long CHUNK_DELAY_MILLIS = 200;
+    // Each upload must open with a PDF signature to pass the type check
+    private static final byte[] PDF_HEADER = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path uploadDir;
+
+    @ParameterizedTest(name = "virtual threads: {0}")
+    @ValueSource(booleans = {false, true})
+    void concurrentSlowUploads(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CourseContentSystemApplication.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "file.upload-dir=" + uploadDir.resolve(String.valueOf(virtualThreads)))
+                .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            long start = System.nanoTime();
+            List<Future<Integer>> uploads = new ArrayList<>(CONCURRENT_UPLOADS);
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < CONCURRENT_UPLOADS; i++) {
+                    int uploadNumber = i;
+                    uploads.add(clients.submit(() -> slowUpload(port, uploadNumber)));
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            for (Future<Integer> upload : uploads) {
+                assertThat(upload.get()).isEqualTo(201);
+            }
+            System.out.printf("virtual threads: %-5s  %d slow uploads in %6.2f s  (%.1f uploads/s)%n",
+                    virtualThreads, CONCURRENT_UPLOADS, seconds, CONCURRENT_UPLOADS / seconds);
+        }
+    }
+
+    private int slowUpload(int port, int uploadNumber) throws IOException, InterruptedException {
+        HttpURLConnection connection = (HttpURLConnection) URI
+                .create("http://localhost:" + port + "/api/files/upload?fileName=lecture-" + uploadNumber + ".pdf")
+                .toURL().openConnection();
+        connection.setRequestMethod("PUT");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/pdf");
+        connection.setFixedLengthStreamingMode((long) CHUNKS_PER_UPLOAD * CHUNK_SIZE);
+
+        byte[] chunk = new byte[CHUNK_SIZE];
+        System.arraycopy(PDF_HEADER, 0, chunk, 0, PDF_HEADER.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            for (int i = 0; i < CHUNKS_PER_UPLOAD; i++) {
+                // Distinct content per upload so deduplication does not serialise them on one blob
+                chunk[PDF_HEADER.length] = (byte) uploadNumber;
+                chunk[PDF_HEADER.length + 1] = (byte) (uploadNumber >> 8);
+                chunk[PDF_HEADER.length + 2] = (byte) i;
+                out.write(chunk);
+                out.flush();
+                Thread.sleep(CHUNK_DELAY_MILLIS);
+            }
+        }
+        int status = connection.getResponseCode();
+        connection.disconnect();
+        return status;
+    }
+}
@@ -0,0 +1,118 @@
+package com.nimeshnuwanga.course_content_system.controller;
+
+import com.nimeshnuwanga.course_content_system.CourseContentSystemApplication;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Downloads whole files over HTTP from the running application with zero-copy on, where Tomcat
+ * sends single-part bodies with sendfile, and off, where they are copied through the servlet
+ * output stream. The hot file cache is disabled so every request reads the file. Run with
+ * {@code ./mvnw test -Dbenchmark=true -Dtest=DownloadThroughputBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DownloadThroughputBenchmark {
+
+    private static final int[] SIZES_IN_MB = {1, 10, 50};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final byte[] PDF_HEADER = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path uploadDir;
+
+    @ParameterizedTest(name = "zero-copy: {0}")
+    @ValueSource(booleans = {false, true})
+    void wholeFileDownloads(boolean zeroCopy) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CourseContentSystemApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:download-" + zeroCopy + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "file.download.zero-copy=" + zeroCopy,
+                        "file.download.cache.enabled=false",
+                        "file.upload-dir=" + uploadDir.resolve(String.valueOf(zeroCopy)))
+                .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            for (int sizeInMb : SIZES_IN_MB) {
+                byte[] content = new byte[sizeInMb * 1024 * 1024];
+                new Random(sizeInMb).nextBytes(content);
+                // Uploads must open with a signature matching their extension
+                System.arraycopy(PDF_HEADER, 0, content, 0, PDF_HEADER.length);
+                String fileName = sha256(content) + ".pdf";
+                assertThat(upload(port, content)).isEqualTo(201);
+
+                for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                    download(port, fileName, content.length);
+                }
+                long nanos = 0;
+                for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                    nanos += download(port, fileName, content.length);
+                }
+
+                System.out.printf("zero-copy: %-5s  %3d MB  %8.1f MB/s%n", zeroCopy, sizeInMb,
+                        (content.length * (double) MEASURED_ROUNDS / (1024 * 1024)) / (nanos / 1_000_000_000.0));
+            }
+        }
+    }
+
+    private int upload(int port, byte[] content) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI
+                .create("http://localhost:" + port + "/api/files/upload?fileName=lecture.pdf")
+                .toURL().openConnection();
+        connection.setRequestMethod("PUT");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/pdf");
+        connection.setFixedLengthStreamingMode(content.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(content);
+        }
+        int status = connection.getResponseCode();
+        connection.disconnect();
+        return status;
+    }
+
+    private long download(int port, String fileName, long expectedSize) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI
+                .create("http://localhost:" + port + "/api/files/download/" + fileName)
+                .toURL().openConnection();
+        byte[] buffer = new byte[256 * 1024];
+        long received = 0;
+        long start = System.nanoTime();
+        try (InputStream in = connection.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                received += read;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(received).isEqualTo(expectedSize);
+        return elapsed;
+    }
+
+    private static String sha256(byte[] content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -1,29 +1,49 @@
 package com.nimeshnuwanga.course_content_system.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentPage;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
 import com.nimeshnuwanga.course_content_system.entity.CourseContent;
 import com.nimeshnuwanga.course_content_system.exception.FileNotFoundException;
 import com.nimeshnuwanga.course_content_system.exception.FileStorageException;
+import com.nimeshnuwanga.course_content_system.service.BatchUploadResult;
+import com.nimeshnuwanga.course_content_system.service.BatchUploadService;
+import com.nimeshnuwanga.course_content_system.service.ContentCompressor;
+import com.nimeshnuwanga.course_content_system.service.ContentSearchService;
 import com.nimeshnuwanga.course_content_system.service.FileStorageService;
+import com.nimeshnuwanga.course_content_system.service.FileTransferMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -38,10 +58,23 @@ class FileControllerTest {
     @MockitoBean
     private FileStorageService fileStorageService;
 
+    @MockitoBean
+    private BatchUploadService batchUploadService;
+
+    @MockitoBean
+    private ContentSearchService contentSearchService;
+
+    @MockitoBean
+    private ContentCompressor contentCompressor;
+
+    @MockitoBean
+    private FileTransferMetrics fileTransferMetrics;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private CourseContent courseContent;
+    private CourseContentSummary courseContentSummary;
     private MockMultipartFile mockFile;
 
     @BeforeEach
@@ -54,6 +87,9 @@ class FileControllerTest {
         courseContent.setUploadDate(LocalDateTime.now());
         courseContent.setFileUrl("uuid-test-document.pdf");
 
+        courseContentSummary = new CourseContentSummary(1L, "test-document.pdf", "application/pdf",
+                1024000L, courseContent.getUploadDate(), "uuid-test-document.pdf");
+
         mockFile = new MockMultipartFile(
                 "file",
                 "test-document.pdf",
@@ -81,6 +117,45 @@ class FileControllerTest {
         verify(fileStorageService, times(1)).storeFile(any());
     }
 
+    @Test
+    void uploadFiles_AllStored_ReturnsCreated() throws Exception {
+        when(batchUploadService.storeFiles(anyList()))
+                .thenReturn(List.of(new BatchUploadResult("test-document.pdf", courseContent, null)));
+
+        mockMvc.perform(multipart("/api/files/upload/batch")
+                        .file(new MockMultipartFile("files", "test-document.pdf", "application/pdf", "PDF".getBytes())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.stored").value(1))
+                .andExpect(jsonPath("$.failed").value(0))
+                .andExpect(jsonPath("$.files[0].status").value(201))
+                .andExpect(jsonPath("$.files[0].file.id").value(1))
+                .andExpect(jsonPath("$.files[0].file.fileUrl").value(containsString("/api/files/download/")));
+    }
+
+    @Test
+    void uploadFiles_PartialFailure_ReportsEachFile() throws Exception {
+        when(batchUploadService.storeFiles(anyList())).thenReturn(List.of(
+                new BatchUploadResult("test-document.pdf", courseContent, null),
+                new BatchUploadResult("notes.txt", null,
+                        new IllegalArgumentException("Invalid file type. Only PDF, MP4, JPG, JPEG, and PNG files are allowed")),
+                new BatchUploadResult("lecture.mp4", null, new FileStorageException("Could not store file lecture.mp4"))));
+
+        mockMvc.perform(multipart("/api/files/upload/batch")
+                        .file(new MockMultipartFile("files", "test-document.pdf", "application/pdf", "PDF".getBytes()))
+                        .file(new MockMultipartFile("files", "notes.txt", "text/plain", "text".getBytes()))
+                        .file(new MockMultipartFile("files", "lecture.mp4", "video/mp4", "MP4".getBytes())))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.stored").value(1))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.files", hasSize(3)))
+                .andExpect(jsonPath("$.files[0].status").value(201))
+                .andExpect(jsonPath("$.files[1].fileName").value("notes.txt"))
+                .andExpect(jsonPath("$.files[1].status").value(400))
+                .andExpect(jsonPath("$.files[1].error.message").value("Invalid Request"))
+                .andExpect(jsonPath("$.files[2].status").value(500))
+                .andExpect(jsonPath("$.files[2].error.message").value("File Storage Error"));
+    }
+
     @Test
     void uploadFile_InvalidFileType() throws Exception {
 
@@ -150,18 +225,49 @@ class FileControllerTest {
         verify(fileStorageService, times(1)).storeFile(any());
     }
 
+    @Test
+    void uploadFileStream_Success() throws Exception {
+
+        byte[] body = "Test PDF content".getBytes();
+        when(fileStorageService.storeFile(any(InputStream.class), eq("test-document.pdf"), eq("application/pdf"), eq((long) body.length)))
+                .thenReturn(courseContent);
+
+        mockMvc.perform(put("/api/files/upload")
+                        .param("fileName", "test-document.pdf")
+                        .contentType("application/pdf")
+                        .content(body))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.fileName").value("test-document.pdf"))
+                .andExpect(jsonPath("$.fileUrl").value(containsString("/api/files/download/")));
+
+        verify(fileStorageService, times(1))
+                .storeFile(any(InputStream.class), eq("test-document.pdf"), eq("application/pdf"), eq((long) body.length));
+    }
+
+    @Test
+    void uploadFileStream_InvalidFileType() throws Exception {
+
+        when(fileStorageService.storeFile(any(InputStream.class), anyString(), any(), anyLong()))
+                .thenThrow(new IllegalArgumentException("Invalid file type. Only PDF, MP4, JPG, JPEG, and PNG files are allowed"));
+
+        mockMvc.perform(put("/api/files/upload")
+                        .param("fileName", "notes.txt")
+                        .contentType("text/plain")
+                        .content("plain text"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details").value(containsString("Invalid file type")));
+    }
+
     @Test
     void getAllFiles_Success() throws Exception {
 
-        CourseContent courseContent2 = new CourseContent();
-        courseContent2.setId(2L);
-        courseContent2.setFileName("test-video.mp4");
-        courseContent2.setFileType("video/mp4");
-        courseContent2.setFileSize(5120000L);
-        courseContent2.setUploadDate(LocalDateTime.now());
-        courseContent2.setFileUrl("uuid-test-video.mp4");
+        CourseContentSummary courseContent2 = new CourseContentSummary(2L, "test-video.mp4", "video/mp4",
+                5120000L, LocalDateTime.now(), "uuid-test-video.mp4");
 
-        List<CourseContent> fileList = Arrays.asList(courseContent, courseContent2);
+        List<CourseContentSummary> fileList = Arrays.asList(courseContentSummary, courseContent2);
         when(fileStorageService.getAllFiles()).thenReturn(fileList);
 
 
@@ -173,7 +279,8 @@ class FileControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].fileName").value("test-document.pdf"))
                 .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].fileName").value("test-video.mp4"));
+                .andExpect(jsonPath("$[1].fileName").value("test-video.mp4"))
+                .andExpect(jsonPath("$[1].fileUrl").value(containsString("/api/files/download/uuid-test-video.mp4")));
 
         verify(fileStorageService, times(1)).getAllFiles();
     }
@@ -193,10 +300,143 @@ class FileControllerTest {
         verify(fileStorageService, times(1)).getAllFiles();
     }
 
+    @Test
+    void getFilesPage_ReturnsItemsAndNextCursor() throws Exception {
+
+        when(fileStorageService.getFilesPage(null, 20))
+                .thenReturn(new CourseContentPage(List.of(courseContentSummary), "next-cursor"));
+
+        mockMvc.perform(get("/api/files")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].fileUrl").value(containsString("/api/files/download/uuid-test-document.pdf")))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+
+        verify(fileStorageService, times(1)).getFilesPage(null, 20);
+    }
+
+    @Test
+    void getFilesPage_WithCursorAndSize_PassesThem() throws Exception {
+
+        when(fileStorageService.getFilesPage("abc", 5)).thenReturn(new CourseContentPage(List.of(), null));
+
+        mockMvc.perform(get("/api/files")
+                        .param("cursor", "abc")
+                        .param("size", "5"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(fileStorageService, times(1)).getFilesPage("abc", 5);
+    }
+
+    @Test
+    void exportFiles_StreamsJsonArray() throws Exception {
+        stubExport();
+
+        mockMvc.perform(get("/api/files/export"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].fileUrl").value(containsString("/api/files/download/uuid-week2.pdf")));
+    }
+
+    @Test
+    void exportFiles_NdjsonAccepted_StreamsOneObjectPerLine() throws Exception {
+        stubExport();
+
+        String body = mockMvc.perform(get("/api/files/export")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(body).endsWith("\n");
+        assertThat(objectMapper.readTree(lines[0]).get("fileName").asText()).isEqualTo("test-document.pdf");
+        assertThat(objectMapper.readTree(lines[1]).get("id").asLong()).isEqualTo(2L);
+    }
+
+    @Test
+    void exportFiles_FailsAfterFirstRow_ReturnsErrorInsteadOfShortArray() throws Exception {
+        when(fileStorageService.forEachFile(any())).thenAnswer(invocation -> {
+            Consumer<CourseContentSummary> action = invocation.getArgument(0);
+            action.accept(courseContentSummary);
+            throw new DataAccessResourceFailureException("Connection lost");
+        });
+
+        mockMvc.perform(get("/api/files/export"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value("Internal Server Error"))
+                .andExpect(content().string(not(containsString("test-document.pdf"))));
+    }
+
+    @Test
+    void exportFiles_FailsAfterResponseCommitted_LeavesArrayUnterminated() {
+        CourseContentSummary large = new CourseContentSummary(3L, "x".repeat(20_000) + ".pdf", "application/pdf",
+                1L, courseContent.getUploadDate(), "uuid-large.pdf");
+        when(fileStorageService.forEachFile(any())).thenAnswer(invocation -> {
+            Consumer<CourseContentSummary> action = invocation.getArgument(0);
+            action.accept(large);
+            throw new DataAccessResourceFailureException("Connection lost");
+        });
+
+        // The failure reaches the container, which drops the connection mid-body
+        assertThatThrownBy(() -> mockMvc.perform(get("/api/files/export")))
+                .hasRootCauseInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubExport() {
+        CourseContentSummary second = new CourseContentSummary(2L, "week2.pdf", "application/pdf", 2048L,
+                courseContent.getUploadDate(), "uuid-week2.pdf");
+        when(fileStorageService.forEachFile(any())).thenAnswer(invocation -> {
+            Consumer<CourseContentSummary> action = invocation.getArgument(0);
+            action.accept(courseContentSummary);
+            action.accept(second);
+            return 2L;
+        });
+    }
+
+    @Test
+    void searchFiles_ReturnsMatchingPage() throws Exception {
+
+        when(contentSearchService.search("test doc", "abc", 5))
+                .thenReturn(new CourseContentPage(List.of(courseContentSummary), "next-cursor"));
+
+        mockMvc.perform(get("/api/files/search")
+                        .param("q", "test doc")
+                        .param("cursor", "abc")
+                        .param("size", "5"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].fileUrl").value(containsString("/api/files/download/uuid-test-document.pdf")))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+    }
+
+    @Test
+    void searchFiles_BlankQuery_ReturnsBadRequest() throws Exception {
+
+        when(contentSearchService.search(" ", null, 20))
+                .thenThrow(new IllegalArgumentException("Search query must not be empty"));
+
+        mockMvc.perform(get("/api/files/search")
+                        .param("q", " "))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getFileById_Success() throws Exception {
 
-        when(fileStorageService.getFileById(1L)).thenReturn(courseContent);
+        when(fileStorageService.getFileById(1L)).thenReturn(courseContentSummary);
 
 
         mockMvc.perform(get("/api/files/1")
@@ -206,7 +446,8 @@ class FileControllerTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.fileName").value("test-document.pdf"))
                 .andExpect(jsonPath("$.fileType").value("application/pdf"))
-                .andExpect(jsonPath("$.fileSize").value(1024000));
+                .andExpect(jsonPath("$.fileSize").value(1024000))
+                .andExpect(jsonPath("$.fileUrl").value(containsString("/api/files/download/uuid-test-document.pdf")));
 
         verify(fileStorageService, times(1)).getFileById(1L);
     }
@@ -228,6 +469,69 @@ class FileControllerTest {
         verify(fileStorageService, times(1)).getFileById(999L);
     }
 
+    @Test
+    void getFileById_MatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+
+        when(fileStorageService.getFileById(1L)).thenReturn(courseContentSummary);
+
+        String eTag = mockMvc.perform(get("/api/files/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/files/1")
+                        .header("If-None-Match", eTag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getAllFiles_ListChanged_ETagNoLongerMatches() throws Exception {
+
+        when(fileStorageService.getAllFiles()).thenReturn(List.of(courseContentSummary));
+
+        String eTag = mockMvc.perform(get("/api/files/all"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/files/all")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        CourseContentSummary courseContent2 = new CourseContentSummary(2L, "test-video.mp4", "video/mp4",
+                5120000L, LocalDateTime.now(), "uuid-test-video.mp4");
+        when(fileStorageService.getAllFiles()).thenReturn(List.of(courseContent2, courseContentSummary));
+
+        mockMvc.perform(get("/api/files/all")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void getAllFiles_TypeRedetected_ETagNoLongerMatches() throws Exception {
+
+        when(fileStorageService.getAllFiles()).thenReturn(List.of(courseContentSummary));
+
+        String eTag = mockMvc.perform(get("/api/files/all"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Same id and status, only the type differs
+        CourseContentSummary redetected = new CourseContentSummary(courseContentSummary.id(),
+                courseContentSummary.fileName(), "application/octet-stream", courseContentSummary.fileSize(),
+                courseContentSummary.uploadDate(), courseContentSummary.fileUrl());
+        when(fileStorageService.getAllFiles()).thenReturn(List.of(redetected));
+
+        mockMvc.perform(get("/api/files/all")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].fileType").value("application/octet-stream"));
+    }
+
     @Test
     void downloadFile_Success() throws Exception {
 
@@ -240,11 +544,212 @@ class FileControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(header().exists("Content-Disposition"))
-                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM));
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF));
 
         verify(fileStorageService, times(1)).loadFileAsResource("uuid-test-document.pdf");
     }
 
+    @Test
+    void downloadFile_SingleRange_ReturnsPartialContent() throws Exception {
+
+        Resource resource = new ByteArrayResource("Test PDF content".getBytes());
+        when(fileStorageService.loadFileAsResource(anyString())).thenReturn(resource);
+
+        mockMvc.perform(get("/api/files/download/uuid-test-document.pdf")
+                        .header("Range", "bytes=0-3"))
+                .andDo(print())
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("Content-Range", "bytes 0-3/16"))
+                .andExpect(content().string("Test"));
+    }
+
+    @Test
+    void downloadFile_RecordsBytesSent(@TempDir Path tempDir) throws Exception {
+
+        Path file = tempDir.resolve("uuid-test-video.mp4");
+        Files.write(file, "Test video content".getBytes());
+        when(fileStorageService.loadFileAsResource(anyString())).thenReturn(new FileSystemResource(file));
+
+        mockMvc.perform(get("/api/files/download/uuid-test-video.mp4")
+                        .header("Range", "bytes=5-9"))
+                .andExpect(status().isPartialContent());
+
+        verify(fileTransferMetrics).downloadStarted();
+        verify(fileTransferMetrics).recordDownload(eq("mp4"), eq(5L), anyLong());
+        verify(fileTransferMetrics).downloadFinished();
+    }
+
+    @Test
+    void downloadFile_SuffixRange_ReturnsTail() throws Exception {
+
+        Resource resource = new ByteArrayResource("Test PDF content".getBytes());
+        when(fileStorageService.loadFileAsResource(anyString())).thenReturn(resource);
+
+        mockMvc.perform(get("/api/files/download/uuid-test-document.pdf")
+                        .header("Range", "bytes=-7"))
+                .andDo(print())
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 9-15/16"))
+                .andExpect(content().string("content"));
+    }
+
+    @Test
+    void downloadFile_MultipleRanges_ReturnsMultipartByteranges() throws Exception {
+
+        Resource resource = new ByteArrayResource("Test PDF content".getBytes());
+        when(fileStorageService.loadFileAsResource(anyString())).thenReturn(resource);
+
+        mockMvc.perform(get("/api/files/download/uuid-test-document.pdf")
+                        .header("Range", "bytes=0-3,9-15"))
+                .andDo(print())
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Type", containsString("multipart/byteranges")))
+                .andExpect(content().string(containsString("Content-Range: bytes 0-3/16")))
+                .andExpect(content().string(containsString("Content-Range: bytes 9-15/16")));
+    }
+
+    @Test
+    void downloadFile_UnsatisfiableRange_Returns416() throws Exception {
+
+        Resource resource = new ByteArrayResource("Test PDF content".getBytes());
+        when(fileStorageService.loadFileAsResource(anyString())).thenReturn(resource);
+
+        mockMvc.perform(get("/api/files/download/uuid-test-document.pdf")
+                        .header("Range", "bytes=100-200"))
+                .andDo(print())
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */16"));
+    }
+
+    @Test
+    void downloadFile_IfRangeMismatch_ReturnsFullContent() throws Exception {
+
+        Resource resource = new ByteArrayResource("Test PDF content".getBytes());
+        when(fileStorageService.loadFileAsResource(anyString())).thenReturn(resource);
+
+        mockMvc.perform(get("/api/files/download/uuid-test-document.pdf")
+                        .header("Range", "bytes=0-3")
+                        .header("If-Range", "\"stale-etag\""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string("Test PDF content"));
+    }
+
+    @Test
+    void downloadFile_ContentAddressedFile_NotModifiedByHashETag(@TempDir Path tempDir) throws Exception {
+
+        String hash = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+        Path file = tempDir.resolve(hash + ".pdf");
+        Files.write(file, "Test PDF content".getBytes());
+        when(fileStorageService.loadFileAsResource(anyString())).thenReturn(new FileSystemResource(file));
+
+        mockMvc.perform(get("/api/files/download/" + hash + ".pdf")
+                        .header("If-None-Match", "\"" + hash + "\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"" + hash + "\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void downloadFile_AcceptsGzip_SendsPrecompressedVariant(@TempDir Path tempDir) throws Exception {
+
+        String hash = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+        Path file = Files.write(tempDir.resolve(hash + ".pdf"), "Test PDF content".getBytes());
+        Path variant = Files.write(tempDir.resolve(hash + ".pdf.gz"), "gzip".getBytes());
+        when(fileStorageService.loadFileAsResource(hash + ".pdf")).thenReturn(new FileSystemResource(file));
+        when(fileStorageService.loadGzipVariantAsResource(hash + ".pdf")).thenReturn(new FileSystemResource(variant));
+        when(contentCompressor.isCompressible(hash + ".pdf")).thenReturn(true);
+
+        mockMvc.perform(get("/api/files/download/" + hash + ".pdf")
+                        .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().string("ETag", "\"" + hash + "-gzip\""))
+                .andExpect(header().string("Content-Disposition", containsString(hash + ".pdf\"")))
+                .andExpect(header().longValue("Content-Length", 4))
+                .andExpect(content().string("gzip"));
+    }
+
+    @Test
+    void downloadFile_RangeOrNoGzip_SendsUncompressedFile() throws Exception {
+
+        when(fileStorageService.loadFileAsResource(anyString()))
+                .thenReturn(new ByteArrayResource("Test PDF content".getBytes()));
+        when(contentCompressor.isCompressible("uuid-test-document.pdf")).thenReturn(true);
+
+        mockMvc.perform(get("/api/files/download/uuid-test-document.pdf")
+                        .header("Accept-Encoding", "gzip")
+                        .header("Range", "bytes=0-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(content().string("Test"));
+
+        mockMvc.perform(get("/api/files/download/uuid-test-document.pdf")
+                        .header("Accept-Encoding", "gzip;q=0, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("Test PDF content"));
+
+        verify(fileStorageService, never()).loadGzipVariantAsResource(anyString());
+    }
+
+    @Test
+    void downloadFile_NotModifiedSince_ReturnsNotModified(@TempDir Path tempDir) throws Exception {
+
+        Path file = tempDir.resolve("uuid-test-document.pdf");
+        Files.write(file, "Test PDF content".getBytes());
+        when(fileStorageService.loadFileAsResource(anyString())).thenReturn(new FileSystemResource(file));
+
+        mockMvc.perform(get("/api/files/download/uuid-test-document.pdf")
+                        .header("If-Modified-Since", Files.getLastModifiedTime(file).toMillis() + 60_000))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/files/download/uuid-test-document.pdf")
+                        .header("If-Modified-Since", Files.getLastModifiedTime(file).toMillis() - 60_000))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Test PDF content"));
+    }
+
+    @Test
+    void downloadFile_SendfileSupported_HandsFileToContainer(@TempDir Path tempDir) throws Exception {
+
+        Path file = tempDir.resolve("uuid-test-video.mp4");
+        Files.write(file, "Test video content".getBytes());
+        when(fileStorageService.loadFileAsResource(anyString())).thenReturn(new FileSystemResource(file));
+
+        mockMvc.perform(get("/api/files/download/uuid-test-video.mp4")
+                        .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE)
+                        .header("Range", "bytes=5-9"))
+                .andDo(print())
+                .andExpect(status().isPartialContent())
+                .andExpect(header().longValue("Content-Length", 5))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", file.toFile().getCanonicalPath()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 5L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 10L))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void downloadFile_LocalFileWithoutSendfile_StreamsRange(@TempDir Path tempDir) throws Exception {
+
+        Path file = tempDir.resolve("uuid-test-video.mp4");
+        Files.write(file, "Test video content".getBytes());
+        when(fileStorageService.loadFileAsResource(anyString())).thenReturn(new FileSystemResource(file));
+
+        mockMvc.perform(get("/api/files/download/uuid-test-video.mp4")
+                        .header("Range", "bytes=5-9"))
+                .andDo(print())
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("video"));
+    }
+
     @Test
     void downloadFile_NotFound() throws Exception {
 
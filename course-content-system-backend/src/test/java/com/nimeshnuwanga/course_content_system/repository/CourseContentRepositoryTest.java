@@ -1,19 +1,24 @@
 package com.nimeshnuwanga.course_content_system.repository;
 
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
 import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.entity.ProcessingStatus;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
 class CourseContentRepositoryTest {
 
     @Autowired
@@ -110,6 +115,68 @@ class CourseContentRepositoryTest {
         assertThat(orderedContent.get(2).getFileName()).isEqualTo("document1.pdf"); // Oldest
     }
 
+    @Test
+    void findAllSummaries_ReturnsUnmanagedProjections() {
+        entityManager.persist(courseContent1);
+        entityManager.persist(courseContent2);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<CourseContentSummary> summaries = courseContentRepository.findAllSummaries();
+
+        assertThat(summaries).extracting(CourseContentSummary::fileName)
+                .containsExactlyInAnyOrder("video.mp4", "document1.pdf");
+        assertThat(summaries).extracting(CourseContentSummary::fileUrl)
+                .containsExactlyInAnyOrder("uuid-video.mp4", "uuid-document1.pdf");
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void findSummaryById_ExistingContent_ReturnsProjection() {
+        CourseContent saved = entityManager.persistAndFlush(courseContent1);
+        entityManager.clear();
+
+        Optional<CourseContentSummary> found = courseContentRepository.findSummaryById(saved.getId());
+
+        assertThat(found).isPresent();
+        assertThat(found.get().fileName()).isEqualTo("document1.pdf");
+        assertThat(found.get().fileSize()).isEqualTo(1024000L);
+    }
+
+    @Test
+    void findFirstPage_ReturnsNewestFirstUpToLimit() {
+        entityManager.persist(courseContent1);
+        entityManager.persist(courseContent2);
+        entityManager.persist(courseContent3);
+        entityManager.flush();
+
+        List<CourseContentSummary> page = courseContentRepository.findFirstPage(Limit.of(2));
+
+        assertThat(page).extracting(CourseContentSummary::fileName)
+                .containsExactly("image.jpg", "video.mp4");
+    }
+
+    @Test
+    void findPageAfter_SameUploadDate_UsesIdAsTieBreaker() {
+        CourseContent first = entityManager.persist(courseContent1);
+        CourseContent second = entityManager.persist(courseContent2);
+        CourseContent third = entityManager.persist(courseContent3);
+        entityManager.flush();
+
+        LocalDateTime sameTime = LocalDateTime.now().withNano(0);
+        first.setUploadDate(sameTime);
+        second.setUploadDate(sameTime);
+        third.setUploadDate(sameTime.minusMinutes(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<CourseContentSummary> page = courseContentRepository.findPageAfter(sameTime, second.getId(), Limit.of(10));
+
+        assertThat(page).extracting(CourseContentSummary::fileName)
+                .containsExactly("document1.pdf", "image.jpg");
+        assertThat(page.get(0).id()).isEqualTo(first.getId());
+    }
+
     @Test
     void delete_ExistingContent_Success() {
 
@@ -188,4 +255,146 @@ class CourseContentRepositoryTest {
         List<CourseContent> allContent = courseContentRepository.findAll();
         assertThat(allContent).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateProcessingStatus_ClaimsPendingRowOnlyOnce() {
+        courseContent1.setProcessingStatus(ProcessingStatus.PENDING);
+        CourseContent saved = entityManager.persistAndFlush(courseContent1);
+
+        assertThat(courseContentRepository.findIdsByProcessingStatus(ProcessingStatus.PENDING, Limit.of(10)))
+                .containsExactly(saved.getId());
+        assertThat(courseContentRepository.updateProcessingStatus(saved.getId(), ProcessingStatus.PENDING,
+                ProcessingStatus.PROCESSING, LocalDateTime.now())).isEqualTo(1);
+        assertThat(courseContentRepository.updateProcessingStatus(saved.getId(), ProcessingStatus.PENDING,
+                ProcessingStatus.PROCESSING, LocalDateTime.now())).isZero();
+    }
+
+    @Test
+    void updateStaleProcessingStatus_LeavesRecentClaims() {
+        LocalDateTime now = LocalDateTime.now();
+        courseContent1.setProcessingStatus(ProcessingStatus.PROCESSING);
+        courseContent1.setProcessingClaimedDate(now.minusHours(2));
+        courseContent2.setProcessingStatus(ProcessingStatus.PROCESSING);
+        courseContent2.setProcessingClaimedDate(now.minusMinutes(5));
+        // Claimed before claims were dated
+        courseContent3.setProcessingStatus(ProcessingStatus.PROCESSING);
+        CourseContent stale = entityManager.persist(courseContent1);
+        CourseContent recent = entityManager.persist(courseContent2);
+        CourseContent undated = entityManager.persist(courseContent3);
+        entityManager.flush();
+
+        int released = courseContentRepository.updateStaleProcessingStatus(ProcessingStatus.PROCESSING,
+                ProcessingStatus.PENDING, now.minusHours(1));
+
+        assertThat(released).isEqualTo(2);
+        assertThat(courseContentRepository.findIdsByProcessingStatus(ProcessingStatus.PENDING, Limit.of(10)))
+                .containsExactlyInAnyOrder(stale.getId(), undated.getId());
+        assertThat(courseContentRepository.findIdsByProcessingStatus(ProcessingStatus.PROCESSING, Limit.of(10)))
+                .containsExactly(recent.getId());
+    }
+
+    @Test
+    void saveProcessingResult_VisibleInSummary() {
+        courseContent3.setProcessingStatus(ProcessingStatus.PROCESSING);
+        CourseContent saved = entityManager.persistAndFlush(courseContent3);
+        LocalDateTime processedDate = LocalDateTime.now();
+
+        courseContentRepository.saveProcessingResult(saved.getId(), ProcessingStatus.COMPLETED, 800, 600, null, null,
+                "uuid-image-thumb.png", processedDate);
+
+        CourseContentSummary summary = courseContentRepository.findSummaryById(saved.getId()).orElseThrow();
+        assertThat(summary.processingStatus()).isEqualTo(ProcessingStatus.COMPLETED);
+        assertThat(summary.imageWidth()).isEqualTo(800);
+        assertThat(summary.imageHeight()).isEqualTo(600);
+        assertThat(summary.thumbnailUrl()).isEqualTo("uuid-image-thumb.png");
+        assertThat(summary.processedDate()).isNotNull();
+    }
+
+    @Test
+    void insertAll_BatchInsert_AssignsIdsInOrder() {
+        courseContent1.setProcessingStatus(ProcessingStatus.PENDING);
+        courseContent2.setProcessingStatus(ProcessingStatus.PENDING);
+
+        courseContentRepository.insertAll(List.of(courseContent1, courseContent2));
+
+        assertThat(courseContent1.getId()).isNotNull();
+        assertThat(courseContent2.getId()).isGreaterThan(courseContent1.getId());
+        CourseContentSummary summary = courseContentRepository.findSummaryById(courseContent2.getId()).orElseThrow();
+        assertThat(summary.fileName()).isEqualTo("video.mp4");
+        assertThat(summary.processingStatus()).isEqualTo(ProcessingStatus.PENDING);
+        assertThat(summary.uploadDate()).isNotNull();
+    }
+
+    @Test
+    void softDeleteByIdIn_HidesRowsUntilPurged() {
+        CourseContent deleted = entityManager.persistAndFlush(courseContent1);
+        CourseContent kept = entityManager.persistAndFlush(courseContent2);
+
+        int updated = courseContentRepository.softDeleteByIdIn(List.of(deleted.getId()), LocalDateTime.now());
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(courseContentRepository.findById(deleted.getId())).isEmpty();
+        assertThat(courseContentRepository.findIdsByIdIn(List.of(deleted.getId(), kept.getId())))
+                .containsExactly(kept.getId());
+        assertThat(courseContentRepository.findAllSummaries()).extracting(CourseContentSummary::id)
+                .containsExactly(kept.getId());
+        assertThat(courseContentRepository.softDeleteByIdIn(List.of(deleted.getId()), LocalDateTime.now())).isZero();
+
+        List<CourseContentRepository.DeletedFile> pending = courseContentRepository.findSoftDeleted(10);
+        assertThat(pending).extracting(CourseContentRepository.DeletedFile::getId).containsExactly(deleted.getId());
+        assertThat(pending.get(0).getFileUrl()).isEqualTo("uuid-document1.pdf");
+
+        courseContentRepository.purgeSoftDeleted(deleted.getId());
+        assertThat(courseContentRepository.findSoftDeleted(10)).isEmpty();
+    }
+
+    @Test
+    void lockLiveIdsByContentHashAndFileUrl_IgnoresSoftDeletedRows() {
+        courseContent1.setContentHash("abc");
+        courseContent2.setContentHash("abc");
+        courseContent2.setFileUrl("uuid-document1.pdf");
+        CourseContent live = entityManager.persist(courseContent1);
+        CourseContent deleted = entityManager.persist(courseContent2);
+        entityManager.flush();
+        courseContentRepository.softDeleteByIdIn(List.of(deleted.getId()), LocalDateTime.now());
+
+        assertThat(courseContentRepository.lockLiveIdsByContentHashAndFileUrl("abc", "uuid-document1.pdf"))
+                .containsExactly(live.getId());
+        assertThat(courseContentRepository.lockLiveIdsByContentHashAndFileUrl("abc", "uuid-video.mp4")).isEmpty();
+    }
+
+    @Test
+    void saveVerifiedType_RemovesRowFromUnverified() {
+        CourseContent legacy = entityManager.persist(courseContent1);
+        courseContent2.setTypeVerified(true);
+        entityManager.persist(courseContent2);
+        CourseContent mismatched = entityManager.persist(courseContent3);
+        entityManager.flush();
+
+        assertThat(courseContentRepository.findUnverifiedAfter(0L, Limit.of(10)))
+                .extracting(CourseContentRepository.UnverifiedContent::getId)
+                .containsExactly(legacy.getId(), mismatched.getId());
+
+        courseContentRepository.saveVerifiedType(legacy.getId(), "application/pdf", true);
+        courseContentRepository.saveVerifiedType(mismatched.getId(), "application/octet-stream", false);
+        entityManager.clear();
+
+        assertThat(courseContentRepository.findUnverifiedAfter(0L, Limit.of(10))).isEmpty();
+        assertThat(courseContentRepository.findById(mismatched.getId())).get()
+                .extracting(CourseContent::getFileType).isEqualTo("application/octet-stream");
+    }
+
+    @Test
+    void streamAllSummaries_NewestFirstWithoutSoftDeleted() {
+        entityManager.persist(courseContent1);
+        entityManager.persist(courseContent2);
+        CourseContent deleted = entityManager.persist(courseContent3);
+        entityManager.flush();
+        courseContentRepository.softDeleteByIdIn(List.of(deleted.getId()), LocalDateTime.now());
+
+        try (Stream<CourseContentSummary> summaries = courseContentRepository.streamAllSummaries()) {
+            assertThat(summaries).extracting(CourseContentSummary::fileName)
+                    .containsExactly("video.mp4", "document1.pdf");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.nimeshnuwanga.course_content_system.repository;
+
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures per-page latency of keyset pagination against OFFSET pagination at growing table
+ * sizes. Run with {@code ./mvnw test -Dbenchmark=true -Dtest=KeysetPaginationBenchmark}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class KeysetPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CourseContentRepository courseContentRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void pageLatencyStaysFlatAsTableGrows(int rowCount) {
+        seed(rowCount);
+
+        Long deepId = courseContentRepository.findAll(
+                PageRequest.of(rowCount - PAGE_SIZE - 1, 1, Sort.by(Sort.Direction.DESC, "uploadDate", "id"))).getContent().get(0).getId();
+        CourseContentSummary deepRow = courseContentRepository.findSummaryById(deepId).orElseThrow();
+
+        double firstPage = averageMicros(() -> courseContentRepository.findFirstPage(Limit.of(PAGE_SIZE)));
+        double deepKeyset = averageMicros(() ->
+                courseContentRepository.findPageAfter(deepRow.uploadDate(), deepRow.id(), Limit.of(PAGE_SIZE)));
+        double deepOffset = averageMicros(() -> courseContentRepository.findAll(
+                PageRequest.of((rowCount / PAGE_SIZE) - 1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "uploadDate", "id")))
+                .getContent());
+
+        System.out.printf("%,9d rows  first page: %8.1f us   last page (keyset): %8.1f us   last page (offset): %8.1f us%n",
+                rowCount, firstPage, deepKeyset, deepOffset);
+        assertThat(courseContentRepository.findPageAfter(deepRow.uploadDate(), deepRow.id(), Limit.of(PAGE_SIZE)))
+                .hasSize(PAGE_SIZE);
+    }
+
+    private void seed(int rowCount) {
+        jdbcTemplate.update("delete from course_content");
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < rowCount; i++) {
+            // Several rows share each timestamp so the id tie-breaker is exercised
+            Timestamp uploadDate = Timestamp.valueOf(start.plusSeconds(i / 3));
+            batch.add(new Object[]{"lecture-" + i + ".pdf", "application/pdf", 1024L + i, uploadDate, "blob-" + i + ".pdf"});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+    }
+
+    private void insert(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into course_content (file_name, file_type, file_size, upload_date, file_url) values (?, ?, ?, ?, ?)",
+                batch);
+        batch.clear();
+    }
+
+    private double averageMicros(Supplier<List<?>> query) {
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            query.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1000.0 / ITERATIONS;
+    }
+}
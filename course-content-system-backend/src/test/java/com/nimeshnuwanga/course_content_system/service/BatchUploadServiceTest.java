@@ -0,0 +1,204 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.entity.ProcessingStatus;
+import com.nimeshnuwanga.course_content_system.exception.FileStorageException;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import com.nimeshnuwanga.course_content_system.storage.LocalStorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchUploadServiceTest {
+
+    @TempDir
+    Path tempDir;
+    @Mock
+    private CourseContentRepository courseContentRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    private BatchUploadService batchUploadService;
+
+    @BeforeEach
+    void setUp() {
+        FileStorageService fileStorageService = new FileStorageService(tempDir.toString(),
+                new LocalStorageBackend(tempDir.toString()), courseContentRepository,
+                new HotFileCache(false, DataSize.ofKilobytes(64), DataSize.ofKilobytes(128), Duration.ofMinutes(10)),
+                new FileTransferMetrics(new SimpleMeterRegistry()), eventPublisher);
+        batchUploadService = new BatchUploadService(fileStorageService, 3, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchUploadService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void storeFiles_MixedFiles_InsertsValidRowsInOneBatchAndReportsRejected() throws IOException {
+        doAnswer(invocation -> {
+            List<CourseContent> rows = invocation.getArgument(0);
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).setId(i + 1L);
+            }
+            return null;
+        }).when(courseContentRepository).insertAll(anyList());
+
+        List<BatchUploadResult> results = batchUploadService.storeFiles(List.of(
+                file("week1.pdf", "%PDF-1.4 Week 1 slides"),
+                file("notes.txt", "Plain text"),
+                file("week2.pdf", "%PDF-1.4 Week 2 slides"),
+                file("empty.png", "")));
+
+        assertThat(results).extracting(BatchUploadResult::fileName)
+                .containsExactly("week1.pdf", "notes.txt", "week2.pdf", "empty.png");
+        assertThat(results).extracting(BatchUploadResult::isStored).containsExactly(true, false, true, false);
+        assertThat(results.get(1).failure()).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid file type");
+        assertThat(results.get(3).failure()).hasMessageContaining("Failed to store empty file");
+
+        ArgumentCaptor<List<CourseContent>> rows = ArgumentCaptor.forClass(List.class);
+        verify(courseContentRepository, times(1)).insertAll(rows.capture());
+        assertThat(rows.getValue()).extracting(CourseContent::getFileName).containsExactly("week1.pdf", "week2.pdf");
+        assertThat(rows.getValue()).extracting(CourseContent::getProcessingStatus)
+                .containsOnly(ProcessingStatus.PENDING);
+        verify(courseContentRepository, never()).save(any());
+        verify(eventPublisher, times(2)).publishEvent(any(CourseContentStoredEvent.class));
+        assertThat(storedFiles()).hasSize(2);
+        try (Stream<Path> staged = Files.list(tempDir.resolve(".incoming"))) {
+            assertThat(staged).isEmpty();
+        }
+    }
+
+    @Test
+    void storeFiles_InsertFails_ReportsEveryStagedFileAndRemovesContent() throws IOException {
+        doThrow(new DataIntegrityViolationException("Batch insert failed"))
+                .when(courseContentRepository).insertAll(anyList());
+
+        List<BatchUploadResult> results = batchUploadService.storeFiles(List.of(
+                file("week1.pdf", "%PDF-1.4 Week 1 slides"),
+                file("week2.pdf", "%PDF-1.4 Week 2 slides")));
+
+        assertThat(results).noneMatch(BatchUploadResult::isStored);
+        assertThat(results).extracting(BatchUploadResult::failure)
+                .allSatisfy(failure -> assertThat(failure).isInstanceOf(DataIntegrityViolationException.class));
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    @Test
+    void storeFiles_Interrupted_RemovesFilesStagedBeforeAndAfterAbandoning() throws Exception {
+        CountDownLatch slowFileRead = new CountDownLatch(1);
+        CountDownLatch releaseSlowFile = new CountDownLatch(1);
+        CountDownLatch slowFileWritten = new CountDownLatch(1);
+        MultipartFile slowFile = new MockMultipartFile("files", "week1.pdf", "application/pdf",
+                "%PDF-1.4 Week 1 slides".getBytes()) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                slowFileRead.countDown();
+                // Keeps staging after the request gave up, ignoring the cancellation
+                awaitUninterruptibly(releaseSlowFile);
+                return new FilterInputStream(super.getInputStream()) {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        slowFileWritten.countDown();
+                    }
+                };
+            }
+        };
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread request = new Thread(() -> {
+            try {
+                batchUploadService.storeFiles(List.of(slowFile, file("week2.pdf", "%PDF-1.4 Week 2 slides")));
+            } catch (Throwable ex) {
+                failure.set(ex);
+            }
+        });
+
+        request.start();
+        slowFileRead.await();
+        while (incomingFiles().isEmpty()) {
+            Thread.sleep(5);
+        }
+        request.interrupt();
+        request.join();
+        releaseSlowFile.countDown();
+        slowFileWritten.await();
+        // The slow file is discarded by its worker once it finishes staging
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!incomingFiles().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(failure.get()).isInstanceOf(FileStorageException.class);
+        assertThat(storedFiles()).isEmpty();
+        verifyNoInteractions(courseContentRepository);
+    }
+
+    @Test
+    void storeFiles_TooManyFiles_RejectsBatch() {
+        List<MultipartFile> files = Collections.nCopies(6, file("week1.pdf", "%PDF-1.4 Week 1 slides"));
+
+        assertThatThrownBy(() -> batchUploadService.storeFiles(files))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at most 5 files");
+        verifyNoInteractions(courseContentRepository);
+    }
+
+    private MultipartFile file(String fileName, String content) {
+        return new MockMultipartFile("files", fileName, "application/octet-stream", content.getBytes());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+
+    private List<Path> incomingFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve(".incoming"))) {
+            return files.toList();
+        }
+    }
+
+    private List<Path> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentCompressorTest {
+
+    @TempDir
+    Path tempDir;
+    private final ContentCompressor contentCompressor = new ContentCompressor(true, List.of("pdf", " TXT"), 6, 0.1);
+
+    @Test
+    void isCompressible_OnlyListedExtensions() {
+        assertThat(contentCompressor.isCompressible("abc.pdf")).isTrue();
+        assertThat(contentCompressor.isCompressible("abc.PDF")).isTrue();
+        assertThat(contentCompressor.isCompressible("abc.txt")).isTrue();
+        assertThat(contentCompressor.isCompressible("abc.mp4")).isFalse();
+        assertThat(contentCompressor.isCompressible("abc.jpg")).isFalse();
+        assertThat(contentCompressor.isCompressible("abc")).isFalse();
+        assertThat(new ContentCompressor(false, List.of("pdf"), 6, 0.1).isCompressible("abc.pdf")).isFalse();
+    }
+
+    @Test
+    void compress_TextContent_WritesSmallerGzip() throws IOException {
+        byte[] original = "BT /F1 12 Tf (Week 3 lecture notes) Tj ET\n".repeat(1000).getBytes();
+        Path source = Files.write(tempDir.resolve("notes.pdf"), original);
+        Path target = tempDir.resolve("notes.pdf.gz");
+
+        assertThat(contentCompressor.compress(source, target)).isTrue();
+
+        assertThat(Files.size(target)).isLessThan(original.length / 10);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(target))) {
+            assertThat(in.readAllBytes()).isEqualTo(original);
+        }
+    }
+
+    @Test
+    void compress_IncompressibleContent_KeepsNoVariant() throws IOException {
+        byte[] random = new byte[64 * 1024];
+        new Random(7).nextBytes(random);
+        Path source = Files.write(tempDir.resolve("scan.pdf"), random);
+        Path target = tempDir.resolve("scan.pdf.gz");
+
+        assertThat(contentCompressor.compress(source, target)).isFalse();
+
+        assertThat(target).doesNotExist();
+    }
+}
@@ -0,0 +1,221 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.config.CacheConfig;
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.entity.ProcessingStatus;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import com.nimeshnuwanga.course_content_system.storage.LocalStorageBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContentProcessingServiceTest {
+
+    @TempDir
+    Path tempDir;
+    @Mock
+    private CourseContentRepository courseContentRepository;
+    @Mock
+    private MediaMetadataExtractor metadataExtractor;
+    private ConcurrentMapCacheManager cacheManager;
+    private ContentProcessingService contentProcessingService;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.COURSE_CONTENT_CACHE, CacheConfig.COURSE_CONTENT_LIST_CACHE);
+        contentProcessingService = new ContentProcessingService(tempDir.toString(), 1, 1, Duration.ofHours(1),
+                new LocalStorageBackend(tempDir.toString()), courseContentRepository, metadataExtractor,
+                new ContentCompressor(true, List.of("pdf"), 6, 0.1), new HlsPackager(false, Duration.ofSeconds(6)),
+                cacheManager);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        contentProcessingService.shutdown();
+    }
+
+    @Test
+    void process_Image_SavesDimensionsThumbnailAndEvictsCaches() throws IOException {
+        Files.write(Files.createDirectories(tempDir.resolve("ab/c1")).resolve("abc123.png"), new byte[]{1});
+        when(courseContentRepository.updateProcessingStatus(eq(1L), eq(ProcessingStatus.PENDING), eq(ProcessingStatus.PROCESSING),
+                any(LocalDateTime.class))).thenReturn(1);
+        when(courseContentRepository.findById(1L)).thenReturn(Optional.of(content(1L, "abc123.png")));
+        when(courseContentRepository.saveProcessingResult(eq(1L), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(1);
+        when(metadataExtractor.extract(eq(tempDir.resolve("ab/c1/abc123.png")), eq("png"), any(Path.class)))
+                .thenAnswer(invocation -> {
+                    Files.write(invocation.getArgument(2, Path.class), new byte[]{1});
+                    return MediaMetadata.image(800, 600);
+                });
+        cacheManager.getCache(CacheConfig.COURSE_CONTENT_CACHE).put(1L, "stale");
+        cacheManager.getCache(CacheConfig.COURSE_CONTENT_LIST_CACHE).put("all", "stale");
+
+        contentProcessingService.process(1L);
+
+        verify(courseContentRepository).saveProcessingResult(eq(1L), eq(ProcessingStatus.COMPLETED), eq(800), eq(600),
+                isNull(), isNull(), eq("abc123-thumb.png"), any(LocalDateTime.class));
+        assertThat(tempDir.resolve("ab/c1/abc123-thumb.png")).exists();
+        assertThat(cacheManager.getCache(CacheConfig.COURSE_CONTENT_CACHE).get(1L)).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.COURSE_CONTENT_LIST_CACHE).get("all")).isNull();
+    }
+
+    @Test
+    void process_DeletedWhileProcessing_RemovesStoredThumbnail() throws IOException {
+        // The row is gone when the result is saved, and so is its file
+        when(courseContentRepository.updateProcessingStatus(eq(5L), eq(ProcessingStatus.PENDING), eq(ProcessingStatus.PROCESSING),
+                any(LocalDateTime.class))).thenReturn(1);
+        when(courseContentRepository.findById(5L)).thenReturn(Optional.of(content(5L, "abc123.png")));
+        when(metadataExtractor.extract(eq(tempDir.resolve("ab/c1/abc123.png")), eq("png"), any(Path.class)))
+                .thenAnswer(invocation -> {
+                    Files.write(invocation.getArgument(2, Path.class), new byte[]{1});
+                    return MediaMetadata.image(800, 600);
+                });
+        when(courseContentRepository.saveProcessingResult(eq(5L), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+
+        contentProcessingService.process(5L);
+
+        assertThat(tempDir.resolve("ab/c1/abc123-thumb.png")).doesNotExist();
+    }
+
+    @Test
+    void process_ExtractionFails_MarksFailed() throws IOException {
+        when(courseContentRepository.updateProcessingStatus(eq(2L), eq(ProcessingStatus.PENDING), eq(ProcessingStatus.PROCESSING),
+                any(LocalDateTime.class))).thenReturn(1);
+        when(courseContentRepository.findById(2L)).thenReturn(Optional.of(content(2L, "def456.pdf")));
+        when(metadataExtractor.extract(any(), eq("pdf"), any())).thenThrow(new IOException("Corrupt PDF"));
+
+        contentProcessingService.process(2L);
+
+        verify(courseContentRepository).saveProcessingResult(eq(2L), eq(ProcessingStatus.FAILED), isNull(), isNull(),
+                isNull(), isNull(), isNull(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void process_CompressiblePdf_StoresGzipVariant() throws IOException {
+        Path pdf = Files.createDirectories(tempDir.resolve("fe/dc")).resolve("fedcba.pdf");
+        Files.writeString(pdf, "BT /F1 12 Tf (Lecture notes) Tj ET\n".repeat(500));
+        when(courseContentRepository.updateProcessingStatus(eq(4L), eq(ProcessingStatus.PENDING), eq(ProcessingStatus.PROCESSING),
+                any(LocalDateTime.class))).thenReturn(1);
+        when(courseContentRepository.findById(4L)).thenReturn(Optional.of(content(4L, "fedcba.pdf")));
+        when(metadataExtractor.extract(eq(pdf), eq("pdf"), any(Path.class))).thenReturn(MediaMetadata.document(3));
+
+        contentProcessingService.process(4L);
+
+        Path variant = tempDir.resolve("fe/dc/fedcba.pdf.gz");
+        assertThat(variant).exists();
+        assertThat(Files.size(variant)).isLessThan(Files.size(pdf));
+        verify(courseContentRepository).saveProcessingResult(eq(4L), eq(ProcessingStatus.COMPLETED), isNull(), isNull(),
+                eq(3), isNull(), isNull(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void process_AlreadyClaimed_DoesNothing() throws IOException {
+        when(courseContentRepository.updateProcessingStatus(eq(3L), eq(ProcessingStatus.PENDING), eq(ProcessingStatus.PROCESSING),
+                any(LocalDateTime.class))).thenReturn(0);
+
+        contentProcessingService.process(3L);
+
+        verify(courseContentRepository, never()).findById(anyLong());
+        verifyNoInteractions(metadataExtractor);
+    }
+
+    @Test
+    void submit_QueueFull_ReturnsFalseAndLeavesRowPending() throws InterruptedException {
+        // One worker and one queue slot: the first row occupies the worker, the second fills the queue
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(courseContentRepository.updateProcessingStatus(anyLong(), eq(ProcessingStatus.PENDING), eq(ProcessingStatus.PROCESSING),
+                any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return 0;
+                });
+
+        assertThat(contentProcessingService.submit(1L)).isTrue();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(contentProcessingService.submit(2L)).isTrue();
+        assertThat(contentProcessingService.submit(3L)).isFalse();
+
+        release.countDown();
+        verify(courseContentRepository, never()).saveProcessingResult(eq(3L), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void resubmitPending_ReleasesOnlyClaimsOlderThanTimeout() {
+        LocalDateTime before = LocalDateTime.now();
+
+        contentProcessingService.resubmitPending();
+
+        ArgumentCaptor<LocalDateTime> claimedBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(courseContentRepository).updateStaleProcessingStatus(eq(ProcessingStatus.PROCESSING),
+                eq(ProcessingStatus.PENDING), claimedBefore.capture());
+        assertThat(claimedBefore.getValue()).isBetween(before.minusHours(1), LocalDateTime.now().minusHours(1));
+        verify(courseContentRepository).findIdsByProcessingStatus(ProcessingStatus.PENDING, Limit.of(1));
+    }
+
+    @Test
+    void verifyLegacyTypes_ReplacesDeclaredTypeWithDetectedOne() throws IOException {
+        Files.createDirectories(tempDir.resolve("ab/c1"));
+        Files.write(tempDir.resolve("ab/c1/abc123.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0});
+        Files.createDirectories(tempDir.resolve("de/f4"));
+        Files.write(tempDir.resolve("de/f4/def456.pdf"), "<html>not a pdf</html>".getBytes());
+        // The rows are stubbed mocks themselves, so they are built before the repository is stubbed
+        List<CourseContentRepository.UnverifiedContent> rows =
+                List.of(unverified(1L, "abc123.png"), unverified(2L, "def456.pdf"), unverified(3L, "gone.jpg"));
+        when(courseContentRepository.findUnverifiedAfter(0L, Limit.of(500))).thenReturn(rows);
+        when(courseContentRepository.findUnverifiedAfter(3L, Limit.of(500))).thenReturn(List.of());
+        cacheManager.getCache(CacheConfig.COURSE_CONTENT_CACHE).put(1L, "stale");
+
+        contentProcessingService.verifyLegacyTypes();
+        contentProcessingService.verifyLegacyTypes();
+        contentProcessingService.verifyLegacyTypes();
+
+        verify(courseContentRepository).saveVerifiedType(1L, "image/png", true);
+        verify(courseContentRepository).saveVerifiedType(2L, "application/octet-stream", false);
+        verify(courseContentRepository, never()).saveVerifiedType(eq(3L), any(), anyBoolean());
+        verify(courseContentRepository, times(2)).findUnverifiedAfter(anyLong(), any(Limit.class));
+        assertThat(cacheManager.getCache(CacheConfig.COURSE_CONTENT_CACHE).get(1L)).isNull();
+    }
+
+    private CourseContentRepository.UnverifiedContent unverified(Long id, String fileUrl) {
+        CourseContentRepository.UnverifiedContent row = mock(CourseContentRepository.UnverifiedContent.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getFileUrl()).thenReturn(fileUrl);
+        return row;
+    }
+
+    private CourseContent content(Long id, String fileUrl) {
+        CourseContent content = new CourseContent();
+        content.setId(id);
+        content.setFileUrl(fileUrl);
+        return content;
+    }
+}
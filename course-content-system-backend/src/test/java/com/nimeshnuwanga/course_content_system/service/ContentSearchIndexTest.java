@@ -0,0 +1,71 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentSearchIndexTest {
+
+    private ContentSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ContentSearchIndex();
+        index.add(1, "Week1-Introduction.pdf", "application/pdf");
+        index.add(2, "Week2 Lecture Video.mp4", "video/mp4");
+        index.add(3, "week2_slides.pdf", "application/pdf");
+        index.add(4, "Campus map.png", "image/png");
+    }
+
+    @Test
+    void tokenize_SplitsOnNonWordCharactersAndLowerCases() {
+        assertThat(ContentSearchIndex.tokenize("Week2_Slides (final).PDF"))
+                .containsExactly("week2", "slides", "final", "pdf");
+        assertThat(ContentSearchIndex.tokenize(" -- ")).isEmpty();
+    }
+
+    @Test
+    void search_MatchesEveryWordAsPrefixNewestFirst() {
+        assertThat(index.search("pdf", Long.MAX_VALUE, 10)).containsExactly(3L, 1L);
+        assertThat(index.search("week", Long.MAX_VALUE, 10)).containsExactly(3L, 2L, 1L);
+        assertThat(index.search("WEEK2 sli", Long.MAX_VALUE, 10)).containsExactly(3L);
+        assertThat(index.search("video lec", Long.MAX_VALUE, 10)).containsExactly(2L);
+        assertThat(index.search("week map", Long.MAX_VALUE, 10)).isEmpty();
+        assertThat(index.search("?", Long.MAX_VALUE, 10)).isEmpty();
+    }
+
+    @Test
+    void search_PagesBelowLastId() {
+        List<Long> firstPage = index.search("week", Long.MAX_VALUE, 2);
+        assertThat(firstPage).containsExactly(3L, 2L);
+
+        assertThat(index.search("week", firstPage.get(1), 2)).containsExactly(1L);
+    }
+
+    @Test
+    void search_ManyMatchingWords_StillIntersects() {
+        for (int i = 10; i < 40; i++) {
+            index.add(i, "lecture" + i + ".pdf", "application/pdf");
+        }
+
+        assertThat(index.search("pdf lecture", Long.MAX_VALUE, 3)).containsExactly(39L, 38L, 37L);
+        assertThat(index.search("lecture video", Long.MAX_VALUE, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void addAndRemove_KeepIndexCurrent() {
+        index.add(3, "renamed.pdf", "application/pdf");
+        assertThat(index.search("slides", Long.MAX_VALUE, 10)).isEmpty();
+        assertThat(index.search("renamed", Long.MAX_VALUE, 10)).containsExactly(3L);
+
+        index.remove(1);
+        index.removeAll(List.of(2L, 4L, 99L));
+
+        assertThat(index.search("application", Long.MAX_VALUE, 10)).containsExactly(3L);
+        assertThat(index.search("week", Long.MAX_VALUE, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.dto.CourseContentPage;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContentSearchServiceTest {
+
+    @Mock
+    private CourseContentRepository courseContentRepository;
+    private ContentSearchService contentSearchService;
+
+    @BeforeEach
+    void setUp() {
+        contentSearchService = new ContentSearchService(courseContentRepository);
+        for (long id = 1; id <= 5; id++) {
+            when(courseContentRepository.findSummaryById(id)).thenReturn(Optional.of(summary(id)));
+            contentSearchService.onContentStored(new CourseContentStoredEvent(id));
+        }
+    }
+
+    @Test
+    void search_RowsDeletedElsewhere_FillsPageFromFurtherMatches() {
+        // Rows 3 and 4 were deleted without this node seeing the event
+        Set<Long> live = Set.of(1L, 2L, 5L);
+        when(courseContentRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(live::contains).map(ContentSearchServiceTest::summary).toList();
+        });
+
+        CourseContentPage first = contentSearchService.search("week", null, 2);
+        CourseContentPage second = contentSearchService.search("week", first.getNextCursor(), 2);
+
+        assertThat(first.getItems()).extracting(CourseContentSummary::id).containsExactly(5L, 2L);
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getItems()).extracting(CourseContentSummary::id).containsExactly(1L);
+        assertThat(second.getNextCursor()).isNull();
+
+        // The stale ids were dropped from the index, so they are not looked up again
+        contentSearchService.search("week", null, 2);
+        verify(courseContentRepository).findSummariesByIdIn(List.of(5L, 4L, 3L));
+        verify(courseContentRepository).findSummariesByIdIn(List.of(5L, 2L, 1L));
+    }
+
+    @Test
+    void search_OnlyStaleRowsAfterPage_ReturnsNoCursor() {
+        when(courseContentRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id >= 4).map(ContentSearchServiceTest::summary).toList();
+        });
+
+        CourseContentPage page = contentSearchService.search("week", null, 2);
+
+        assertThat(page.getItems()).extracting(CourseContentSummary::id).containsExactly(5L, 4L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    private static CourseContentSummary summary(Long id) {
+        return new CourseContentSummary(id, "week " + id + " slides.pdf", "application/pdf", 1L,
+                LocalDateTime.now(), id + ".pdf");
+    }
+}
@@ -0,0 +1,71 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentSnifferTest {
+
+    @Test
+    void detect_RecognisesEachAcceptedType() {
+        assertThat(ContentSniffer.detect(bytes("%PDF-1.7"), 8)).isEqualTo("application/pdf");
+        assertThat(ContentSniffer.detect(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, 8))
+                .isEqualTo("image/png");
+        assertThat(ContentSniffer.detect(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1}, 4))
+                .isEqualTo("image/jpeg");
+        assertThat(ContentSniffer.detect(new byte[]{0, 0, 0, 32, 'f', 't', 'y', 'p'}, 8)).isEqualTo("video/mp4");
+        assertThat(ContentSniffer.detect(bytes("<html><body>"), 8)).isNull();
+    }
+
+    @Test
+    void detect_HeaderShorterThanSignature_ReturnsNull() {
+        assertThat(ContentSniffer.detect(bytes("%PDF-1.7"), 4)).isNull();
+    }
+
+    @Test
+    void contentType_MapsExtensionsCaseInsensitively() {
+        assertThat(ContentSniffer.contentType("JPG")).isEqualTo("image/jpeg");
+        assertThat(ContentSniffer.contentType("gz")).isNull();
+    }
+
+    @Test
+    void sniffingStream_ShortMatchingFile_VerifiedAtEnd() throws IOException {
+        try (ContentSniffingInputStream in = new ContentSniffingInputStream(
+                new ByteArrayInputStream(bytes("%PDF-")), "pdf")) {
+            in.transferTo(OutputStream.nullOutputStream());
+
+            assertThat(in.contentType()).isEqualTo("application/pdf");
+        }
+    }
+
+    @Test
+    void sniffingStream_ByteByByteMismatch_Throws() {
+        InputStream in = new ContentSniffingInputStream(new ByteArrayInputStream(bytes("%PDF-1.7 slides")), "png");
+
+        assertThatThrownBy(() -> {
+            while (in.read() != -1) {
+            }
+        }).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("does not match");
+    }
+
+    @Test
+    void sniffingStream_NonPositiveSkip_SkipsNothing() throws IOException {
+        try (ContentSniffingInputStream in = new ContentSniffingInputStream(
+                new ByteArrayInputStream(bytes("%PDF-1.7")), "pdf")) {
+            assertThat(in.skip(-1)).isZero();
+            assertThat(in.skip(0)).isZero();
+            assertThat(in.readAllBytes()).isEqualTo(bytes("%PDF-1.7"));
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
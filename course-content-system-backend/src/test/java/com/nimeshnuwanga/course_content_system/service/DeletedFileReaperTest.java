@@ -0,0 +1,71 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.exception.FileStorageException;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository.DeletedFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeletedFileReaperTest {
+
+    @Mock
+    private CourseContentRepository courseContentRepository;
+    @Mock
+    private FileStorageService fileStorageService;
+    private DeletedFileReaper deletedFileReaper;
+
+    @BeforeEach
+    void setUp() {
+        deletedFileReaper = new DeletedFileReaper(courseContentRepository, fileStorageService, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deletedFileReaper.shutdown();
+    }
+
+    @Test
+    void reap_FailedRow_IsRequeuedWithoutStoppingTheBatch() {
+        DeletedFile failing = deletedFile(1L);
+        DeletedFile reclaimable = deletedFile(2L);
+        when(courseContentRepository.findSoftDeleted(2)).thenReturn(List.of(failing, reclaimable), List.of());
+        doThrow(new FileStorageException("Could not delete file")).when(fileStorageService).reclaimDeletedFile(failing);
+
+        int reclaimed = deletedFileReaper.reap();
+
+        assertThat(reclaimed).isEqualTo(1);
+        verify(fileStorageService).reclaimDeletedFile(reclaimable);
+        verify(courseContentRepository).requeueSoftDeleted(eq(1L), any(LocalDateTime.class));
+        verify(courseContentRepository, never()).requeueSoftDeleted(eq(2L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void reap_WholeBatchFails_StopsUntilNextRun() {
+        DeletedFile first = deletedFile(1L);
+        DeletedFile second = deletedFile(2L);
+        when(courseContentRepository.findSoftDeleted(2)).thenReturn(List.of(first, second));
+        doThrow(new FileStorageException("Storage unavailable")).when(fileStorageService).reclaimDeletedFile(any());
+
+        assertThat(deletedFileReaper.reap()).isZero();
+        verify(courseContentRepository, times(1)).findSoftDeleted(2);
+    }
+
+    private DeletedFile deletedFile(Long id) {
+        DeletedFile deletedFile = mock(DeletedFile.class);
+        lenient().when(deletedFile.getId()).thenReturn(id);
+        return deletedFile;
+    }
+}
@@ -0,0 +1,144 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.config.CacheConfig;
+import com.nimeshnuwanga.course_content_system.config.StorageConfig;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {FileStorageService.class, HotFileCache.class, FileTransferMetrics.class, CacheConfig.class, StorageConfig.class}, properties = "spring.cache.type=caffeine")
+@ImportAutoConfiguration({CacheAutoConfiguration.class, MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class})
+class FileStorageServiceCacheTest {
+
+    @TempDir
+    static Path tempDir;
+
+    @DynamicPropertySource
+    static void uploadDir(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", tempDir::toString);
+    }
+
+    @MockitoBean
+    private CourseContentRepository courseContentRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void getFileById_RepeatedLookup_ServedFromCache() {
+        CourseContentSummary summary = summary(1L);
+        when(courseContentRepository.findSummaryById(1L)).thenReturn(Optional.of(summary));
+
+        assertThat(fileStorageService.getFileById(1L)).isEqualTo(summary);
+        assertThat(fileStorageService.getFileById(1L)).isEqualTo(summary);
+
+        verify(courseContentRepository, times(1)).findSummaryById(1L);
+    }
+
+    @Test
+    void getFileById_ConcurrentMisses_QueryOnce() throws Exception {
+        CourseContentSummary summary = summary(1L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(courseContentRepository.findSummaryById(1L)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(summary);
+        });
+        List<CourseContentSummary> results = new CopyOnWriteArrayList<>();
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            callers.add(new Thread(() -> results.add(fileStorageService.getFileById(1L))));
+        }
+
+        callers.forEach(Thread::start);
+        // Every caller has missed the cache and is parked: one in the query, the rest on the cache entry
+        while (!callers.stream().allMatch(caller -> caller.getState() == Thread.State.WAITING
+                || caller.getState() == Thread.State.BLOCKED)) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        assertThat(results).hasSize(16).containsOnly(summary);
+        verify(courseContentRepository, times(1)).findSummaryById(1L);
+    }
+
+    @Test
+    void getAllFiles_RepeatedListing_ServedFromCache() {
+        when(courseContentRepository.findAllSummaries()).thenReturn(List.of(summary(1L)));
+
+        fileStorageService.getAllFiles();
+        fileStorageService.getAllFiles();
+
+        verify(courseContentRepository, times(1)).findAllSummaries();
+    }
+
+    @Test
+    void deleteFile_EvictsEntryAndListings() {
+        when(courseContentRepository.findSummaryById(1L)).thenReturn(Optional.of(summary(1L)));
+        when(courseContentRepository.findAllSummaries()).thenReturn(List.of(summary(1L)));
+        when(courseContentRepository.softDeleteByIdIn(anyCollection(), any(LocalDateTime.class))).thenReturn(1);
+
+        fileStorageService.getFileById(1L);
+        fileStorageService.getAllFiles();
+        fileStorageService.deleteFile(1L);
+        fileStorageService.getFileById(1L);
+        fileStorageService.getAllFiles();
+
+        verify(courseContentRepository, times(2)).findSummaryById(1L);
+        verify(courseContentRepository, times(2)).findAllSummaries();
+    }
+
+    @Test
+    void storeFile_EvictsListings() {
+        CourseContent saved = new CourseContent();
+        saved.setId(2L);
+        when(courseContentRepository.save(any(CourseContent.class))).thenReturn(saved);
+        when(courseContentRepository.findAllSummaries()).thenReturn(List.of(summary(1L)));
+
+        fileStorageService.getAllFiles();
+        fileStorageService.storeFile(new ByteArrayInputStream("%PDF-1.4 content".getBytes()), "notes.pdf",
+                "application/pdf", -1);
+        fileStorageService.getAllFiles();
+
+        verify(courseContentRepository, times(2)).findAllSummaries();
+    }
+
+    private CourseContentSummary summary(Long id) {
+        return new CourseContentSummary(id, "file" + id + ".pdf", "application/pdf", 1L, LocalDateTime.now(), "a.pdf");
+    }
+}
@@ -1,9 +1,16 @@
 package com.nimeshnuwanga.course_content_system.service;
 
+import com.nimeshnuwanga.course_content_system.dto.CourseContentPage;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
 import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.entity.ProcessingStatus;
 import com.nimeshnuwanga.course_content_system.exception.FileNotFoundException;
 import com.nimeshnuwanga.course_content_system.exception.FileStorageException;
 import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository.DeletedFile;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository.StoredNames;
+import com.nimeshnuwanga.course_content_system.storage.LocalStorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,19 +18,32 @@ import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,11 +53,29 @@ class FileStorageServiceTest {
     Path tempDir;
     @Mock
     private CourseContentRepository courseContentRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    private HotFileCache hotFileCache;
+    private SimpleMeterRegistry meterRegistry;
     private FileStorageService fileStorageService;
 
     @BeforeEach
     void setUp() {
-        fileStorageService = new FileStorageService(tempDir.toString(), courseContentRepository);
+        hotFileCache = new HotFileCache(true, DataSize.ofKilobytes(64), DataSize.ofKilobytes(128), Duration.ofMinutes(10));
+        meterRegistry = new SimpleMeterRegistry();
+        fileStorageService = new FileStorageService(tempDir.toString(), new LocalStorageBackend(tempDir.toString()),
+                courseContentRepository, hotFileCache,
+                new FileTransferMetrics(meterRegistry), eventPublisher);
+    }
+
+    @Test
+    void constructor_RemovesFilesLeftInStagingDirectory() throws IOException {
+        Path leftover = Files.write(tempDir.resolve(".incoming").resolve("interrupted.tmp"), "%PDF-1.4".getBytes());
+
+        new FileStorageService(tempDir.toString(), new LocalStorageBackend(tempDir.toString()),
+                courseContentRepository, hotFileCache, new FileTransferMetrics(meterRegistry), eventPublisher);
+
+        assertThat(leftover).doesNotExist();
     }
 
     @Test
@@ -47,7 +85,7 @@ class FileStorageServiceTest {
                 "file",
                 "test-document.pdf",
                 "application/pdf",
-                "Test PDF content".getBytes()
+                content("pdf", "Test PDF content")
         );
 
         CourseContent savedContent = new CourseContent();
@@ -79,7 +117,7 @@ class FileStorageServiceTest {
                 "file",
                 "test-video.mp4",
                 "video/mp4",
-                "Test video content".getBytes()
+                content("mp4", "Test video content")
         );
 
         CourseContent savedContent = new CourseContent();
@@ -102,7 +140,7 @@ class FileStorageServiceTest {
                 "file",
                 "test-image.jpg",
                 "image/jpeg",
-                "Test image content".getBytes()
+                content("jpg", "Test image content")
         );
 
         CourseContent savedContent = new CourseContent();
@@ -182,6 +220,174 @@ class FileStorageServiceTest {
         verify(courseContentRepository, never()).save(any());
     }
 
+    @Test
+    void storeFileStream_ValidPDF_WritesStreamToUploadDirectory() throws IOException {
+        byte[] content = content("pdf", "Streamed PDF content");
+        when(courseContentRepository.save(any(CourseContent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CourseContent result = fileStorageService.storeFile(
+                new ByteArrayInputStream(content), "lecture-01.pdf", "application/pdf", content.length);
+
+        assertThat(result.getFileName()).isEqualTo("lecture-01.pdf");
+        assertThat(result.getFileType()).isEqualTo("application/pdf");
+        assertThat(result.getFileSize()).isEqualTo(content.length);
+        assertThat(result.getFileUrl()).endsWith(".pdf");
+        assertThat(Files.readAllBytes(storedPath(result.getFileUrl()))).isEqualTo(content);
+    }
+
+    @Test
+    void storeFileStream_UnknownLengthOverLimit_RejectsAndRemovesPartialFile() throws IOException {
+        InputStream oversized = new SequenceInputStream(new ByteArrayInputStream(content("mp4", "")),
+                new ByteArrayInputStream(new byte[52428801]));
+
+        assertThatThrownBy(() -> fileStorageService.storeFile(oversized, "large-file.mp4", "video/mp4", -1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("File size exceeds maximum limit");
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+        verify(courseContentRepository, never()).save(any());
+    }
+
+    @Test
+    void storeFileStream_DeclaredTypeNotTrusted_StoresVerifiedType() {
+        byte[] content = content("png", "Lecture diagram");
+        when(courseContentRepository.save(any(CourseContent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CourseContent result = fileStorageService.storeFile(
+                new ByteArrayInputStream(content), "diagram.png", "application/octet-stream", content.length);
+
+        assertThat(result.getFileType()).isEqualTo("image/png");
+    }
+
+    @Test
+    void storeFileStream_ContentDoesNotMatchExtension_RejectsAndRemovesPartialFile() throws IOException {
+        // An executable renamed to look like a lecture video
+        ByteArrayInputStream rest = new ByteArrayInputStream(new byte[1024 * 1024]);
+        InputStream disguised = new SequenceInputStream(
+                new ByteArrayInputStream(new byte[]{'M', 'Z', (byte) 0x90, 0, 3, 0, 0, 0}), rest);
+
+        assertThatThrownBy(() -> fileStorageService.storeFile(disguised, "lecture.mp4", "video/mp4", -1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not match");
+
+        // Rejected on the first read instead of after the whole body was written
+        assertThat(rest.available()).isEqualTo(1024 * 1024);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+        verify(courseContentRepository, never()).save(any());
+    }
+
+    @Test
+    void storeFileStream_DeclaredLengthOverLimit_RejectsBeforeReading() {
+        InputStream body = mock(InputStream.class);
+
+        assertThatThrownBy(() -> fileStorageService.storeFile(body, "large-file.mp4", "video/mp4", 52428801))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("File size exceeds maximum limit");
+
+        verifyNoInteractions(body);
+    }
+
+    @Test
+    void storeFileStream_EmptyBody_ThrowsException() throws IOException {
+        assertThatThrownBy(() -> fileStorageService.storeFile(
+                new ByteArrayInputStream(new byte[0]), "empty.pdf", "application/pdf", 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Failed to store empty file");
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void storeFile_DuplicateContent_StoresBytesOnce() throws IOException {
+        when(courseContentRepository.save(any(CourseContent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        byte[] slides = content("pdf", "Week 1 lecture slides");
+
+        CourseContent first = fileStorageService.storeFile(
+                new MockMultipartFile("file", "week1.pdf", "application/pdf", slides));
+        CourseContent second = fileStorageService.storeFile(
+                new MockMultipartFile("file", "Week 1 (copy).PDF", "application/pdf", slides));
+
+        assertThat(first.getContentHash()).hasSize(64).isEqualTo(second.getContentHash());
+        assertThat(first.getFileUrl()).isEqualTo(first.getContentHash() + ".pdf").isEqualTo(second.getFileUrl());
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertThat(files.filter(Files::isRegularFile)).containsExactly(storedPath(first.getFileUrl()));
+        }
+    }
+
+    @Test
+    void deleteFile_SoftDeletesRowAndLeavesBytesToReaper() throws IOException {
+        String hash = "a".repeat(64);
+        Path filePath = Files.createDirectories(tempDir.resolve("aa/aa")).resolve(hash + ".pdf");
+        Files.write(filePath, "Test content".getBytes());
+        when(courseContentRepository.softDeleteByIdIn(eq(List.of(1L)), any(LocalDateTime.class))).thenReturn(1);
+
+        fileStorageService.deleteFile(1L);
+
+        assertThat(filePath).exists();
+        verify(eventPublisher).publishEvent(new CourseContentDeletedEvent(List.of(1L)));
+        verify(courseContentRepository, never()).delete(any());
+    }
+
+    @Test
+    void storeFile_BytesReclaimedWhileRowInserted_StoresBytesAgain() throws IOException {
+        byte[] content = content("pdf", "Shared handout");
+        when(courseContentRepository.save(any(CourseContent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        CourseContent first = fileStorageService.storeFile(new ByteArrayInputStream(content), "handout.pdf",
+                "application/pdf", content.length);
+        Path stored = storedPath(first.getFileUrl());
+        // Another node reclaims the last reference to the content just before this row is inserted
+        when(courseContentRepository.save(any(CourseContent.class))).thenAnswer(invocation -> {
+            Files.delete(stored);
+            return invocation.getArgument(0);
+        });
+
+        CourseContent second = fileStorageService.storeFile(new ByteArrayInputStream(content), "handout-copy.pdf",
+                "application/pdf", content.length);
+
+        assertThat(second.getFileUrl()).isEqualTo(first.getFileUrl());
+        assertThat(Files.readAllBytes(stored)).isEqualTo(content);
+    }
+
+    @Test
+    void storeFile_SavesPendingRowAndPublishesEvent() {
+        byte[] content = content("pdf", "Lecture notes");
+        when(courseContentRepository.save(any(CourseContent.class))).thenAnswer(invocation -> {
+            CourseContent saved = invocation.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+
+        CourseContent result = fileStorageService.storeFile(new ByteArrayInputStream(content), "notes.pdf",
+                "application/pdf", content.length);
+
+        assertThat(result.getProcessingStatus()).isEqualTo(ProcessingStatus.PENDING);
+        verify(eventPublisher).publishEvent(new CourseContentStoredEvent(7L));
+    }
+
+    @Test
+    void storeFile_RecordsSizeAndDiskAndDatabaseLatency() {
+        byte[] content = content("pdf", "Lecture notes");
+        when(courseContentRepository.save(any(CourseContent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        fileStorageService.storeFile(new ByteArrayInputStream(content), "notes.PDF", "application/pdf", content.length);
+
+        assertThat(meterRegistry.get("file.upload.size").tag("extension", "pdf").summary().totalAmount())
+                .isEqualTo(content.length);
+        assertThat(meterRegistry.get("file.transfer.bytes").tag("direction", "in").counter().count())
+                .isEqualTo(content.length);
+        assertThat(meterRegistry.get("file.storage.latency").tag("operation", "upload").tag("phase", "disk").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("file.storage.latency").tag("operation", "upload").tag("phase", "db").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("file.transfers.active").tag("direction", "upload").gauge().value()).isZero();
+    }
+
     @Test
     void loadFileAsResource_ExistingFile_Success() throws IOException {
         String fileName = "test-file.pdf";
@@ -195,6 +401,52 @@ class FileStorageServiceTest {
         assertThat(resource.getFilename()).isEqualTo(fileName);
     }
 
+    @Test
+    void loadFileAsResource_RepeatedDownload_ServedFromHotFileCache() throws IOException {
+        Path filePath = tempDir.resolve("syllabus.pdf");
+        Files.write(filePath, "Syllabus content".getBytes());
+
+        assertThat(fileStorageService.loadFileAsResource("syllabus.pdf")).isNotInstanceOf(CachedFileResource.class);
+        fileStorageService.loadFileAsResource("syllabus.pdf");
+        Files.write(filePath, "Changed on disk".getBytes());
+        Resource resource = fileStorageService.loadFileAsResource("syllabus.pdf");
+
+        assertThat(resource).isInstanceOf(CachedFileResource.class);
+        try (InputStream in = resource.getInputStream()) {
+            assertThat(StreamUtils.copyToString(in, StandardCharsets.UTF_8)).isEqualTo("Syllabus content");
+        }
+        assertThat(hotFileCache.hitRatio()).isEqualTo(1.0 / 3);
+        assertThat(hotFileCache.getBytesServed()).isEqualTo("Syllabus content".length());
+    }
+
+    @Test
+    void loadFileAsResource_FileLargerThanCacheLimit_ReadFromDisk() throws IOException {
+        Files.write(tempDir.resolve("lecture.mp4"), new byte[100 * 1024]);
+
+        fileStorageService.loadFileAsResource("lecture.mp4");
+        Resource resource = fileStorageService.loadFileAsResource("lecture.mp4");
+
+        assertThat(resource).isNotInstanceOf(CachedFileResource.class);
+        assertThat(hotFileCache.getCachedBytes()).isZero();
+        assertThat(hotFileCache.hitRatio()).isZero();
+    }
+
+    @Test
+    void loadFileAsResource_BudgetExceeded_EvictsLeastRecentlyUsed() throws IOException {
+        Files.write(tempDir.resolve("a.png"), new byte[60 * 1024]);
+        Files.write(tempDir.resolve("b.png"), new byte[60 * 1024]);
+        Files.write(tempDir.resolve("c.png"), new byte[60 * 1024]);
+
+        for (String fileName : List.of("a.png", "a.png", "b.png", "b.png", "a.png", "c.png", "c.png")) {
+            fileStorageService.loadFileAsResource(fileName);
+        }
+
+        assertThat(hotFileCache.getCachedBytes()).isEqualTo(120 * 1024);
+        assertThat(fileStorageService.loadFileAsResource("a.png")).isInstanceOf(CachedFileResource.class);
+        assertThat(fileStorageService.loadFileAsResource("b.png")).isNotInstanceOf(CachedFileResource.class);
+        assertThat(hotFileCache.hitRatio()).isEqualTo(2.0 / 9);
+    }
+
     @Test
     void loadFileAsResource_NonExistingFile_ThrowsException() {
         assertThatThrownBy(() -> fileStorageService.loadFileAsResource("nonexistent.pdf"))
@@ -204,93 +456,141 @@ class FileStorageServiceTest {
 
     @Test
     void getAllFiles_ReturnsAllFiles() {
-        CourseContent content1 = new CourseContent();
-        content1.setId(1L);
-        content1.setFileName("file1.pdf");
-
-        CourseContent content2 = new CourseContent();
-        content2.setId(2L);
-        content2.setFileName("file2.mp4");
+        CourseContentSummary content1 = new CourseContentSummary(1L, "file1.pdf", "application/pdf", 1L, LocalDateTime.now(), "a.pdf");
+        CourseContentSummary content2 = new CourseContentSummary(2L, "file2.mp4", "video/mp4", 1L, LocalDateTime.now(), "b.mp4");
 
-        List<CourseContent> contentList = Arrays.asList(content1, content2);
-        when(courseContentRepository.findAllByOrderByUploadDateDesc()).thenReturn(contentList);
+        List<CourseContentSummary> contentList = Arrays.asList(content1, content2);
+        when(courseContentRepository.findAllSummaries()).thenReturn(contentList);
 
-        List<CourseContent> result = fileStorageService.getAllFiles();
+        List<CourseContentSummary> result = fileStorageService.getAllFiles();
 
         assertThat(result).hasSize(2);
-        assertThat(result.get(0).getFileName()).isEqualTo("file1.pdf");
-        assertThat(result.get(1).getFileName()).isEqualTo("file2.mp4");
-        verify(courseContentRepository, times(1)).findAllByOrderByUploadDateDesc();
+        assertThat(result.get(0).fileName()).isEqualTo("file1.pdf");
+        assertThat(result.get(1).fileName()).isEqualTo("file2.mp4");
+        verify(courseContentRepository, times(1)).findAllSummaries();
+        verify(courseContentRepository, never()).findAllByOrderByUploadDateDesc();
     }
 
     @Test
     void getAllFiles_EmptyRepository_ReturnsEmptyList() {
-        when(courseContentRepository.findAllByOrderByUploadDateDesc()).thenReturn(List.of());
+        when(courseContentRepository.findAllSummaries()).thenReturn(List.of());
 
-        List<CourseContent> result = fileStorageService.getAllFiles();
+        List<CourseContentSummary> result = fileStorageService.getAllFiles();
 
         assertThat(result).isEmpty();
-        verify(courseContentRepository, times(1)).findAllByOrderByUploadDateDesc();
+        verify(courseContentRepository, times(1)).findAllSummaries();
+    }
+
+    @Test
+    void getFilesPage_MoreRowsThanPageSize_ReturnsCursorForNextPage() {
+        LocalDateTime now = LocalDateTime.now();
+        CourseContentSummary content1 = new CourseContentSummary(3L, "file3.pdf", "application/pdf", 1L, now, "c.pdf");
+        CourseContentSummary content2 = new CourseContentSummary(2L, "file2.pdf", "application/pdf", 1L, now.minusMinutes(1), "b.pdf");
+        CourseContentSummary content3 = new CourseContentSummary(1L, "file1.pdf", "application/pdf", 1L, now.minusMinutes(2), "a.pdf");
+        when(courseContentRepository.findFirstPage(any(Limit.class))).thenReturn(List.of(content1, content2, content3));
+        when(courseContentRepository.findPageAfter(eq(now.minusMinutes(1)), eq(2L), any(Limit.class))).thenReturn(List.of(content3));
+
+        CourseContentPage firstPage = fileStorageService.getFilesPage(null, 2);
+
+        assertThat(firstPage.getItems()).extracting(CourseContentSummary::id).containsExactly(3L, 2L);
+        assertThat(firstPage.getNextCursor()).isNotBlank();
+
+        CourseContentPage secondPage = fileStorageService.getFilesPage(firstPage.getNextCursor(), 2);
+
+        assertThat(secondPage.getItems()).extracting(CourseContentSummary::id).containsExactly(1L);
+        assertThat(secondPage.getNextCursor()).isNull();
+        ArgumentCaptor<Limit> limitCaptor = ArgumentCaptor.forClass(Limit.class);
+        verify(courseContentRepository).findFirstPage(limitCaptor.capture());
+        assertThat(limitCaptor.getValue().max()).isEqualTo(3);
+    }
+
+    @Test
+    void getFilesPage_InvalidCursor_ThrowsException() {
+        assertThatThrownBy(() -> fileStorageService.getFilesPage("not-a-cursor", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid page cursor");
+    }
+
+    @Test
+    void getFilesPage_PageSizeTooLarge_ThrowsException() {
+        assertThatThrownBy(() -> fileStorageService.getFilesPage(null, 1000))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Page size must be between 1 and 100");
     }
 
     @Test
     void getFileById_ExistingFile_Success() {
-        CourseContent content = new CourseContent();
-        content.setId(1L);
-        content.setFileName("test-file.pdf");
+        CourseContentSummary content = new CourseContentSummary(1L, "test-file.pdf", "application/pdf", 1L, LocalDateTime.now(), "a.pdf");
 
-        when(courseContentRepository.findById(1L)).thenReturn(Optional.of(content));
+        when(courseContentRepository.findSummaryById(1L)).thenReturn(Optional.of(content));
 
-        CourseContent result = fileStorageService.getFileById(1L);
+        CourseContentSummary result = fileStorageService.getFileById(1L);
 
         assertThat(result).isNotNull();
-        assertThat(result.getId()).isEqualTo(1L);
-        assertThat(result.getFileName()).isEqualTo("test-file.pdf");
-        verify(courseContentRepository, times(1)).findById(1L);
+        assertThat(result.id()).isEqualTo(1L);
+        assertThat(result.fileName()).isEqualTo("test-file.pdf");
+        verify(courseContentRepository, times(1)).findSummaryById(1L);
+        verify(courseContentRepository, never()).findById(any());
     }
 
     @Test
     void getFileById_NonExistingFile_ThrowsException() {
-        when(courseContentRepository.findById(999L)).thenReturn(Optional.empty());
+        when(courseContentRepository.findSummaryById(999L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> fileStorageService.getFileById(999L))
                 .isInstanceOf(FileNotFoundException.class)
                 .hasMessageContaining("File not found with id 999");
 
-        verify(courseContentRepository, times(1)).findById(999L);
+        verify(courseContentRepository, times(1)).findSummaryById(999L);
     }
 
     @Test
-    void deleteFile_ExistingFile_Success() throws IOException {
+    void reclaimDeletedFile_LegacyFile_DeletesBytesAndEvictsCache() throws IOException {
         String fileName = "test-delete.pdf";
         Path filePath = tempDir.resolve(fileName);
         Files.write(filePath, "Test content".getBytes());
+        fileStorageService.loadFileAsResource(fileName);
+        fileStorageService.loadFileAsResource(fileName);
+        assertThat(hotFileCache.getCachedBytes()).isPositive();
 
-        CourseContent content = new CourseContent();
-        content.setId(1L);
-        content.setFileName("test-delete.pdf");
-        content.setFileUrl(fileName);
-
-        when(courseContentRepository.findById(1L)).thenReturn(Optional.of(content));
-        doNothing().when(courseContentRepository).delete(content);
-
-        fileStorageService.deleteFile(1L);
+        fileStorageService.reclaimDeletedFile(deletedFile(1L, fileName, null));
 
         assertThat(Files.exists(filePath)).isFalse();
-        verify(courseContentRepository, times(1)).findById(1L);
-        verify(courseContentRepository, times(1)).delete(content);
+        assertThat(hotFileCache.getCachedBytes()).isZero();
+        verify(courseContentRepository).purgeSoftDeleted(1L);
+    }
+
+    @Test
+    void reclaimDeletedFile_RemovesDerivedFiles() throws IOException {
+        String hash = "e".repeat(64);
+        Path directory = Files.createDirectories(tempDir.resolve("ee/ee"));
+        Path filePath = Files.write(directory.resolve(hash + ".pdf"), "Test content".getBytes());
+        Path thumbnail = Files.write(directory.resolve(hash + "-thumb.png"), new byte[]{1});
+        Path variant = Files.write(directory.resolve(hash + ".pdf.gz"), new byte[]{2});
+        Path playlist = Files.write(directory.resolve(hash + "-hls.m3u8"), new byte[]{3});
+        Path media = Files.write(directory.resolve(hash + "-hls.mp4"), new byte[]{4});
+
+        assertThat(fileStorageService.loadGzipVariantAsResource(hash + ".pdf")).isNotNull();
+
+        fileStorageService.reclaimDeletedFile(deletedFile(1L, hash + ".pdf", hash));
+
+        assertThat(filePath).doesNotExist();
+        assertThat(thumbnail).doesNotExist();
+        assertThat(variant).doesNotExist();
+        assertThat(playlist).doesNotExist();
+        assertThat(media).doesNotExist();
+        assertThat(fileStorageService.loadGzipVariantAsResource(hash + ".pdf")).isNull();
     }
 
     @Test
     void deleteFile_NonExistingFile_ThrowsException() {
-        when(courseContentRepository.findById(999L)).thenReturn(Optional.empty());
+        when(courseContentRepository.softDeleteByIdIn(eq(List.of(999L)), any(LocalDateTime.class))).thenReturn(0);
 
         assertThatThrownBy(() -> fileStorageService.deleteFile(999L))
                 .isInstanceOf(FileNotFoundException.class)
                 .hasMessageContaining("File not found with id 999");
 
-        verify(courseContentRepository, times(1)).findById(999L);
-        verify(courseContentRepository, never()).delete(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -303,7 +603,7 @@ class FileStorageServiceTest {
                     "file",
                     fileNames[i],
                     mimeTypes[i],
-                    "Test content".getBytes()
+                    content(fileNames[i].substring(fileNames[i].indexOf('.') + 1), "Test content")
             );
 
             CourseContent savedContent = new CourseContent();
@@ -320,4 +620,98 @@ class FileStorageServiceTest {
 
         verify(courseContentRepository, times(fileNames.length)).save(any(CourseContent.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteFiles_SoftDeletesExistingRowsWithoutTouchingStorage() throws IOException {
+        Path filePath = Files.createDirectories(tempDir.resolve("aa/aa")).resolve("a".repeat(64) + ".pdf");
+        Files.write(filePath, "Test content".getBytes());
+        when(courseContentRepository.findIdsByIdIn(anyCollection())).thenReturn(List.of(1L, 3L));
+        when(courseContentRepository.softDeleteByIdIn(eq(List.of(1L, 3L)), any(LocalDateTime.class))).thenReturn(2);
+
+        BulkDeleteResult result = fileStorageService.deleteFiles(List.of(1L, 2L, 3L, 1L));
+
+        assertThat(result.deleted()).isEqualTo(2);
+        assertThat(result.notFound()).containsExactly(2L);
+        assertThat(filePath).exists();
+        verify(eventPublisher).publishEvent(new CourseContentDeletedEvent(List.of(1L, 3L)));
+        verify(courseContentRepository, never()).delete(any(CourseContent.class));
+    }
+
+    @Test
+    void deleteFiles_NoIds_ThrowsException() {
+        assertThatThrownBy(() -> fileStorageService.deleteFiles(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(courseContentRepository);
+    }
+
+    @Test
+    void reclaimDeletedFile_SharedContent_KeepsBytesButPurgesRow() throws IOException {
+        String hash = "b".repeat(64);
+        Path filePath = Files.createDirectories(tempDir.resolve("bb/bb")).resolve(hash + ".pdf");
+        Files.write(filePath, "Test content".getBytes());
+        when(courseContentRepository.lockLiveIdsByContentHashAndFileUrl(hash, hash + ".pdf"))
+                .thenReturn(List.of(3L), List.of());
+
+        fileStorageService.reclaimDeletedFile(deletedFile(1L, hash + ".pdf", hash));
+        assertThat(filePath).exists();
+
+        fileStorageService.reclaimDeletedFile(deletedFile(2L, hash + ".pdf", hash));
+        assertThat(filePath).doesNotExist();
+        verify(courseContentRepository).purgeSoftDeleted(1L);
+        verify(courseContentRepository).purgeSoftDeleted(2L);
+    }
+
+    @Test
+    void deleteOrphanedFiles_DeletesOnlyUnreferencedFiles() throws IOException {
+        String referencedHash = "c".repeat(64);
+        String orphanHash = "d".repeat(64);
+        Path referenced = Files.createDirectories(tempDir.resolve("cc/cc")).resolve(referencedHash + ".png");
+        Path referencedThumbnail = referenced.resolveSibling(referencedHash + "-thumb.png");
+        Path orphan = Files.createDirectories(tempDir.resolve("dd/dd")).resolve(orphanHash + ".pdf");
+        Path legacyOrphan = tempDir.resolve("legacy-upload.pdf");
+        for (Path file : List.of(referenced, referencedThumbnail, orphan, legacyOrphan)) {
+            Files.write(file, "Test content".getBytes());
+        }
+        StoredNames row = mock(StoredNames.class);
+        when(row.getFileUrl()).thenReturn(referencedHash + ".png");
+        when(courseContentRepository.lockStoredNamesByContentHashIn(anyCollection())).thenReturn(List.of(row));
+        when(courseContentRepository.findStoredNamesByNameIn(anyCollection())).thenReturn(List.of());
+
+        int deleted = fileStorageService.deleteOrphanedFiles(List.of(referencedHash + ".png",
+                referencedHash + "-thumb.png", orphanHash + ".pdf", "legacy-upload.pdf"));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(referenced).exists();
+        assertThat(referencedThumbnail).exists();
+        assertThat(orphan).doesNotExist();
+        assertThat(legacyOrphan).doesNotExist();
+    }
+
+    private DeletedFile deletedFile(Long id, String fileUrl, String contentHash) {
+        DeletedFile deletedFile = mock(DeletedFile.class);
+        when(deletedFile.getId()).thenReturn(id);
+        when(deletedFile.getFileUrl()).thenReturn(fileUrl);
+        when(deletedFile.getContentHash()).thenReturn(contentHash);
+        return deletedFile;
+    }
+
+    /**
+     * Prefixes {@code text} with the signature of the given file type.
+     */
+    private static byte[] content(String extension, String text) {
+        byte[] signature = switch (extension) {
+            case "pdf" -> "%PDF-1.4\n".getBytes(StandardCharsets.US_ASCII);
+            case "mp4" -> new byte[]{0, 0, 0, 24, 'f', 't', 'y', 'p', 'i', 's', 'o', 'm'};
+            case "png" -> new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+            default -> new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+        };
+        byte[] body = text.getBytes(StandardCharsets.US_ASCII);
+        byte[] content = Arrays.copyOf(signature, signature.length + body.length);
+        System.arraycopy(body, 0, content, signature.length, body.length);
+        return content;
+    }
+
+    private Path storedPath(String fileUrl) {
+        return tempDir.resolve(fileUrl.substring(0, 2)).resolve(fileUrl.substring(2, 4)).resolve(fileUrl);
+    }
+}
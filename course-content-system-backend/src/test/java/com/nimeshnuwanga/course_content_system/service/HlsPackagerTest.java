@@ -0,0 +1,48 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HlsPackagerTest {
+
+    @Test
+    void fileNames_DeriveFromStoredName() {
+        assertThat(HlsPackager.playlistFileName("abc.mp4")).isEqualTo("abc-hls.m3u8");
+        assertThat(HlsPackager.mediaFileName("abc.mp4")).isEqualTo("abc-hls.mp4");
+    }
+
+    @Test
+    void isPackageable_OnlyMp4WhenEnabled() {
+        assertThat(new HlsPackager(true, Duration.ofSeconds(6)).isPackageable("abc.MP4")).isTrue();
+        assertThat(new HlsPackager(true, Duration.ofSeconds(6)).isPackageable("abc.pdf")).isFalse();
+        assertThat(new HlsPackager(false, Duration.ofSeconds(6)).isPackageable("abc.mp4")).isFalse();
+    }
+
+    @Test
+    void playlist_AddressesSegmentsAsByteRangesOfTheMedia() {
+        FragmentedMp4 media = new FragmentedMp4(700, List.of(
+                new FragmentedMp4.Segment(700, 5000, 6.006),
+                new FragmentedMp4.Segment(5700, 3000, 3.5)));
+
+        assertThat(HlsPackager.playlist(media)).isEqualTo("""
+                #EXTM3U
+                #EXT-X-VERSION:7
+                #EXT-X-TARGETDURATION:6
+                #EXT-X-MEDIA-SEQUENCE:0
+                #EXT-X-PLAYLIST-TYPE:VOD
+                #EXT-X-INDEPENDENT-SEGMENTS
+                #EXT-X-MAP:URI="media.mp4",BYTERANGE="700@0"
+                #EXTINF:6.006000,
+                #EXT-X-BYTERANGE:5000@700
+                media.mp4
+                #EXTINF:3.500000,
+                #EXT-X-BYTERANGE:3000@5700
+                media.mp4
+                #EXT-X-ENDLIST
+                """);
+    }
+}
@@ -0,0 +1,113 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.storage.LocalStorageBackend;
+import com.nimeshnuwanga.course_content_system.storage.StorageBackend;
+import com.nimeshnuwanga.course_content_system.storage.StoredObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotFileCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalStorageBackend storageBackend;
+    private HotFileCache hotFileCache;
+
+    @BeforeEach
+    void setUp() {
+        storageBackend = new LocalStorageBackend(tempDir.toString());
+        hotFileCache = new HotFileCache(true, DataSize.ofKilobytes(64), DataSize.ofKilobytes(128), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void get_SecondMissWithinWindow_AdmitsFile() throws IOException {
+        Files.write(tempDir.resolve("notes.pdf"), new byte[1024]);
+
+        assertThat(hotFileCache.get("notes.pdf", storageBackend)).isNull();
+        assertThat(hotFileCache.getCachedBytes()).isZero();
+
+        assertThat(hotFileCache.get("notes.pdf", storageBackend)).isInstanceOf(CachedFileResource.class);
+        assertThat(hotFileCache.get("notes.pdf", storageBackend)).isInstanceOf(CachedFileResource.class);
+        assertThat(hotFileCache.getCachedBytes()).isEqualTo(1024);
+        assertThat(hotFileCache.hitRatio()).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    void get_SecondMissOutsideWindow_NotAdmitted() throws Exception {
+        hotFileCache = new HotFileCache(true, DataSize.ofKilobytes(64), DataSize.ofKilobytes(128), Duration.ofMillis(1));
+        Files.write(tempDir.resolve("notes.pdf"), new byte[1024]);
+
+        hotFileCache.get("notes.pdf", storageBackend);
+        Thread.sleep(10);
+
+        assertThat(hotFileCache.get("notes.pdf", storageBackend)).isNull();
+        assertThat(hotFileCache.getCachedBytes()).isZero();
+    }
+
+    @Test
+    void get_UncacheableFiles_NotCountedAsMisses() throws IOException {
+        Files.write(tempDir.resolve("lecture.mp4"), new byte[100 * 1024]);
+        Files.write(tempDir.resolve("empty.pdf"), new byte[0]);
+        Files.write(tempDir.resolve("notes.pdf"), new byte[1024]);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hotFileCache.bindTo(registry);
+
+        hotFileCache.get("lecture.mp4", storageBackend);
+        hotFileCache.get("empty.pdf", storageBackend);
+        hotFileCache.get("missing.pdf", storageBackend);
+        hotFileCache.get("notes.pdf", storageBackend);
+        hotFileCache.get("notes.pdf", storageBackend);
+        hotFileCache.get("notes.pdf", storageBackend);
+
+        assertThat(hotFileCache.hitRatio()).isEqualTo(1.0 / 3);
+        assertThat(registry.get("file.download.cache.requests").tag("result", "bypass").functionCounter().count())
+                .isEqualTo(3);
+        assertThat(registry.get("file.download.cache.requests").tag("result", "miss").functionCounter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void get_EvictedWhileLoading_NotCached() throws IOException {
+        StorageBackend backend = mock(StorageBackend.class);
+        when(backend.stat("notes.pdf")).thenReturn(new StoredObject("notes.pdf", 4, 0));
+        when(backend.get(eq("notes.pdf"), eq(0L), anyLong())).thenAnswer(invocation -> {
+            // The file is deleted after the cache decided to load it but before the entry is added
+            hotFileCache.evict("notes.pdf");
+            return new ByteArrayInputStream("data".getBytes());
+        });
+        hotFileCache.get("notes.pdf", backend);
+
+        Resource resource = hotFileCache.get("notes.pdf", backend);
+
+        assertThat(resource).isNull();
+        assertThat(hotFileCache.getCachedBytes()).isZero();
+    }
+
+    @Test
+    void evict_ForgetsEarlierMiss() throws IOException {
+        Files.write(tempDir.resolve("notes.pdf"), new byte[1024]);
+
+        hotFileCache.get("notes.pdf", storageBackend);
+        hotFileCache.evict("notes.pdf");
+
+        assertThat(hotFileCache.get("notes.pdf", storageBackend)).isNull();
+        assertThat(hotFileCache.getCachedBytes()).isZero();
+    }
+}
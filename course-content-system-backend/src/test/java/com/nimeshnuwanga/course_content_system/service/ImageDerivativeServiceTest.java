@@ -0,0 +1,133 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.exception.FileNotFoundException;
+import com.nimeshnuwanga.course_content_system.storage.LocalStorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ImageDerivativeServiceTest {
+
+    private static final String IMAGE = "abcdef.png";
+
+    @TempDir
+    Path tempDir;
+    private LocalStorageBackend storageBackend;
+    private ImageDerivativeService imageDerivativeService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storageBackend = spy(new LocalStorageBackend(tempDir.toString()));
+        imageDerivativeService = new ImageDerivativeService(tempDir.toString(), storageBackend, 1000, 0.85f,
+                DataSize.ofMegabytes(1));
+
+        Path source = tempDir.resolve("upload.tmp");
+        ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_ARGB), "png", source.toFile());
+        storageBackend.put(IMAGE, source);
+    }
+
+    @Test
+    void getDerivative_ScalesToFitAndServesCachedCopyAfterwards() throws IOException {
+        ImageDerivative derivative = imageDerivativeService.getDerivative(IMAGE, 100, 100, null);
+
+        assertThat(derivative.contentType()).isEqualTo("image/png");
+        assertThat(derivative.name()).isEqualTo("abcdef.png-w100-h100.png");
+        BufferedImage written = ImageIO.read(derivative.file().toFile());
+        assertThat(written.getWidth()).isEqualTo(100);
+        assertThat(written.getHeight()).isEqualTo(50);
+
+        assertThat(imageDerivativeService.getDerivative(IMAGE, 100, 100, null).file()).isEqualTo(derivative.file());
+        verify(storageBackend, times(1)).localPath(IMAGE);
+    }
+
+    @Test
+    void getDerivative_ConvertsFormatWithoutEnlarging() throws IOException {
+        ImageDerivative derivative = imageDerivativeService.getDerivative(IMAGE, 800, null, "JPG");
+
+        assertThat(derivative.contentType()).isEqualTo("image/jpeg");
+        BufferedImage written = ImageIO.read(derivative.file().toFile());
+        assertThat(written.getWidth()).isEqualTo(400);
+        assertThat(written.getHeight()).isEqualTo(200);
+    }
+
+    @Test
+    void getDerivative_ConcurrentRequests_RenderOnce() throws Exception {
+        int requests = 8;
+        CountDownLatch arrived = new CountDownLatch(requests);
+        doAnswer(invocation -> {
+            arrived.countDown();
+            return invocation.callRealMethod();
+        }).when(storageBackend).stat(IMAGE);
+        doAnswer(invocation -> {
+            // Hold the first render until every request is in flight
+            arrived.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(storageBackend).localPath(IMAGE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<ImageDerivative>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> imageDerivativeService.getDerivative(IMAGE, 50, null, "png")));
+            }
+            for (Future<ImageDerivative> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS).file()).exists();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(storageBackend, times(1)).localPath(anyString());
+    }
+
+    @Test
+    void getDerivative_InvalidRequests_AreRejected() {
+        assertThatThrownBy(() -> imageDerivativeService.getDerivative("abcdef.pdf", 100, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> imageDerivativeService.getDerivative(IMAGE, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> imageDerivativeService.getDerivative(IMAGE, 0, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> imageDerivativeService.getDerivative(IMAGE, 1001, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> imageDerivativeService.getDerivative(IMAGE, 100, null, "gif"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> imageDerivativeService.getDerivative("missing.png", 100, null, null))
+                .isInstanceOf(FileNotFoundException.class);
+    }
+
+    @Test
+    void trimCache_OverBudget_DeletesLeastRecentlyUsed() throws IOException {
+        Path older = imageDerivativeService.getDerivative(IMAGE, 100, null, null).file();
+        Path newer = imageDerivativeService.getDerivative(IMAGE, 200, null, null).file();
+        Files.setLastModifiedTime(older, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        imageDerivativeService = new ImageDerivativeService(tempDir.toString(), storageBackend, 1000, 0.85f,
+                DataSize.ofBytes(Files.size(newer)));
+
+        assertThat(imageDerivativeService.trimCache()).isEqualTo(1);
+
+        assertThat(older).doesNotExist();
+        assertThat(newer).exists();
+        assertThat(tempDir.resolve("ab/cd/" + IMAGE)).exists();
+    }
+}
@@ -0,0 +1,85 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MediaMetadataExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MediaMetadataExtractor extractor = new MediaMetadataExtractor(320);
+
+    @Test
+    void extract_Image_ReadsDimensionsAndWritesThumbnail() throws IOException {
+        Path image = tempDir.resolve("diagram.png");
+        ImageIO.write(new BufferedImage(1600, 800, BufferedImage.TYPE_INT_RGB), "png", image.toFile());
+        Path thumbnail = tempDir.resolve("diagram-thumb.png");
+
+        MediaMetadata metadata = extractor.extract(image, "png", thumbnail);
+
+        assertThat(metadata.imageWidth()).isEqualTo(1600);
+        assertThat(metadata.imageHeight()).isEqualTo(800);
+        assertThat(metadata.thumbnailCreated()).isTrue();
+        BufferedImage written = ImageIO.read(thumbnail.toFile());
+        assertThat(written.getWidth()).isEqualTo(320);
+        assertThat(written.getHeight()).isEqualTo(160);
+    }
+
+    @Test
+    void extract_Pdf_CountsPages() throws IOException {
+        Path pdf = tempDir.resolve("notes.pdf");
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < 3; i++) {
+                document.addPage(new PDPage());
+            }
+            document.save(pdf.toFile());
+        }
+
+        MediaMetadata metadata = extractor.extract(pdf, "pdf", tempDir.resolve("notes-thumb.png"));
+
+        assertThat(metadata.pageCount()).isEqualTo(3);
+        assertThat(metadata.thumbnailCreated()).isFalse();
+    }
+
+    @Test
+    void extract_Mp4_ReadsDurationFromMovieHeader() throws IOException {
+        Path video = tempDir.resolve("lecture.mp4");
+        ByteBuffer mp4 = ByteBuffer.allocate(16 + 116 + 16);
+        box(mp4, 16, "ftyp").put("isom".getBytes(StandardCharsets.US_ASCII)).putInt(512);
+        box(mp4, 116, "moov");
+        box(mp4, 108, "mvhd").putInt(0).putInt(0).putInt(0).putInt(600).putInt(600 * 95).position(mp4.position() + 80);
+        box(mp4, 16, "mdat").putLong(0);
+        Files.write(video, mp4.array());
+
+        MediaMetadata metadata = extractor.extract(video, "mp4", tempDir.resolve("lecture-thumb.png"));
+
+        assertThat(metadata.durationMillis()).isEqualTo(95_000L);
+    }
+
+    @Test
+    void extract_CorruptMp4_Throws() throws IOException {
+        Path video = tempDir.resolve("broken.mp4");
+        Files.write(video, "not really a movie".getBytes());
+
+        assertThatThrownBy(() -> extractor.extract(video, "mp4", tempDir.resolve("broken-thumb.png")))
+                .isInstanceOf(IOException.class);
+    }
+
+    private ByteBuffer box(ByteBuffer buffer, int size, String type) {
+        return buffer.putInt(size).put(type.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,178 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Mp4FragmenterTest {
+
+    private static final int VIDEO_SAMPLES = 10;
+    private static final int AUDIO_SAMPLES = 20;
+    private static final int AUDIO_SAMPLE_SIZE = 4;
+
+    @TempDir
+    Path tempDir;
+    private final Mp4Fragmenter fragmenter = new Mp4Fragmenter(Duration.ofSeconds(3));
+
+    @Test
+    void fragment_CutsAtKeyframesAfterEachSegmentDuration() throws IOException {
+        Path target = tempDir.resolve("lecture-hls.mp4");
+
+        FragmentedMp4 fragmented = fragmenter.fragment(writeLecture(), target);
+
+        // Keyframes every 3 or 4 seconds: at 0s, 3s and 7s of a 10s video
+        assertThat(fragmented.segments()).extracting(FragmentedMp4.Segment::durationSeconds)
+                .containsExactly(3.0, 4.0, 3.0);
+        assertThat(fragmented.segments().get(0).offset()).isEqualTo(fragmented.initLength());
+        FragmentedMp4.Segment last = fragmented.segments().get(2);
+        assertThat(last.offset() + last.length()).isEqualTo(Files.size(target));
+    }
+
+    @Test
+    void fragment_InitSectionDescribesTracksWithoutSamples() throws IOException {
+        Path target = tempDir.resolve("lecture-hls.mp4");
+
+        FragmentedMp4 fragmented = fragmenter.fragment(writeLecture(), target);
+
+        byte[] init = Arrays.copyOf(Files.readAllBytes(target), (int) fragmented.initLength());
+        String boxes = new String(init, StandardCharsets.ISO_8859_1);
+        assertThat(boxes.substring(4, 8)).isEqualTo("ftyp");
+        assertThat(boxes).contains("moov", "mvex", "trex", "stsd").doesNotContain("stss", "ctts", "moof");
+        assertThat(boxes.indexOf("trak")).isNotEqualTo(boxes.lastIndexOf("trak"));
+    }
+
+    @Test
+    void fragment_SegmentCarriesItsVideoThenAudioSamples() throws IOException {
+        Path target = tempDir.resolve("lecture-hls.mp4");
+
+        FragmentedMp4.Segment segment = fragmenter.fragment(writeLecture(), target).segments().get(1);
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(target));
+        int moof = (int) segment.offset();
+        assertThat(type(bytes, moof)).isEqualTo("moof");
+        int moofSize = bytes.getInt(moof);
+        int mdat = moof + moofSize;
+        assertThat(type(bytes, mdat)).isEqualTo("mdat");
+
+        // Video samples 3 to 6 (3s to 7s), then audio samples 6 to 13 (3s to 7s)
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 3; i <= 6; i++) {
+            expected.writeBytes(videoSample(i));
+        }
+        for (int i = 6; i <= 13; i++) {
+            expected.writeBytes(audioSample(i));
+        }
+        byte[] payload = Arrays.copyOfRange(bytes.array(), mdat + 8, (int) (segment.offset() + segment.length()));
+        assertThat(payload).isEqualTo(expected.toByteArray());
+
+        // The first run's data offset is relative to the moof and points at the mdat payload
+        int trun = new String(bytes.array(), moof, moofSize, StandardCharsets.ISO_8859_1).indexOf("trun") + moof;
+        assertThat(bytes.getInt(trun + 8)).isEqualTo(4);
+        assertThat(bytes.getInt(trun + 12)).isEqualTo(moofSize + 8);
+    }
+
+    @Test
+    void fragment_NoMovieHeader_Throws() throws IOException {
+        Path source = Files.write(tempDir.resolve("broken.mp4"), box("ftyp", "isom".getBytes(), ints(512)));
+
+        assertThatThrownBy(() -> fragmenter.fragment(source, tempDir.resolve("broken-hls.mp4")))
+                .isInstanceOf(IOException.class);
+    }
+
+    /**
+     * Writes a 10 second MP4 with a video track of one-second samples, keyframes at 0s, 3s and 7s,
+     * and an audio track of half-second samples stored two per chunk, interleaved second by second.
+     */
+    private Path writeLecture() throws IOException {
+        byte[] ftyp = box("ftyp", "isom".getBytes(), ints(512));
+        int position = ftyp.length + 8;
+        ByteArrayOutputStream media = new ByteArrayOutputStream();
+        int[] videoOffsets = new int[VIDEO_SAMPLES];
+        int[] audioOffsets = new int[AUDIO_SAMPLES / 2];
+        int[] videoSizes = new int[VIDEO_SAMPLES];
+        for (int second = 0; second < VIDEO_SAMPLES; second++) {
+            videoOffsets[second] = position + media.size();
+            videoSizes[second] = videoSample(second).length;
+            media.writeBytes(videoSample(second));
+            audioOffsets[second] = position + media.size();
+            media.writeBytes(audioSample(2 * second));
+            media.writeBytes(audioSample(2 * second + 1));
+        }
+
+        byte[] video = trak(1, "vide", 1000,
+                box("stts", ints(0, 1, VIDEO_SAMPLES, 1000)),
+                box("stss", ints(0, 3, 1, 4, 8)),
+                box("ctts", ints(0, 1, VIDEO_SAMPLES, 1000)),
+                box("stsz", ints(0, 0, VIDEO_SAMPLES), ints(videoSizes)),
+                box("stsc", ints(0, 1, 1, 1, 1)),
+                box("stco", ints(0, VIDEO_SAMPLES), ints(videoOffsets)));
+        byte[] audio = trak(2, "soun", 100,
+                box("stts", ints(0, 1, AUDIO_SAMPLES, 50)),
+                box("stsz", ints(0, AUDIO_SAMPLE_SIZE, AUDIO_SAMPLES)),
+                box("stsc", ints(0, 1, 1, 2, 1)),
+                box("stco", ints(0, AUDIO_SAMPLES / 2), ints(audioOffsets)));
+        byte[] moov = box("moov", box("mvhd", ints(0, 0, 0, 1000, 10_000), new byte[80]), video, audio);
+
+        return Files.write(tempDir.resolve("lecture.mp4"), concat(ftyp, box("mdat", media.toByteArray()), moov));
+    }
+
+    private byte[] trak(int trackId, String handler, int timescale, byte[]... sampleTables) {
+        byte[] stsd = box("stsd", ints(0, 1), box(handler.equals("vide") ? "avc1" : "mp4a", new byte[16]));
+        return box("trak",
+                box("tkhd", ints(7, 0, 0, trackId, 0, 0), new byte[60]),
+                box("mdia",
+                        box("mdhd", ints(0, 0, 0, timescale, 0, 0)),
+                        box("hdlr", ints(0, 0), handler.getBytes(), new byte[13]),
+                        box("minf",
+                                box("dinf", box("dref", ints(0, 0))),
+                                box("stbl", concat(stsd, concat(sampleTables))))));
+    }
+
+    private static byte[] videoSample(int index) {
+        byte[] sample = new byte[10 + index];
+        Arrays.fill(sample, (byte) (index + 1));
+        return sample;
+    }
+
+    private static byte[] audioSample(int index) {
+        byte[] sample = new byte[AUDIO_SAMPLE_SIZE];
+        Arrays.fill(sample, (byte) (100 + index));
+        return sample;
+    }
+
+    private static String type(ByteBuffer bytes, int box) {
+        return new String(bytes.array(), box + 4, 4, StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] box(String type, byte[]... payload) {
+        byte[] content = concat(payload);
+        return concat(ints(8 + content.length), type.getBytes(StandardCharsets.ISO_8859_1), content);
+    }
+
+    private static byte[] ints(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * values.length);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,101 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_ConcurrentCalls_ShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> followerResult = new AtomicReference<>();
+        Thread leader = new Thread(() -> {
+            try {
+                singleFlight.execute("key", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "value";
+                });
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Thread follower = new Thread(() -> followerResult.set(singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            return "other";
+        })));
+
+        leader.start();
+        awaitWaiting(leader);
+        follower.start();
+        awaitWaiting(follower);
+        release.countDown();
+        leader.join();
+        follower.join();
+
+        assertThat(followerResult.get()).isEqualTo("value");
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void execute_LoadFails_WaitersReceiveTheFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Exception> followerFailure = new AtomicReference<>();
+        Thread leader = new Thread(() -> {
+            try {
+                singleFlight.execute("key", () -> {
+                    release.await();
+                    throw new IOException("unreadable");
+                });
+            } catch (Exception ignored) {
+            }
+        });
+        Thread follower = new Thread(() -> {
+            try {
+                singleFlight.execute("key", () -> "other");
+            } catch (Exception ex) {
+                followerFailure.set(ex);
+            }
+        });
+
+        leader.start();
+        awaitWaiting(leader);
+        follower.start();
+        awaitWaiting(follower);
+        release.countDown();
+        leader.join();
+        follower.join();
+
+        assertThat(followerFailure.get()).isInstanceOf(IOException.class).hasMessage("unreadable");
+    }
+
+    @Test
+    void execute_AfterCompletion_LoadsAgain() throws IOException {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("key", () -> "v" + loads.incrementAndGet());
+        String second = singleFlight.execute("key", () -> "v" + loads.incrementAndGet());
+
+        assertThat(second).isEqualTo("v2");
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+    }
+}
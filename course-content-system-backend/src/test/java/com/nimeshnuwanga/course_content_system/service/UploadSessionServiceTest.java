@@ -0,0 +1,157 @@
+package com.nimeshnuwanga.course_content_system.service;
+
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.exception.FileNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UploadSessionServiceTest {
+
+    @TempDir
+    Path tempDir;
+    @Mock
+    private FileStorageService fileStorageService;
+    private UploadSessionService uploadSessionService;
+
+    @BeforeEach
+    void setUp() {
+        uploadSessionService = new UploadSessionService(tempDir.toString(), Duration.ofHours(1), 10, fileStorageService);
+    }
+
+    @Test
+    void writeChunk_OutOfOrderChunks_CompleteStoresAssembledFile() {
+        when(fileStorageService.validateUpload("lecture.mp4", 10)).thenReturn("lecture.mp4");
+        AtomicReference<byte[]> storedBytes = new AtomicReference<>();
+        when(fileStorageService.storeAssembledFile(any(Path.class), eq("lecture.mp4"), eq("video/mp4")))
+                .thenAnswer(invocation -> {
+                    storedBytes.set(Files.readAllBytes(invocation.getArgument(0)));
+                    CourseContent content = new CourseContent();
+                    content.setId(1L);
+                    content.setFileName("lecture.mp4");
+                    return content;
+                });
+
+        UploadSession session = uploadSessionService.createSession("lecture.mp4", "video/mp4", 10);
+        uploadSessionService.writeChunk(session.getId(), 5, new ByteArrayInputStream("56789".getBytes()), 5);
+        assertThat(session.isComplete()).isFalse();
+        uploadSessionService.writeChunk(session.getId(), 0, new ByteArrayInputStream("01234".getBytes()), 5);
+
+        assertThat(session.isComplete()).isTrue();
+        assertThat(session.getReceivedRanges()).hasSize(1);
+        assertThat(session.getReceivedRanges().get(0)).containsExactly(0L, 9L);
+
+        CourseContent result = uploadSessionService.completeSession(session.getId());
+
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(storedBytes.get()).isEqualTo("0123456789".getBytes());
+        assertThatThrownBy(() -> uploadSessionService.getSession(session.getId()))
+                .isInstanceOf(FileNotFoundException.class);
+    }
+
+    @Test
+    void writeChunk_ParallelChunks_AllBytesReceived() throws Exception {
+        int chunkSize = 64 * 1024;
+        int chunkCount = 16;
+        long fileSize = (long) chunkSize * chunkCount;
+        when(fileStorageService.validateUpload("lecture.mp4", fileSize)).thenReturn("lecture.mp4");
+
+        UploadSession session = uploadSessionService.createSession("lecture.mp4", "video/mp4", fileSize);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = chunkCount - 1; i >= 0; i--) {
+                byte[] chunk = new byte[chunkSize];
+                Arrays.fill(chunk, (byte) i);
+                long offset = (long) i * chunkSize;
+                writes.add(executor.submit(() ->
+                        uploadSessionService.writeChunk(session.getId(), offset, new ByteArrayInputStream(chunk), chunkSize)));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(session.getReceivedBytes()).isEqualTo(fileSize);
+        assertThat(session.isComplete()).isTrue();
+    }
+
+    @Test
+    void completeSession_MissingBytes_ThrowsException() {
+        when(fileStorageService.validateUpload("lecture.mp4", 10)).thenReturn("lecture.mp4");
+
+        UploadSession session = uploadSessionService.createSession("lecture.mp4", "video/mp4", 10);
+        uploadSessionService.writeChunk(session.getId(), 0, new ByteArrayInputStream("0123".getBytes()), 4);
+
+        assertThatThrownBy(() -> uploadSessionService.completeSession(session.getId()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("received 4 of 10 bytes");
+
+        verify(fileStorageService, never()).storeAssembledFile(any(), anyString(), any());
+    }
+
+    @Test
+    void writeChunk_BeyondFileSize_ThrowsException() {
+        when(fileStorageService.validateUpload("lecture.mp4", 10)).thenReturn("lecture.mp4");
+
+        UploadSession session = uploadSessionService.createSession("lecture.mp4", "video/mp4", 10);
+
+        assertThatThrownBy(() -> uploadSessionService.writeChunk(
+                session.getId(), 8, new ByteArrayInputStream("89AB".getBytes()), -1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("beyond the file size");
+    }
+
+    @Test
+    void removeExpiredSessions_IdleSession_RemovesPartFile() throws Exception {
+        uploadSessionService = new UploadSessionService(tempDir.toString(), Duration.ZERO, 10, fileStorageService);
+        when(fileStorageService.validateUpload("lecture.mp4", 10)).thenReturn("lecture.mp4");
+
+        UploadSession session = uploadSessionService.createSession("lecture.mp4", "video/mp4", 10);
+        Thread.sleep(5);
+
+        uploadSessionService.removeExpiredSessions();
+
+        assertThatThrownBy(() -> uploadSessionService.getSession(session.getId()))
+                .isInstanceOf(FileNotFoundException.class);
+        assertThat(Files.exists(session.getPartFile())).isFalse();
+    }
+
+    @Test
+    void createSession_TooManyActiveSessions_ThrowsException() {
+        uploadSessionService = new UploadSessionService(tempDir.toString(), Duration.ofHours(1), 1, fileStorageService);
+        when(fileStorageService.validateUpload(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        uploadSessionService.createSession("first.mp4", "video/mp4", 10);
+
+        assertThatThrownBy(() -> uploadSessionService.createSession("second.mp4", "video/mp4", 10))
+                .hasMessageContaining("Too many uploads in progress");
+    }
+}
@@ -0,0 +1,89 @@
+package com.nimeshnuwanga.course_content_system.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalStorageBackendTest {
+
+    @TempDir
+    Path tempDir;
+    private LocalStorageBackend storageBackend;
+
+    @BeforeEach
+    void setUp() {
+        storageBackend = new LocalStorageBackend(tempDir.toString());
+    }
+
+    @Test
+    void put_MovesSourceIntoPrefixDirectory() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("upload.tmp"), "Lecture notes");
+
+        storageBackend.put("abcdef.pdf", source);
+
+        assertThat(source).doesNotExist();
+        assertThat(tempDir.resolve("ab/cd/abcdef.pdf")).hasContent("Lecture notes");
+        StoredObject object = storageBackend.stat("abcdef.pdf");
+        assertThat(object.size()).isEqualTo("Lecture notes".length());
+        assertThat(object.key()).isEqualTo("abcdef.pdf");
+    }
+
+    @Test
+    void get_Range_ReadsOnlyRequestedBytes() throws IOException {
+        storageBackend.put("abcdef.pdf", Files.writeString(tempDir.resolve("upload.tmp"), "0123456789"));
+
+        try (InputStream in = storageBackend.get("abcdef.pdf", 3, 4)) {
+            assertThat(in.readAllBytes()).asString().isEqualTo("3456");
+        }
+        try (InputStream in = storageBackend.get("abcdef.pdf", 7, -1)) {
+            assertThat(in.readAllBytes()).asString().isEqualTo("789");
+        }
+    }
+
+    @Test
+    void missingObject_StatReturnsNullAndGetThrows() throws IOException {
+        assertThat(storageBackend.stat("missing.pdf")).isNull();
+        assertThatThrownBy(() -> storageBackend.get("missing.pdf", 0, -1)).isInstanceOf(NoSuchFileException.class);
+
+        storageBackend.delete("missing.pdf");
+    }
+
+    @Test
+    void keyOutsideRoot_Rejected() {
+        assertThatThrownBy(() -> storageBackend.stat("../secret.pdf")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> storageBackend.stat("ab/cdef.pdf")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(storageBackend.localPath("abcdef.pdf"))
+                .isEqualTo(tempDir.toAbsolutePath().normalize().resolve("ab/cd/abcdef.pdf"));
+    }
+
+    @Test
+    void flatLayoutFile_ReadableUntilMigratedThenMoved() throws IOException {
+        Files.writeString(tempDir.resolve("abcdef.pdf"), "Legacy upload");
+        Files.writeString(tempDir.resolve("lecture.mp4"), "Legacy video");
+        Files.createDirectories(tempDir.resolve(".incoming"));
+
+        assertThat(storageBackend.stat("abcdef.pdf").size()).isEqualTo("Legacy upload".length());
+        assertThat(storageBackend.localPath("abcdef.pdf")).isEqualTo(tempDir.toAbsolutePath().normalize().resolve("abcdef.pdf"));
+
+        assertThat(storageBackend.migrateFlatLayout()).isEqualTo(2);
+        assertThat(storageBackend.migrateFlatLayout()).isZero();
+
+        assertThat(tempDir.resolve("abcdef.pdf")).doesNotExist();
+        assertThat(tempDir.resolve("ab/cd/abcdef.pdf")).hasContent("Legacy upload");
+        assertThat(tempDir.resolve(".incoming")).isDirectory();
+        try (InputStream in = storageBackend.get("lecture.mp4", 0, -1)) {
+            assertThat(in.readAllBytes()).asString().isEqualTo("Legacy video");
+        }
+        assertThat(storageBackend.localPath("lecture.mp4").getParent().getParent().getParent())
+                .isEqualTo(tempDir.toAbsolutePath().normalize());
+    }
+}
@@ -0,0 +1,133 @@
+package com.nimeshnuwanga.course_content_system.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3StorageBackendTest {
+
+    @TempDir
+    Path tempDir;
+    @Mock
+    private S3Client s3Client;
+    private S3StorageBackend storageBackend;
+
+    @BeforeEach
+    void setUp() {
+        // Tiny thresholds so multipart behaviour can be exercised with small files
+        storageBackend = new S3StorageBackend(s3Client, "course-content", 16, 4, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        storageBackend.close();
+    }
+
+    @Test
+    void put_SmallFile_SinglePutObject() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("small.tmp"), "tiny");
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+
+        storageBackend.put("abc.pdf", source);
+
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(request.capture(), any(RequestBody.class));
+        assertThat(request.getValue().bucket()).isEqualTo("course-content");
+        assertThat(request.getValue().key()).isEqualTo("abc.pdf");
+        assertThat(request.getValue().contentLength()).isEqualTo(4);
+        verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void put_LargeFile_UploadsPartsInParallelAndCompletesInOrder() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("large.tmp"), "0123456789abcdefghij");
+        Map<Integer, String> partBodies = new ConcurrentHashMap<>();
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest part = invocation.getArgument(0);
+            RequestBody body = invocation.getArgument(1);
+            try (InputStream in = body.contentStreamProvider().newStream()) {
+                partBodies.put(part.partNumber(), new String(in.readAllBytes()));
+            }
+            return UploadPartResponse.builder().eTag("etag-" + part.partNumber()).build();
+        });
+
+        storageBackend.put("abc.mp4", source);
+
+        assertThat(partBodies).containsExactlyInAnyOrderEntriesOf(
+                Map.of(1, "0123", 2, "4567", 3, "89ab", 4, "cdef", 5, "ghij"));
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client).completeMultipartUpload(complete.capture());
+        assertThat(complete.getValue().uploadId()).isEqualTo("upload-1");
+        assertThat(complete.getValue().multipartUpload().parts())
+                .extracting(CompletedPart::partNumber, CompletedPart::eTag)
+                .containsExactly(
+                        tuple(1, "etag-1"), tuple(2, "etag-2"), tuple(3, "etag-3"), tuple(4, "etag-4"), tuple(5, "etag-5"));
+    }
+
+    @Test
+    void put_PartFails_AbortsUpload() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("large.tmp"), "0123456789abcdefghij");
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-2").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().statusCode(500).message("Internal error").build());
+
+        assertThatThrownBy(() -> storageBackend.put("abc.mp4", source)).isInstanceOf(IOException.class);
+
+        verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void get_Range_SendsRangeHeader() throws IOException {
+        storageBackend.get("abc.mp4", 100, 50);
+
+        ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(request.capture());
+        assertThat(request.getValue().range()).isEqualTo("bytes=100-149");
+    }
+
+    @Test
+    void stat_MissingObject_ReturnsNull() throws IOException {
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        assertThat(storageBackend.stat("missing.pdf")).isNull();
+    }
+}
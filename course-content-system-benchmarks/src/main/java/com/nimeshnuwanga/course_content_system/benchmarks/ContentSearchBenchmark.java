@@ -0,0 +1,71 @@
+package com.nimeshnuwanga.course_content_system.benchmarks;
+
+import com.nimeshnuwanga.course_content_system.service.ContentSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures search latency for one page of 20 results against an index of {@code documents}
+ * generated file names, for a rare word, a common word, a short prefix that matches many words
+ * and a two-word query. {@code add} measures indexing one new upload into the full index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ContentSearchBenchmark {
+
+    private static final String[] TOPICS = {"algebra", "biology", "calculus", "chemistry", "databases",
+            "economics", "geometry", "history", "literature", "networks", "physics", "statistics"};
+    private static final String[] KINDS = {"lecture", "slides", "notes", "assignment", "solutions", "recording",
+            "diagram", "summary", "quiz", "exam"};
+    private static final String[][] TYPES = {{"pdf", "application/pdf"}, {"mp4", "video/mp4"},
+            {"png", "image/png"}, {"jpg", "image/jpeg"}};
+
+    @Param({"100000", "1000000"})
+    private int documents;
+
+    @Param({"rare", "common", "prefix", "twoWords"})
+    private String queryKind;
+
+    private ContentSearchIndex index;
+    private String query;
+    private long nextId;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void populate() {
+        index = new ContentSearchIndex();
+        for (nextId = 1; nextId <= documents; nextId++) {
+            addRandom(nextId);
+        }
+        query = switch (queryKind) {
+            case "rare" -> "week" + random.nextInt(52) + "x" + random.nextInt(1000);
+            case "common" -> "pdf";
+            case "prefix" -> "c";
+            default -> "chemistry slides";
+        };
+    }
+
+    @Benchmark
+    public List<Long> firstPage() {
+        return index.search(query, Long.MAX_VALUE, 21);
+    }
+
+    @Benchmark
+    public void add() {
+        addRandom(nextId++);
+    }
+
+    private void addRandom(long id) {
+        String[] type = TYPES[random.nextInt(TYPES.length)];
+        String fileName = TOPICS[random.nextInt(TOPICS.length)] + " " + KINDS[random.nextInt(KINDS.length)]
+                + " week" + random.nextInt(52) + "x" + random.nextInt(1000) + "." + type[0];
+        index.add(id, fileName, type[1]);
+    }
+}
@@ -0,0 +1,101 @@
+package com.nimeshnuwanga.course_content_system.benchmarks;
+
+import com.nimeshnuwanga.course_content_system.storage.LocalStorageBackend;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating and opening a stored file as the upload directory fills up, comparing every
+ * file directly in one directory with the prefix-directory layout of {@link LocalStorageBackend}.
+ * Creating includes moving the staged upload into place and removing it again, so the directory
+ * size stays at {@code storedFiles} for the whole run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirectoryLayoutBenchmark {
+
+    @Param({"1000", "50000", "200000"})
+    private int storedFiles;
+
+    @Param({"flat", "sharded"})
+    private String layout;
+
+    private Path uploadDir;
+    private Path stagingDir;
+    private LocalStorageBackend storageBackend;
+    private String[] keys;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void populate() throws IOException {
+        uploadDir = Files.createTempDirectory("directory-layout-benchmark");
+        stagingDir = Files.createDirectories(uploadDir.resolve(".incoming"));
+        storageBackend = new LocalStorageBackend(uploadDir.toString());
+
+        keys = new String[storedFiles];
+        for (int i = 0; i < storedFiles; i++) {
+            keys[i] = randomKey();
+            Files.createFile(stagingDir.resolve("populate.tmp"));
+            store(keys[i], stagingDir.resolve("populate.tmp"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public void createAndDelete() throws IOException {
+        String key = randomKey();
+        Path staged = Files.createFile(stagingDir.resolve(key + ".tmp"));
+        store(key, staged);
+        if ("sharded".equals(layout)) {
+            storageBackend.delete(key);
+        } else {
+            Files.delete(uploadDir.resolve(key));
+        }
+    }
+
+    @Benchmark
+    public long open() throws IOException {
+        String key = keys[random.nextInt(keys.length)];
+        if ("sharded".equals(layout)) {
+            try (InputStream in = storageBackend.get(key, 0, -1)) {
+                return in.available();
+            }
+        }
+        try (FileChannel channel = FileChannel.open(uploadDir.resolve(key), StandardOpenOption.READ)) {
+            return channel.size();
+        }
+    }
+
+    private void store(String key, Path staged) throws IOException {
+        if ("sharded".equals(layout)) {
+            storageBackend.put(key, staged);
+        } else {
+            Files.move(staged, uploadDir.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private String randomKey() {
+        byte[] hash = new byte[32];
+        random.nextBytes(hash);
+        return HexFormat.of().formatHex(hash) + ".pdf";
+    }
+}
@@ -0,0 +1,102 @@
+package com.nimeshnuwanga.course_content_system.benchmarks;
+
+import com.nimeshnuwanga.course_content_system.controller.DownloadResponseWriter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the download copy path (headers, range handling and body copy) into a response
+ * that discards its output, comparing zero-copy transfer against stream copying.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DownloadBenchmark {
+
+    @Param({"65536", "10485760"})
+    private int fileSize;
+
+    @Param({"true", "false"})
+    private boolean zeroCopy;
+
+    private Path directory;
+    private Resource resource;
+    private DownloadResponseWriter writer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("download-benchmark");
+        Path file = directory.resolve("lecture.mp4");
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(content);
+        }
+        resource = new FileSystemResource(file);
+        writer = new DownloadResponseWriter(zeroCopy);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int fullDownload() throws IOException {
+        DiscardingResponse response = new DiscardingResponse();
+        writer.write(resource, "video/mp4", new MockHttpServletRequest("GET", "/api/files/download/lecture.mp4"), response);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int rangeDownload() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/download/lecture.mp4");
+        request.addHeader("Range", "bytes=" + fileSize / 4 + "-" + (fileSize / 2 - 1));
+        DiscardingResponse response = new DiscardingResponse();
+        writer.write(resource, "video/mp4", request, response);
+        return response.getStatus();
+    }
+
+    private static final class DiscardingResponse extends MockHttpServletResponse {
+
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+}
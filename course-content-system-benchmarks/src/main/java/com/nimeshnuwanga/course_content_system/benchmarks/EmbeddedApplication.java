@@ -0,0 +1,40 @@
+package com.nimeshnuwanga.course_content_system.benchmarks;
+
+import com.nimeshnuwanga.course_content_system.CourseContentSystemApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the application without a web server, on an in-memory H2 database and the given
+ * upload directory, so benchmarks exercise the real service and repository wiring.
+ */
+final class EmbeddedApplication {
+
+    private EmbeddedApplication() {
+    }
+
+    static ConfigurableApplicationContext start(Path uploadDir, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "file.upload-dir=" + uploadDir,
+                "logging.level.root=WARN"
+        ));
+        properties.addAll(List.of(extraProperties));
+
+        return new SpringApplicationBuilder(CourseContentSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+}
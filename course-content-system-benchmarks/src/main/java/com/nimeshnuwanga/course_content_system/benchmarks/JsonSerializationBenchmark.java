@@ -0,0 +1,70 @@
+package com.nimeshnuwanga.course_content_system.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nimeshnuwanga.course_content_system.dto.CourseContentSummary;
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serializing a file listing the way the list endpoints do, for both the summary
+ * projection they return and the full entity they used to return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "1000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+    private List<CourseContentSummary> summaries;
+    private List<CourseContent> entities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Matches the mapper Spring Boot configures for the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        summaries = new ArrayList<>(listSize);
+        entities = new ArrayList<>(listSize);
+        LocalDateTime uploadDate = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (long id = 1; id <= listSize; id++) {
+            String fileUrl = "http://localhost:8080/api/files/download/" + Long.toHexString(id * 0x9E3779B97F4A7C15L) + ".pdf";
+            summaries.add(new CourseContentSummary(id, "lecture-" + id + ".pdf", "application/pdf", 1024 * id,
+                    uploadDate.plusMinutes(id), fileUrl));
+
+            CourseContent entity = new CourseContent();
+            entity.setId(id);
+            entity.setFileName("lecture-" + id + ".pdf");
+            entity.setFileType("application/pdf");
+            entity.setFileSize(1024 * id);
+            entity.setUploadDate(uploadDate.plusMinutes(id));
+            entity.setFileUrl(fileUrl);
+            entities.add(entity);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] serializeEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+}
@@ -0,0 +1,139 @@
+package com.nimeshnuwanga.course_content_system.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.entity.ProcessingStatus;
+import com.nimeshnuwanga.course_content_system.repository.CourseContentRepository;
+import com.nimeshnuwanga.course_content_system.service.FileStorageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing the whole listing the way {@code /api/files/all} does (load every row, then
+ * serialize the list) with {@code /api/files/export} (serialize rows as they come off the
+ * cursor). Both write to a discarding stream. Besides the time per export, {@code peakHeapMb}
+ * reports the peak heap in use during the last export, after a GC beforehand; run with
+ * {@code -prof gc} for allocation rates as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ListingExportBenchmark {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    private Path uploadDir;
+    private ConfigurableApplicationContext context;
+    private CourseContentRepository courseContentRepository;
+    private FileStorageService fileStorageService;
+    private ObjectMapper objectMapper;
+    private ObjectWriter rowWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("listing-export-benchmark");
+        // Without lazy execution H2 builds the whole result in this heap before the first row is read
+        context = EmbeddedApplication.start(uploadDir, "spring.datasource.url=jdbc:h2:mem:listing-export-"
+                + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1");
+        courseContentRepository = context.getBean(CourseContentRepository.class);
+        fileStorageService = context.getBean(FileStorageService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        LocalDateTime uploadDate = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int start = 0; start < rows; start += INSERT_BATCH_SIZE) {
+            List<CourseContent> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (int i = start; i < Math.min(rows, start + INSERT_BATCH_SIZE); i++) {
+                CourseContent content = new CourseContent();
+                content.setFileName("lecture-" + i + ".pdf");
+                content.setFileType("application/pdf");
+                content.setFileSize(1024L * i);
+                content.setUploadDate(uploadDate.plusSeconds(i));
+                content.setFileUrl(Long.toHexString(i * 0x9E3779B97F4A7C15L) + ".pdf");
+                content.setProcessingStatus(ProcessingStatus.COMPLETED);
+                batch.add(content);
+            }
+            courseContentRepository.insertAll(batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public void materialized(HeapUsage heap) throws IOException {
+        heap.start();
+        objectMapper.writeValue(OutputStream.nullOutputStream(), courseContentRepository.findAllSummaries());
+        heap.stop();
+    }
+
+    @Benchmark
+    public long streamed(HeapUsage heap) throws IOException {
+        heap.start();
+        long count;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            count = fileStorageService.forEachFile(file -> {
+                try {
+                    rowWriter.writeValue(generator, file);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            generator.writeEndArray();
+        }
+        heap.stop();
+        return count;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapUsage {
+
+        public long peakHeapMb;
+
+        void start() {
+            System.gc();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                pool.resetPeakUsage();
+            }
+        }
+
+        void stop() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            peakHeapMb = peak / (1024 * 1024);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.nimeshnuwanga.course_content_system.benchmarks;
+
+import com.nimeshnuwanga.course_content_system.service.FileStorageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolving a stored file and reading it fully, with and without the hot file cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadFileBenchmark {
+
+    // The upload is checked against its extension, so the content starts with a PDF signature
+    private static final byte[] PDF_HEADER = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"4096", "1048576"})
+    private int fileSize;
+
+    @Param({"true", "false"})
+    private boolean hotFileCache;
+
+    private Path uploadDir;
+    private ConfigurableApplicationContext context;
+    private FileStorageService fileStorageService;
+    private String storedFileName;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        uploadDir = Files.createTempDirectory("load-file-benchmark");
+        context = EmbeddedApplication.start(uploadDir, "file.download.cache.enabled=" + hotFileCache);
+        fileStorageService = context.getBean(FileStorageService.class);
+
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        System.arraycopy(PDF_HEADER, 0, content, 0, PDF_HEADER.length);
+        storedFileName = fileStorageService.storeFile(
+                new MockMultipartFile("file", "syllabus.pdf", "application/pdf", content)).getFileUrl();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public Resource loadFileAsResource() {
+        return fileStorageService.loadFileAsResource(storedFileName);
+    }
+
+    @Benchmark
+    public long loadAndReadFile() throws IOException {
+        Resource resource = fileStorageService.loadFileAsResource(storedFileName);
+        try (InputStream in = resource.getInputStream()) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.nimeshnuwanga.course_content_system.benchmarks;
+
+import com.nimeshnuwanga.course_content_system.entity.CourseContent;
+import com.nimeshnuwanga.course_content_system.service.FileStorageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a multipart upload end to end: validation, hashing, writing to the upload
+ * directory and inserting the row. Every invocation stores distinct content so deduplication
+ * does not short-circuit the disk write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreFileBenchmark {
+
+    // Uploads are sniffed, so the content has to open like a real PDF
+    private static final byte[] PDF_HEADER = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"4096", "1048576"})
+    private int fileSize;
+
+    private Path uploadDir;
+    private ConfigurableApplicationContext context;
+    private FileStorageService fileStorageService;
+    private byte[] content;
+    private long counter;
+    private final List<Long> storedIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        uploadDir = Files.createTempDirectory("store-file-benchmark");
+        context = EmbeddedApplication.start(uploadDir);
+        fileStorageService = context.getBean(FileStorageService.class);
+        content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        System.arraycopy(PDF_HEADER, 0, content, 0, PDF_HEADER.length);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteStoredFiles() {
+        storedIds.forEach(fileStorageService::deleteFile);
+        storedIds.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public CourseContent storeFile() {
+        long value = ++counter;
+        for (int i = 0; i < Long.BYTES; i++) {
+            content[PDF_HEADER.length + i] = (byte) (value >>> (i * 8));
+        }
+        CourseContent stored = fileStorageService.storeFile(
+                new MockMultipartFile("file", "lecture-notes.pdf", "application/pdf", content));
+        storedIds.add(stored.getId());
+        return stored;
+    }
+}
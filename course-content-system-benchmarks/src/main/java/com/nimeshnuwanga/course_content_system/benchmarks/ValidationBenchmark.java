@@ -0,0 +1,55 @@
+package com.nimeshnuwanga.course_content_system.benchmarks;
+
+import com.nimeshnuwanga.course_content_system.service.FileStorageService;
+import com.nimeshnuwanga.course_content_system.service.FileTransferMetrics;
+import com.nimeshnuwanga.course_content_system.service.HotFileCache;
+import com.nimeshnuwanga.course_content_system.storage.LocalStorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures upload validation (path cleaning, size limit and extension check). This is the same
+ * check the multipart path runs before storing, without any disk or database work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"notes.pdf", "Week 12 - Final Review (recorded).MP4", "diagrams/chapter-3/figure.final.v2.png"})
+    private String fileName;
+
+    private Path uploadDir;
+    private FileStorageService fileStorageService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("validation-benchmark");
+        fileStorageService = new FileStorageService(uploadDir.toString(),
+                new LocalStorageBackend(uploadDir.toString()), null,
+                new HotFileCache(false, DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), Duration.ofMinutes(10)),
+                new FileTransferMetrics(new SimpleMeterRegistry()), event -> {
+                });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public String validateUpload() {
+        return fileStorageService.validateUpload(fileName, 1024 * 1024);
+    }
+}